@@ -1,12 +1,10 @@
 package com.twilio;
 
 import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
+import com.twilio.http.BoundedExecutorService;
 import com.twilio.http.TwilioRestClient;
 import com.twilio.exception.AuthenticationException;
 
-import java.util.concurrent.Executors;
-
 /**
  * Singleton class to initialize Twilio environment.
  */
@@ -135,13 +133,14 @@ public class Twilio {
     }
 
     /**
-     * Returns the Twilio executor service.
+     * Returns the Twilio executor service. Defaults to a {@link BoundedExecutorService} with its default
+     * settings, which runs tasks on the calling thread once its threads and queue are full.
      *
      * @return the Twilio executor service
      */
     public static ListeningExecutorService getExecutorService() {
         if (Twilio.executorService == null) {
-            Twilio.executorService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+            Twilio.executorService = new BoundedExecutorService.Builder().build();
         }
         return Twilio.executorService;
     }
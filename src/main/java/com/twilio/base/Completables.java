@@ -0,0 +1,222 @@
+package com.twilio.base;
+
+import com.twilio.Twilio;
+import com.twilio.http.BoundedExecutorService;
+import com.twilio.http.TwilioRestClient;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs creators, fetchers, readers, updaters and deleters asynchronously, returning a {@link CompletableFuture}
+ * that is completed directly by the thread that made the request, without an adapter from ListenableFuture.
+ * Requires Java 8.
+ *
+ * <p>
+ *     Generated operations only make blocking requests, so each request still takes a thread of the executor
+ *     for its whole duration, as the {@code *Async} methods returning ListenableFuture do; this class changes
+ *     the future type and where dependent stages run, not the threading model.
+ * </p>
+ *
+ * <p>
+ *     The base operation classes do not refer to Java 8 types; like {@link ResourceStreams}, this class is only
+ *     loaded the first time one of its methods is called, so the rest of the library still runs on Java 7.
+ * </p>
+ */
+public final class Completables {
+
+    private Completables() {}
+
+    /**
+     * Create a resource using default client.
+     *
+     * @param creator creator of the resource
+     * @param <T> type of the resource
+     * @return future that resolves to the created object
+     */
+    public static <T extends Resource> CompletableFuture<T> create(final Creator<T> creator) {
+        return create(creator, Twilio.getRestClient(), null);
+    }
+
+    /**
+     * Create a resource using specified client on the given executor. Stages that are not async run on the
+     * executor's thread once the request completes.
+     *
+     * @param creator creator of the resource
+     * @param client client used to make request
+     * @param executor executor to make the request on, or null for the Twilio executor service
+     * @param <T> type of the resource
+     * @return future that resolves to the created object
+     */
+    public static <T extends Resource> CompletableFuture<T> create(final Creator<T> creator,
+                                                                   final TwilioRestClient client,
+                                                                   final Executor executor) {
+        return supply(creator, executor, new Callable<T>() {
+            public T call() {
+                return creator.create(client);
+            }
+        });
+    }
+
+    /**
+     * Fetch a resource using default client.
+     *
+     * @param fetcher fetcher of the resource
+     * @param <T> type of the resource
+     * @return future that resolves to the fetched object
+     */
+    public static <T extends Resource> CompletableFuture<T> fetch(final Fetcher<T> fetcher) {
+        return fetch(fetcher, Twilio.getRestClient(), null);
+    }
+
+    /**
+     * Fetch a resource using specified client on the given executor. Stages that are not async run on the
+     * executor's thread once the request completes.
+     *
+     * @param fetcher fetcher of the resource
+     * @param client client used to make request
+     * @param executor executor to make the request on, or null for the Twilio executor service
+     * @param <T> type of the resource
+     * @return future that resolves to the fetched object
+     */
+    public static <T extends Resource> CompletableFuture<T> fetch(final Fetcher<T> fetcher,
+                                                                  final TwilioRestClient client,
+                                                                  final Executor executor) {
+        return supply(fetcher, executor, new Callable<T>() {
+            public T call() {
+                return fetcher.fetch(client);
+            }
+        });
+    }
+
+    /**
+     * Read resources using default client.
+     *
+     * @param reader reader of the resources
+     * @param <T> type of the resources
+     * @return future that resolves to the ResourceSet of objects
+     */
+    public static <T extends Resource> CompletableFuture<ResourceSet<T>> read(final Reader<T> reader) {
+        return read(reader, Twilio.getRestClient(), null);
+    }
+
+    /**
+     * Read resources using specified client on the given executor. Stages that are not async run on the
+     * executor's thread once the first page is read.
+     *
+     * @param reader reader of the resources
+     * @param client client used to make requests
+     * @param executor executor to make the request on, or null for the Twilio executor service
+     * @param <T> type of the resources
+     * @return future that resolves to the ResourceSet of objects
+     */
+    public static <T extends Resource> CompletableFuture<ResourceSet<T>> read(final Reader<T> reader,
+                                                                              final TwilioRestClient client,
+                                                                              final Executor executor) {
+        return supply(reader, executor, new Callable<ResourceSet<T>>() {
+            public ResourceSet<T> call() {
+                return reader.read(client);
+            }
+        });
+    }
+
+    /**
+     * Update a resource using default client.
+     *
+     * @param updater updater of the resource
+     * @param <T> type of the resource
+     * @return future that resolves to the updated object
+     */
+    public static <T extends Resource> CompletableFuture<T> update(final Updater<T> updater) {
+        return update(updater, Twilio.getRestClient(), null);
+    }
+
+    /**
+     * Update a resource using specified client on the given executor. Stages that are not async run on the
+     * executor's thread once the request completes.
+     *
+     * @param updater updater of the resource
+     * @param client client used to make request
+     * @param executor executor to make the request on, or null for the Twilio executor service
+     * @param <T> type of the resource
+     * @return future that resolves to the updated object
+     */
+    public static <T extends Resource> CompletableFuture<T> update(final Updater<T> updater,
+                                                                   final TwilioRestClient client,
+                                                                   final Executor executor) {
+        return supply(updater, executor, new Callable<T>() {
+            public T call() {
+                return updater.update(client);
+            }
+        });
+    }
+
+    /**
+     * Delete a resource using default client.
+     *
+     * @param deleter deleter of the resource
+     * @param <T> type of the resource
+     * @return future that resolves to true if the object was deleted
+     */
+    public static <T extends Resource> CompletableFuture<Boolean> delete(final Deleter<T> deleter) {
+        return delete(deleter, Twilio.getRestClient(), null);
+    }
+
+    /**
+     * Delete a resource using specified client on the given executor. Stages that are not async run on the
+     * executor's thread once the request completes.
+     *
+     * @param deleter deleter of the resource
+     * @param client client used to make request
+     * @param executor executor to make the request on, or null for the Twilio executor service
+     * @param <T> type of the resource
+     * @return future that resolves to true if the object was deleted
+     */
+    public static <T extends Resource> CompletableFuture<Boolean> delete(final Deleter<T> deleter,
+                                                                         final TwilioRestClient client,
+                                                                         final Executor executor) {
+        return supply(deleter, executor, new Callable<Boolean>() {
+            public Boolean call() {
+                return deleter.delete(client);
+            }
+        });
+    }
+
+    /**
+     * Run a task and complete a future with its outcome.
+     *
+     * @param operation creator, fetcher, reader, updater or deleter making the request, to pick its bulkhead
+     * @param executor executor to run the task on, or null for the Twilio executor service
+     * @param task task making the request
+     * @param <T> type of the result
+     * @return future completed on the thread that ran the task
+     */
+    private static <T> CompletableFuture<T> supply(final Object operation, final Executor executor,
+                                                   final Callable<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    // Cancelled before it started
+                    return;
+                }
+                try {
+                    future.complete(task.call());
+                } catch (final Throwable t) {
+                    // Errors too, or the future would never complete
+                    future.completeExceptionally(t);
+                }
+            }
+        };
+
+        Executor target = executor == null ? Twilio.getExecutorService() : executor;
+        if (target instanceof BoundedExecutorService) {
+            ((BoundedExecutorService) target).execute(BoundedExecutorService.domainOf(operation.getClass()), runnable);
+        } else {
+            target.execute(runnable);
+        }
+        return future;
+    }
+}
@@ -2,6 +2,7 @@ package com.twilio.base;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.twilio.Twilio;
+import com.twilio.http.BoundedExecutorService;
 import com.twilio.http.TwilioRestClient;
 
 import java.util.concurrent.Callable;
@@ -29,7 +30,8 @@ public abstract class Creator<T extends Resource> {
      * @return future that resolves to requested object
      */
     public ListenableFuture<T> createAsync(final TwilioRestClient client) {
-        return Twilio.getExecutorService().submit(new Callable<T>() {
+        String domain = BoundedExecutorService.domainOf(getClass());
+        return BoundedExecutorService.submit(Twilio.getExecutorService(), domain, new Callable<T>() {
             public T call() {
                 return create(client);
             }
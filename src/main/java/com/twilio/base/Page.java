@@ -1,12 +1,15 @@
 package com.twilio.base;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.twilio.exception.ApiConnectionException;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -107,6 +110,27 @@ public class Page<T> {
         return urlFromUri(domain, region, uri);
     }
 
+    String getUrl() {
+        return url;
+    }
+
+    String getUri() {
+        return uri;
+    }
+
+    /**
+     * Create an empty page whose next page is the given page, for a reader to fetch it with
+     * {@link Reader#nextPage(Page, com.twilio.http.TwilioRestClient)}.
+     *
+     * @param url absolute URL of the page, or null
+     * @param uri URI of the page, or null
+     * @param <T> record class type
+     * @return page pointing to the given page
+     */
+    static <T> Page<T> pointingTo(String url, String uri) {
+        return new Builder<T>().records(new ArrayList<T>()).nextPageUrl(url).nextPageUri(uri).build();
+    }
+
     public boolean hasNextPage() {
         return !Strings.isNullOrEmpty(nextPageUri) || !Strings.isNullOrEmpty(nextPageUrl);
     }
@@ -122,21 +146,8 @@ public class Page<T> {
      * @return a page of records of type T
      */
     public static <T> Page<T> fromJson(String recordKey, String json, Class<T> recordType, ObjectMapper mapper) {
-        try {
-            List<T> results = new ArrayList<>();
-            JsonNode root = mapper.readTree(json);
-            JsonNode records = root.get(recordKey);
-            for (final JsonNode record : records) {
-                results.add(mapper.readValue(record.toString(), recordType));
-            }
-
-            JsonNode uriNode = root.get("uri");
-            if (uriNode != null) {
-                return buildPage(root, results);
-            } else {
-                return buildNextGenPage(root, results);
-            }
-
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return parse(recordKey, parser, recordType, mapper);
         } catch (final IOException e) {
             throw new ApiConnectionException(
                 "Unable to deserialize response: " + e.getMessage() + "\nJSON: " + json, e
@@ -144,62 +155,105 @@ public class Page<T> {
         }
     }
 
-    private static <T> Page<T> buildPage(JsonNode root, List<T> results) {
-        Builder<T> builder = new Builder<T>()
-            .uri(root.get("uri").asText());
-
-        JsonNode nextPageNode = root.get("next_page_uri");
-        if (nextPageNode != null && !nextPageNode.isNull()) {
-            builder.nextPageUri(nextPageNode.asText());
-        }
-
-        JsonNode previousPageNode = root.get("previous_page_uri");
-        if (previousPageNode != null && !previousPageNode.isNull()) {
-            builder.previousPageUri(previousPageNode.asText());
-        }
-
-        JsonNode firstPageNode = root.get("first_page_uri");
-        if (firstPageNode != null && !firstPageNode.isNull()) {
-            builder.firstPageUri(firstPageNode.asText());
-        }
-
-        JsonNode pageSizeNode = root.get("page_size");
-        if (pageSizeNode != null && !pageSizeNode.isNull()) {
-            builder.pageSize(pageSizeNode.asInt());
-        } else {
-            builder.pageSize(results.size());
+    /**
+     * Create a new page of data from a json stream, without buffering the response.
+     *
+     * @param recordKey key which holds the records
+     * @param json json stream, closed once parsed
+     * @param recordType resource type
+     * @param mapper json parser
+     * @param <T> record class type
+     * @return a page of records of type T
+     */
+    public static <T> Page<T> fromJson(String recordKey, InputStream json, Class<T> recordType, ObjectMapper mapper) {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return parse(recordKey, parser, recordType, mapper);
+        } catch (final IOException e) {
+            throw new ApiConnectionException("Unable to deserialize response: " + e.getMessage(), e);
         }
-
-        return builder.records(results).build();
     }
 
-    private static <T> Page<T> buildNextGenPage(JsonNode root, List<T> results) {
-        JsonNode meta = root.get("meta");
-        Builder<T> builder = new Builder<T>().url(meta.get("url").asText());
-
-        JsonNode nextPageNode = meta.get("next_page_url");
-        if (!nextPageNode.isNull()) {
-            builder.nextPageUrl(nextPageNode.asText());
-        }
-
-        JsonNode previousPageNode = meta.get("previous_page_url");
-        if (!previousPageNode.isNull()) {
-            builder.previousPageUrl(previousPageNode.asText());
+    /**
+     * Parse a page in a single pass, binding each record as it is read. Paging fields may come before or after
+     * the records; a page with {@code uri} is a v2010 page, and any other page carries them in {@code meta}.
+     */
+    private static <T> Page<T> parse(String recordKey, JsonParser parser, Class<T> recordType, ObjectMapper mapper)
+        throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a page object");
         }
 
-        JsonNode firstPageNode = meta.get("first_page_url");
-        if (!firstPageNode.isNull()) {
-            builder.firstPageUrl(firstPageNode.asText());
+        List<T> results = new ArrayList<>();
+        Builder<T> builder = new Builder<>();
+        Builder<T> meta = new Builder<>();
+        boolean v2010 = false;
+        Integer pageSize = null;
+        Integer metaPageSize = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if (field.equals(recordKey) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    results.add(mapper.readValue(parser, recordType));
+                }
+            } else if ("meta".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String metaField = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (metaField) {
+                        case "url":
+                            meta.url(parser.getValueAsString());
+                            break;
+                        case "next_page_url":
+                            meta.nextPageUrl(parser.getValueAsString());
+                            break;
+                        case "previous_page_url":
+                            meta.previousPageUrl(parser.getValueAsString());
+                            break;
+                        case "first_page_url":
+                            meta.firstPageUrl(parser.getValueAsString());
+                            break;
+                        case "page_size":
+                            metaPageSize = pageSize(parser);
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+            } else {
+                switch (field) {
+                    case "uri":
+                        v2010 = true;
+                        builder.uri(parser.getValueAsString());
+                        break;
+                    case "next_page_uri":
+                        builder.nextPageUri(parser.getValueAsString());
+                        break;
+                    case "previous_page_uri":
+                        builder.previousPageUri(parser.getValueAsString());
+                        break;
+                    case "first_page_uri":
+                        builder.firstPageUri(parser.getValueAsString());
+                        break;
+                    case "page_size":
+                        pageSize = pageSize(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
         }
 
-        JsonNode pageSizeNode = meta.get("page_size");
-        if (!pageSizeNode.isNull()) {
-            builder.pageSize(pageSizeNode.asInt());
-        } else {
-            builder.pageSize(results.size());
+        if (v2010) {
+            return builder.pageSize(pageSize == null ? results.size() : pageSize).records(results).build();
         }
+        return meta.pageSize(metaPageSize == null ? results.size() : metaPageSize).records(results).build();
+    }
 
-        return builder.records(results).build();
+    private static Integer pageSize(JsonParser parser) throws IOException {
+        return parser.getCurrentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsInt();
     }
 
     private static class Builder<T> {
@@ -2,6 +2,7 @@ package com.twilio.base;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.twilio.Twilio;
+import com.twilio.http.BoundedExecutorService;
 import com.twilio.http.TwilioRestClient;
 
 import java.util.concurrent.Callable;
@@ -51,13 +52,56 @@ public abstract class Reader<T extends Resource> {
      * @return future that resolves to the ResourceSet of objects
      */
     public ListenableFuture<ResourceSet<T>> readAsync(final TwilioRestClient client) {
-        return Twilio.getExecutorService().submit(new Callable<ResourceSet<T>>() {
+        String domain = BoundedExecutorService.domainOf(getClass());
+        return BoundedExecutorService.submit(Twilio.getExecutorService(), domain, new Callable<ResourceSet<T>>() {
             public ResourceSet<T> call() {
                 return read(client);
             }
         });
     }
 
+    /**
+     * Publish the resources using default client, fetching one page ahead of the subscriber.
+     *
+     * @return publisher of the resources
+     */
+    public ResourcePublisher<T> publisher() {
+        return publisher(Twilio.getRestClient(), 1);
+    }
+
+    /**
+     * Publish the resources using specified client, fetching pages as subscribers demand them.
+     *
+     * @param client client used to make requests
+     * @param prefetchPages number of pages to fetch ahead of the subscriber, 0 to fetch only on demand
+     * @return publisher of the resources
+     */
+    public ResourcePublisher<T> publisher(final TwilioRestClient client, final int prefetchPages) {
+        return new ResourcePublisher<>(this, client, prefetchPages);
+    }
+
+    /**
+     * Resume reading from a cursor using default client.
+     *
+     * @param cursor cursor taken from a resource set of the same reader type
+     * @return ResourceSet starting at the record after the cursor
+     */
+    public ResourceSet<T> resume(final ResourceCursor cursor) {
+        return resume(cursor, Twilio.getRestClient());
+    }
+
+    /**
+     * Resume reading from a cursor using specified client. The filters and page size come from the cursor,
+     * and so does the limit unless this reader sets one.
+     *
+     * @param cursor cursor taken from a resource set of the same reader type
+     * @param client client used to make requests
+     * @return ResourceSet starting at the record after the cursor
+     */
+    public ResourceSet<T> resume(final ResourceCursor cursor, final TwilioRestClient client) {
+        return ResourceSet.resume(this, client, cursor);
+    }
+
     /**
      * Fetch the first page of resources.
      *
@@ -0,0 +1,165 @@
+package com.twilio.base;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Position of an iteration over a {@link ResourceSet}, from which a new resource set can resume with
+ * {@link Reader#resume(ResourceCursor)}.
+ *
+ * <p>
+ *     The cursor holds the URL of the page the next record is on, as the API returned it, so it carries the
+ *     reader's filters, page size and paging token; the number of records of that page already returned; and
+ *     the number of pages and records the iteration went through, so a limit still applies across a resume.
+ * </p>
+ */
+public final class ResourceCursor implements Serializable {
+
+    private static final long serialVersionUID = 5273195618209187623L;
+
+    private final String readerType;
+    private final String url;
+    private final String uri;
+    private final int offset;
+    private final long pages;
+    private final long processed;
+    private final Long limit;
+
+    ResourceCursor(final String readerType, final String url, final String uri, final int offset, final long pages,
+                   final long processed, final Long limit) {
+        this.readerType = readerType;
+        this.url = url;
+        this.uri = uri;
+        this.offset = offset;
+        this.pages = pages;
+        this.processed = processed;
+        this.limit = limit;
+    }
+
+    /**
+     * Read a cursor saved with {@link #save(File)}.
+     *
+     * @param file file holding the cursor
+     * @return the cursor, or null if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    public static ResourceCursor load(final File file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (ResourceCursor) in.readObject();
+        } catch (final FileNotFoundException e) {
+            return null;
+        } catch (final ClassNotFoundException e) {
+            throw new IOException("Unable to read cursor from " + file, e);
+        }
+    }
+
+    /**
+     * Save the cursor to a file. The cursor is written to a temporary file first and then moved over the file,
+     * atomically where the file system allows it, so a crash while saving leaves the previous cursor in place.
+     *
+     * @param file file to save to
+     * @throws IOException if the file cannot be written
+     */
+    public void save(final File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeObject(this);
+        }
+        replace(tmp, file);
+    }
+
+    /**
+     * Move a file over another one without deleting it first, so the target holds either its old or its new
+     * content at all times.
+     *
+     * @param source file to move
+     * @param target file to replace
+     * @throws IOException if the file cannot be moved, leaving the target as it was
+     */
+    static void replace(final File source, final File target) throws IOException {
+        try {
+            Files.move(
+                source.toPath(),
+                target.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Get the class of the reader the cursor was taken from.
+     *
+     * @return name of the reader class
+     */
+    public String getReaderType() {
+        return readerType;
+    }
+
+    /**
+     * Get the absolute URL of the page the next record is on, returned by APIs other than v2010.
+     *
+     * @return page URL, or null for a v2010 page
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Get the URI of the page the next record is on, returned by the v2010 API.
+     *
+     * @return page URI, or null for a page of another API
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * Get the number of records of the page that were already returned.
+     *
+     * @return records to skip on the page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public long getPages() {
+        return pages;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public Long getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("readerType", readerType)
+                          .add("url", url)
+                          .add("uri", uri)
+                          .add("offset", offset)
+                          .add("pages", pages)
+                          .add("processed", processed)
+                          .add("limit", limit)
+                          .toString();
+    }
+}
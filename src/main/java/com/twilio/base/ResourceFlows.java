@@ -0,0 +1,167 @@
+package com.twilio.base;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Adapts a {@link ResourcePublisher} to {@code java.util.concurrent.Flow.Publisher}. Requires Java 9.
+ *
+ * <p>
+ *     The library is compiled for Java 7, where {@code Flow} does not exist, so the adapter is built at runtime
+ *     with a {@link Proxy}, the way {@link com.twilio.http.BoundedExecutorService} finds virtual threads. Like
+ *     {@link ResourceStreams}, this class is only loaded when it is used. The returned object implements
+ *     {@code Flow.Publisher} and is cast by the caller:
+ * </p>
+ *
+ * <pre>
+ *     Flow.Publisher&lt;Message&gt; messages = (Flow.Publisher&lt;Message&gt;) ResourceFlows.publisher(
+ *         Message.reader(accountSid).publisher(client, 1)
+ *     );
+ * </pre>
+ *
+ * <p>
+ *     Signals and demand pass straight through, so the publisher keeps the Reactive Streams rules
+ *     {@link ResourcePublisher} follows.
+ * </p>
+ */
+public final class ResourceFlows {
+
+    private static final String FLOW = "java.util.concurrent.Flow$";
+
+    private ResourceFlows() {}
+
+    /**
+     * Wrap a publisher as a {@code Flow.Publisher}.
+     *
+     * @param publisher publisher of resources
+     * @return a {@code java.util.concurrent.Flow.Publisher} of the same resources
+     * @throws UnsupportedOperationException if running on Java 8 or earlier
+     */
+    public static Object publisher(final ResourcePublisher<?> publisher) {
+        final Class<?> publisherType = flowType("Publisher");
+        final Class<?> subscriberType = flowType("Subscriber");
+        final Class<?> subscriptionType = flowType("Subscription");
+
+        return proxy(publisherType, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                if (!"subscribe".equals(method.getName())) {
+                    return objectMethod(proxy, method, args);
+                }
+                if (args[0] == null) {
+                    throw new NullPointerException("subscriber");
+                }
+                publisher.subscribe(new FlowSubscriber(args[0], subscriberType, subscriptionType));
+                return null;
+            }
+        });
+    }
+
+    private static Class<?> flowType(final String name) {
+        try {
+            return Class.forName(FLOW + name);
+        } catch (final ClassNotFoundException e) {
+            throw new UnsupportedOperationException("java.util.concurrent.Flow requires Java 9 or later", e);
+        }
+    }
+
+    private static Object proxy(final Class<?> type, final InvocationHandler handler) {
+        return Proxy.newProxyInstance(ResourceFlows.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object objectMethod(final Object proxy, final Method method, final Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return proxy.getClass().getInterfaces()[0].getName() + "@"
+                    + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private static Method method(final Class<?> type, final String name, final Class<?>... parameters) {
+        try {
+            return type.getMethod(name, parameters);
+        } catch (final NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Unexpected " + type.getName() + ": no " + name, e);
+        }
+    }
+
+    /**
+     * Forwards the signals of a {@link ResourcePublisher} to a {@code Flow.Subscriber}.
+     */
+    private static class FlowSubscriber implements ResourcePublisher.Subscriber<Object> {
+        private final Object target;
+        private final Class<?> subscriptionType;
+        private final Method onSubscribe;
+        private final Method onNext;
+        private final Method onError;
+        private final Method onComplete;
+
+        FlowSubscriber(final Object target, final Class<?> subscriberType, final Class<?> subscriptionType) {
+            this.target = target;
+            this.subscriptionType = subscriptionType;
+            this.onSubscribe = method(subscriberType, "onSubscribe", subscriptionType);
+            this.onNext = method(subscriberType, "onNext", Object.class);
+            this.onError = method(subscriberType, "onError", Throwable.class);
+            this.onComplete = method(subscriberType, "onComplete");
+        }
+
+        @Override
+        public void onSubscribe(final ResourcePublisher.Subscription subscription) {
+            Object flowSubscription = proxy(subscriptionType, new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    if ("request".equals(method.getName())) {
+                        subscription.request((Long) args[0]);
+                        return null;
+                    }
+                    if ("cancel".equals(method.getName())) {
+                        subscription.cancel();
+                        return null;
+                    }
+                    return objectMethod(proxy, method, args);
+                }
+            });
+            call(onSubscribe, flowSubscription);
+        }
+
+        @Override
+        public void onNext(final Object item) {
+            call(onNext, item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            call(onError, throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            call(onComplete);
+        }
+
+        private void call(final Method method, final Object... args) {
+            try {
+                method.invoke(target, args);
+            } catch (final InvocationTargetException e) {
+                // Rethrow what the subscriber threw, as a direct call would
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (final IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
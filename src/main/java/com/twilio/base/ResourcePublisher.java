@@ -0,0 +1,273 @@
+package com.twilio.base;
+
+import com.twilio.Twilio;
+import com.twilio.http.BoundedExecutorService;
+import com.twilio.http.TwilioRestClient;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the resources of a {@link Reader} to subscribers, fetching pages as they are demanded.
+ *
+ * <p>
+ *     The {@link Subscriber} and {@link Subscription} interfaces have the same methods as those of Reactive
+ *     Streams and {@code java.util.concurrent.Flow}, which the library cannot depend on while it supports
+ *     Java 7. {@link ResourceFlows#publisher(ResourcePublisher)} adapts a publisher to {@code Flow} on Java 9
+ *     and later. Publishing follows the Reactive Streams rules: signals are serialized, subscribers are never
+ *     sent more records than they requested, and a request for fewer than one record fails the subscription.
+ * </p>
+ *
+ * <p>
+ *     Every subscriber reads the resources from the first page on. Pages are fetched one after the other on the
+ *     Twilio executor service, starting with the first request, and up to the given number of pages are
+ *     fetched ahead of what the subscriber has consumed, so it does not wait a round trip at the end of each
+ *     page. Records are sent from the thread that requested them or the thread that fetched their page; no
+ *     thread blocks waiting for demand. Cancelling stops further fetches.
+ * </p>
+ *
+ * @param <E> type of the resource
+ */
+public class ResourcePublisher<E extends Resource> {
+
+    /**
+     * Receives the resources of a publisher.
+     *
+     * @param <T> type of the resource
+     */
+    public interface Subscriber<T> {
+        void onSubscribe(final Subscription subscription);
+
+        void onNext(final T item);
+
+        void onError(final Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * Demand and cancellation of a subscriber.
+     */
+    public interface Subscription {
+        /**
+         * Request more records.
+         *
+         * @param n number of records to add to the demand, at least 1
+         */
+        void request(final long n);
+
+        /**
+         * Stop receiving records, and stop fetching pages.
+         */
+        void cancel();
+    }
+
+    private final Reader<E> reader;
+    private final TwilioRestClient client;
+    private final int prefetchPages;
+
+    /**
+     * Create a publisher over a reader.
+     *
+     * @param reader reader fetching the pages
+     * @param client client used to make requests
+     * @param prefetchPages number of pages to fetch ahead of the subscriber, 0 to fetch only on demand
+     */
+    public ResourcePublisher(final Reader<E> reader, final TwilioRestClient client, final int prefetchPages) {
+        if (prefetchPages < 0) {
+            throw new IllegalArgumentException("prefetchPages must not be negative");
+        }
+        this.reader = reader;
+        this.client = client;
+        this.prefetchPages = prefetchPages;
+    }
+
+    /**
+     * Start publishing to a subscriber. Nothing is fetched until the subscriber requests records.
+     *
+     * @param subscriber subscriber to publish to
+     */
+    public void subscribe(final Subscriber<? super E> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        PageSubscription subscription = new PageSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    /**
+     * Subscription of one subscriber. State touched only while draining is guarded by {@code wip}: only one
+     * thread drains at a time, and a thread that finds another draining leaves it to drain again.
+     */
+    private class PageSubscription implements Subscription {
+        private final Subscriber<? super E> subscriber;
+        private final String domain = BoundedExecutorService.domainOf(reader.getClass());
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final Queue<Page<E>> pages = new ConcurrentLinkedQueue<>();
+
+        private volatile boolean started;
+        private volatile boolean cancelled;
+        private volatile boolean fetching;
+        private volatile boolean exhausted;
+        private volatile Throwable error;
+        private volatile Throwable invalid;
+
+        // Only touched while fetching, and fetches are sequential
+        private Page<E> last;
+        private long fetched;
+
+        // Only touched while draining
+        private Iterator<E> current;
+        private long emitted;
+        private boolean done;
+
+        PageSubscription(final Subscriber<? super E> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                invalid = new IllegalArgumentException("Requested " + n + " records, must request at least 1");
+                drain();
+                return;
+            }
+
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+            started = true;
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (cancelled || done) {
+                    pages.clear();
+                    current = null;
+                } else {
+                    emit();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            if (invalid != null) {
+                done = true;
+                subscriber.onError(invalid);
+                return;
+            }
+
+            Long limit = reader.getLimit();
+            long demand = requested.get();
+            long sent = 0;
+
+            while (sent != demand && !cancelled && (limit == null || emitted < limit)) {
+                if (current == null || !current.hasNext()) {
+                    Page<E> page = pages.poll();
+                    if (page == null) {
+                        break;
+                    }
+                    current = page.getRecords().iterator();
+                    continue;
+                }
+
+                E record = current.next();
+                sent++;
+                emitted++;
+                try {
+                    subscriber.onNext(record);
+                } catch (final RuntimeException e) {
+                    // A subscriber that throws has broken its contract; stop sending it records
+                    cancelled = true;
+                    subscriber.onError(e);
+                    return;
+                }
+            }
+
+            if (sent != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-sent);
+            }
+            if (cancelled) {
+                return;
+            }
+
+            // Read before the buffer: a fetch adds its page before it stops fetching
+            boolean idle = !fetching;
+            boolean empty = (current == null || !current.hasNext()) && pages.isEmpty();
+            if (limit != null && emitted >= limit || empty && idle && exhausted && error == null) {
+                done = true;
+                subscriber.onComplete();
+            } else if (empty && idle && error != null) {
+                done = true;
+                subscriber.onError(error);
+            } else if (idle && !exhausted && error == null && started
+                && (pages.size() < prefetchPages || empty && requested.get() > 0)) {
+                fetch();
+            }
+        }
+
+        private void fetch() {
+            fetching = true;
+            try {
+                BoundedExecutorService.submit(Twilio.getExecutorService(), domain, new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        fetchPage();
+                        return null;
+                    }
+                });
+            } catch (final RuntimeException e) {
+                error = e;
+                fetching = false;
+                // Drain again to report the failure
+                wip.incrementAndGet();
+            }
+        }
+
+        private void fetchPage() {
+            try {
+                if (!cancelled) {
+                    Page<E> page = last == null ? reader.firstPage(client) : reader.nextPage(last, client);
+                    last = page;
+                    fetched += page.getRecords().size();
+
+                    Long limit = reader.getLimit();
+                    if (!page.hasNextPage() || limit != null && fetched >= limit) {
+                        exhausted = true;
+                    }
+                    pages.add(page);
+                }
+            } catch (final RuntimeException e) {
+                error = e;
+            } finally {
+                fetching = false;
+            }
+            drain();
+        }
+    }
+}
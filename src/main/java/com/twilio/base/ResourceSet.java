@@ -1,13 +1,36 @@
 package com.twilio.base;
 
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.twilio.Twilio;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import com.twilio.http.BoundedExecutorService;
 import com.twilio.http.TwilioRestClient;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 /**
  * A collection of resources.
  *
+ * <p>
+ *     Pages are fetched when the previous one has been iterated over, unless prefetching is enabled with
+ *     {@link #setPrefetchPages(int)}: then the following pages are fetched in the background on the Twilio
+ *     executor service as soon as each page arrives, and iteration only waits if it catches up with them.
+ * </p>
+ *
  * @param <E> type of the resource
  */
 public class ResourceSet<E extends Resource> implements Iterable<E> {
@@ -19,8 +42,14 @@ public class ResourceSet<E extends Resource> implements Iterable<E> {
     private long pages = 1;
     private long pageLimit = Long.MAX_VALUE;
     private long processed = 0;
+    private int offset;
     private Page<E> page;
     private Iterator<E> iterator;
+    private int prefetchPages;
+    private boolean prefetchCancelled;
+    private long scheduledPages = 1;
+    private final Deque<ListenableFuture<Page<E>>> prefetched = new ArrayDeque<>();
+    private File checkpointFile;
 
     /**
      * Initialize the resource set.
@@ -72,23 +101,259 @@ public class ResourceSet<E extends Resource> implements Iterable<E> {
         return pageLimit;
     }
 
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    /**
+     * Fetch up to the given number of pages ahead of the iteration, in the background. Fetches never go past
+     * the limit. A page that fails to fetch throws from the iterator once the pages before it have been
+     * iterated over.
+     *
+     * @param prefetchPages number of pages to fetch ahead, 0 to fetch each page when it is reached
+     * @return this resource set
+     */
+    public ResourceSet<E> setPrefetchPages(final int prefetchPages) {
+        if (prefetchPages < 0) {
+            throw new IllegalArgumentException("prefetchPages must not be negative");
+        }
+        this.prefetchPages = prefetchPages;
+        prefetch();
+        return this;
+    }
+
+    /**
+     * Cancel the pages being fetched in the background, e.g. when iteration stops early. Iteration ends with
+     * the current page.
+     */
+    public void cancelPrefetch() {
+        if (prefetchPages == 0) {
+            return;
+        }
+        for (ListenableFuture<Page<E>> future : prefetched) {
+            future.cancel(true);
+        }
+        prefetched.clear();
+        prefetchCancelled = true;
+    }
+
+    /**
+     * Get the position of the iteration, from which {@link Reader#resume(ResourceCursor)} carries on with the
+     * next record.
+     *
+     * @return cursor at the next record
+     */
+    public ResourceCursor getCursor() {
+        return new ResourceCursor(
+            reader.getClass().getName(), page.getUrl(), page.getUri(), offset, pages, processed, getLimit()
+        );
+    }
+
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Save the cursor to a file whenever the iteration moves on to a page, before the first record of the page
+     * is returned, and once more when the iteration ends. Resuming from the file repeats none of the records
+     * returned before the page, as long as each record is done with before the next one is asked for.
+     *
+     * @param checkpointFile file to save the cursor to, or null to stop saving it
+     * @return this resource set
+     */
+    public ResourceSet<E> setCheckpointFile(final File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+        return this;
+    }
+
+    /**
+     * Create a resource set that resumes from a cursor.
+     *
+     * @param reader reader of the same type as the one the cursor was taken from
+     * @param client client used to make requests
+     * @param cursor position to resume from
+     * @param <E> type of the resource
+     * @return resource set starting at the record after the cursor
+     */
+    static <E extends Resource> ResourceSet<E> resume(final Reader<E> reader, final TwilioRestClient client,
+                                                      final ResourceCursor cursor) {
+        if (!reader.getClass().getName().equals(cursor.getReaderType())) {
+            throw new IllegalArgumentException(
+                "Cursor of " + cursor.getReaderType() + " cannot resume " + reader.getClass().getName()
+            );
+        }
+        if (reader.getLimit() == null && cursor.getLimit() != null) {
+            reader.limit(cursor.getLimit());
+        }
+
+        Page<E> page = reader.nextPage(Page.<E>pointingTo(cursor.getUrl(), cursor.getUri()), client);
+        ResourceSet<E> resourceSet = new ResourceSet<>(reader, client, page);
+        resourceSet.pages = cursor.getPages();
+        resourceSet.scheduledPages = cursor.getPages();
+        resourceSet.processed = cursor.getProcessed();
+        while (resourceSet.offset < cursor.getOffset() && resourceSet.iterator.hasNext()) {
+            resourceSet.iterator.next();
+            resourceSet.offset++;
+        }
+        if (!resourceSet.iterator.hasNext()) {
+            resourceSet.fetchNextPage();
+        }
+        return resourceSet;
+    }
+
+    private void checkpoint() {
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            getCursor().save(checkpointFile);
+        } catch (final IOException e) {
+            throw new ApiException("Unable to save cursor to " + checkpointFile + ": " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public Iterator<E> iterator() {
         return new ResourceSetIterator<>(this);
     }
 
+    /**
+     * Take the records that are already fetched, as if they were iterated over: the rest of the current page,
+     * and the prefetched pages that arrived without error. This never waits for a page; the iteration fetches
+     * the next one when it reaches it.
+     *
+     * @return records taken, empty if none are fetched
+     */
+    List<E> takeFetched() {
+        List<E> records = new ArrayList<>();
+        while (true) {
+            Long limit = getLimit();
+            while (iterator.hasNext() && (limit == null || processed < limit)) {
+                records.add(iterator.next());
+                offset++;
+                processed++;
+            }
+            if (limit != null && processed >= limit) {
+                cancelPrefetch();
+                return records;
+            }
+            if (!autoPaging) {
+                return records;
+            }
+
+            ListenableFuture<Page<E>> next = prefetched.peek();
+            if (next == null || !isFetched(next)) {
+                return records;
+            }
+            long before = pages;
+            fetchNextPage();
+            if (pages == before) {
+                return records;
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of records left: the rest of the current page, plus a full page for each page left
+     * before the page limit, capped by the limit. Without a limit, the number of pages left is unknown.
+     *
+     * @return number of records left, or {@code Long.MAX_VALUE} if unknown
+     */
+    long estimateRemaining() {
+        long estimate = Math.max(page.getRecords().size() - offset, 0);
+        if (autoPaging && page.hasNextPage() && !prefetchCancelled && pages < pageLimit) {
+            if (getLimit() == null) {
+                return Long.MAX_VALUE;
+            }
+            estimate += (pageLimit - pages) * page.getPageSize();
+        }
+        if (getLimit() != null) {
+            estimate = Math.min(estimate, getLimit() - processed);
+        }
+        return Math.max(estimate, 0);
+    }
+
+    private static boolean isFetched(final ListenableFuture<?> future) {
+        if (!future.isDone() || future.isCancelled()) {
+            return false;
+        }
+        try {
+            return Uninterruptibles.getUninterruptibly(future) != null;
+        } catch (final ExecutionException e) {
+            // Left for the iteration to throw, after the records before it
+            return false;
+        }
+    }
+
     private void fetchNextPage() {
-        if (!page.hasNextPage() || pages >= pageLimit) {
+        if (!page.hasNextPage() || pages >= pageLimit || prefetchCancelled) {
             return;
         }
 
+        Page<E> next;
+        ListenableFuture<Page<E>> future = prefetched.poll();
+        if (future == null) {
+            next = reader.nextPage(page, client);
+        } else {
+            next = await(future);
+            if (next == null) {
+                return;
+            }
+        }
+
         pages++;
-        page = reader.nextPage(page, client);
+        page = next;
         iterator = page.getRecords().iterator();
+        offset = 0;
+        prefetch();
+    }
+
+    /**
+     * Schedule background fetches until enough pages are fetched ahead, or the page limit is reached. Each
+     * fetch starts when the page before it arrives; a null page marks the end.
+     */
+    private void prefetch() {
+        final String domain = BoundedExecutorService.domainOf(reader.getClass());
+        AsyncFunction<Page<E>, Page<E>> fetchNext = new AsyncFunction<Page<E>, Page<E>>() {
+            @Override
+            public ListenableFuture<Page<E>> apply(final Page<E> previous) {
+                if (previous == null || !previous.hasNextPage()) {
+                    return Futures.immediateFuture(null);
+                }
+                return BoundedExecutorService.submit(Twilio.getExecutorService(), domain, new Callable<Page<E>>() {
+                    @Override
+                    public Page<E> call() {
+                        return reader.nextPage(previous, client);
+                    }
+                });
+            }
+        };
+
+        while (!prefetchCancelled && prefetched.size() < prefetchPages && scheduledPages < pageLimit
+            && (page.hasNextPage() || !prefetched.isEmpty())) {
+            ListenableFuture<Page<E>> previous = prefetched.isEmpty()
+                ? Futures.immediateFuture(page)
+                : prefetched.peekLast();
+            prefetched.add(Futures.transform(previous, fetchNext, MoreExecutors.directExecutor()));
+            scheduledPages++;
+        }
+    }
+
+    private Page<E> await(final ListenableFuture<Page<E>> future) {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (final ExecutionException e) {
+            cancelPrefetch();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ApiConnectionException("Unable to fetch page: " + e.getCause().getMessage(), e.getCause());
+        }
     }
 
     private class ResourceSetIterator<E extends Resource> implements Iterator<E> {
         private final ResourceSet<E> resourceSet;
+        private boolean finished;
 
         public ResourceSetIterator(final ResourceSet<E> resourceSet) {
             this.resourceSet = resourceSet;
@@ -97,10 +362,17 @@ public class ResourceSet<E extends Resource> implements Iterable<E> {
         @Override
         public boolean hasNext() {
             if (resourceSet.getLimit() != null && resourceSet.processed >= resourceSet.getLimit()) {
+                resourceSet.cancelPrefetch();
+                finish();
                 return false;
             }
 
-            return resourceSet.iterator.hasNext();
+            advance();
+            if (!resourceSet.iterator.hasNext()) {
+                finish();
+                return false;
+            }
+            return true;
         }
 
         @Override
@@ -109,8 +381,13 @@ public class ResourceSet<E extends Resource> implements Iterable<E> {
                 throw new NoSuchElementException();
             }
 
+            advance();
+            if (resourceSet.offset == 0) {
+                resourceSet.checkpoint();
+            }
             E element = resourceSet.iterator.next();
-            if (resourceSet.isAutoPaging() && !resourceSet.iterator.hasNext()) {
+            resourceSet.offset++;
+            if (resourceSet.isAutoPaging() && resourceSet.prefetchPages == 0 && !resourceSet.iterator.hasNext()) {
                 resourceSet.fetchNextPage();
             }
 
@@ -118,6 +395,34 @@ public class ResourceSet<E extends Resource> implements Iterable<E> {
             return element;
         }
 
+        /**
+         * Move to the next page once the current one is used up, so a failed fetch throws after the last record
+         * before it. Without prefetching, the page is usually fetched by {@link #next()} already, unless a stream
+         * split took the rest of the current page.
+         */
+        private void advance() {
+            if (!resourceSet.isAutoPaging()) {
+                return;
+            }
+            while (!resourceSet.iterator.hasNext()) {
+                long before = resourceSet.pages;
+                resourceSet.fetchNextPage();
+                if (resourceSet.pages == before) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Save the cursor once at the end, so resuming from it returns nothing.
+         */
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                resourceSet.checkpoint();
+            }
+        }
+
         @Override
         public void remove() {
             if (resourceSet.iterator != null) {
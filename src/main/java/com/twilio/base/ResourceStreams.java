@@ -0,0 +1,86 @@
+package com.twilio.base;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the resources of a {@link ResourceSet}, fetching pages as the stream reaches them. Requires Java 8.
+ *
+ * <p>
+ *     Like {@link Completables}, this class refers to Java 8 types and is only loaded when a stream is asked
+ *     for; {@link ResourceSet} itself does not, so the rest of the library still runs on Java 7.
+ * </p>
+ */
+public final class ResourceStreams {
+
+    private ResourceStreams() {}
+
+    /**
+     * Stream the resources of a resource set.
+     *
+     * @param resourceSet resource set to stream, which should not be iterated over elsewhere
+     * @param <E> type of the resources
+     * @return sequential stream of the resources
+     */
+    public static <E extends Resource> Stream<E> stream(final ResourceSet<E> resourceSet) {
+        return StreamSupport.stream(new PageSpliterator<>(resourceSet), false);
+    }
+
+    /**
+     * Stream the resources of a resource set in parallel. The stream is split along page boundaries: each split
+     * hands the records already fetched, the rest of the current page and any prefetched pages that arrived, to
+     * another thread. A split never waits for a page, so prefetching with
+     * {@link ResourceSet#setPrefetchPages(int)} gives the stream more to split.
+     *
+     * @param resourceSet resource set to stream, which should not be iterated over elsewhere
+     * @param <E> type of the resources
+     * @return parallel stream of the resources
+     */
+    public static <E extends Resource> Stream<E> parallelStream(final ResourceSet<E> resourceSet) {
+        return StreamSupport.stream(new PageSpliterator<>(resourceSet), true);
+    }
+
+    /**
+     * Spliterator over a resource set, split along page boundaries. A split takes the records already
+     * fetched, which come first in the encounter order, and leaves this spliterator at the next page, which
+     * it fetches when it advances.
+     */
+    private static class PageSpliterator<E extends Resource> implements Spliterator<E> {
+        private final ResourceSet<E> resourceSet;
+        private final Iterator<E> iterator;
+
+        PageSpliterator(final ResourceSet<E> resourceSet) {
+            this.resourceSet = resourceSet;
+            this.iterator = resourceSet.iterator();
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            action.accept(iterator.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            List<E> records = resourceSet.takeFetched();
+            return records.isEmpty() ? null : records.spliterator();
+        }
+
+        @Override
+        public long estimateSize() {
+            return resourceSet.estimateRemaining();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
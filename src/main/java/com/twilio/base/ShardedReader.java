@@ -0,0 +1,606 @@
+package com.twilio.base;
+
+import com.google.common.collect.Range;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads a date range of a list in parallel, by splitting it into shards and reading the page chain of every
+ * shard concurrently.
+ *
+ * <p>
+ *     Each shard is read by its own reader, which the {@link ReaderFactory} creates with the shard's range as
+ *     its date filter, such as {@code MessageReader.setDateSent} or {@code CallReader.setStartTime}. Both ends
+ *     of a range are inclusive, like the {@code >} and {@code <} filters of the API, so shards are cut on the
+ *     granularity of the filter: seconds for date-time filters, and days for date filters such as
+ *     {@code ConferenceReader.setDateCreated}, converting the shard with {@code toLocalDate()}.
+ * </p>
+ *
+ * <p>
+ *     A shard whose first page has a next page is dense; while there are fewer than {@code maxShards} shards, it
+ *     is split in two halves instead of being read, spending one page request to read the halves in parallel.
+ *     Records are merged either unordered, as soon as any shard has fetched them, or ordered, from the latest
+ *     shard to the earliest, which is the order the API lists them in. Each shard buffers a bounded number of
+ *     records ahead of the iterator.
+ * </p>
+ *
+ * <pre>
+ * ShardedReader&lt;Message&gt; reader = new ShardedReader.Builder&lt;&gt;(range, new ReaderFactory&lt;Message&gt;() {
+ *     public Reader&lt;Message&gt; create(Range&lt;DateTime&gt; shard) {
+ *         return Message.reader(accountSid).setDateSent(shard).pageSize(1000);
+ *     }
+ * }).shards(8).build();
+ * </pre>
+ *
+ * @param <E> type of the resource
+ */
+public class ShardedReader<E extends Resource> {
+
+    /**
+     * Creates the reader of one shard.
+     *
+     * @param <T> type of the resource
+     */
+    public interface ReaderFactory<T extends Resource> {
+        /**
+         * Create a reader filtered to a shard.
+         *
+         * @param shard range of the shard, both ends inclusive
+         * @return reader of the records in the shard
+         */
+        Reader<T> create(final Range<DateTime> shard);
+    }
+
+    private final Range<DateTime> range;
+    private final ReaderFactory<E> factory;
+    private final int shards;
+    private final int maxShards;
+    private final int concurrency;
+    private final long granularityMillis;
+    private final boolean ordered;
+    private final int bufferedRecords;
+
+    private ShardedReader(final Builder<E> b) {
+        this.range = b.range;
+        this.factory = b.factory;
+        this.shards = b.shards;
+        this.maxShards = b.maxShards == null ? b.shards * 4 : b.maxShards;
+        this.concurrency = b.concurrency == null ? b.shards : b.concurrency;
+        this.granularityMillis = b.granularityMillis;
+        this.ordered = b.ordered;
+        this.bufferedRecords = b.bufferedRecords;
+    }
+
+    /**
+     * Read the range with the default client.
+     *
+     * @return records of the range
+     */
+    public Records<E> read() {
+        return read(Twilio.getRestClient());
+    }
+
+    /**
+     * Start reading the range. Shards are fetched in the background until the records are iterated over or
+     * cancelled.
+     *
+     * @param client client used to make requests
+     * @return records of the range
+     */
+    public Records<E> read(final TwilioRestClient client) {
+        Records<E> records = new Records<>(this, client);
+        records.start(split(range, shards, granularityMillis));
+        return records;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public int getMaxShards() {
+        return maxShards;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Split a range into shards of whole units, from the latest to the earliest.
+     *
+     * @param range range to split, both ends inclusive
+     * @param count number of shards, fewer if the range has fewer units
+     * @param granularityMillis length of a unit
+     * @return shards which do not overlap and together cover the range
+     */
+    static List<Range<DateTime>> split(final Range<DateTime> range, final int count, final long granularityMillis) {
+        DateTimeZone zone = range.lowerEndpoint().getZone();
+        long lower = range.lowerEndpoint().getMillis();
+        long upper = range.upperEndpoint().getMillis();
+        long units = (upper - lower) / granularityMillis + 1;
+        long size = (units + count - 1) / count;
+
+        List<Range<DateTime>> shards = new ArrayList<>();
+        for (long start = 0; start < units; start += size) {
+            long from = lower + start * granularityMillis;
+            long to = start + size >= units ? upper : from + (size - 1) * granularityMillis;
+            shards.add(Range.closed(new DateTime(from, zone), new DateTime(to, zone)));
+        }
+        Collections.reverse(shards);
+        return shards;
+    }
+
+    private static long units(final Range<DateTime> shard, final long granularityMillis) {
+        return (shard.upperEndpoint().getMillis() - shard.lowerEndpoint().getMillis()) / granularityMillis + 1;
+    }
+
+    /**
+     * State of one shard, guarded by the lock of its records.
+     */
+    private static class Shard<T extends Resource> {
+        private final Range<DateTime> range;
+        private final Deque<T> buffer = new ArrayDeque<>();
+        private List<Shard<T>> children;
+        private boolean done;
+
+        Shard(final Range<DateTime> range) {
+            this.range = range;
+        }
+    }
+
+    /**
+     * Records of a sharded read. They can be iterated over once.
+     *
+     * @param <T> type of the resource
+     */
+    public static class Records<T extends Resource> implements Iterable<T> {
+        private final ShardedReader<T> reader;
+        private final TwilioRestClient client;
+        private final ExecutorService executor;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        // Guarded by lock
+        private final Deque<Shard<T>> pending = new ArrayDeque<>();
+        private final LinkedList<Shard<T>> live = new LinkedList<>();
+        private int running;
+        private int shards;
+        private int splits;
+        private long pages;
+        private RuntimeException failure;
+        private boolean cancelled;
+        private boolean iterated;
+
+        Records(final ShardedReader<T> reader, final TwilioRestClient client) {
+            this.reader = reader;
+            this.client = client;
+            this.executor = Executors.newFixedThreadPool(
+                reader.concurrency,
+                new ThreadFactoryBuilder().setNameFormat("twilio-shard-%d").setDaemon(true).build()
+            );
+        }
+
+        private void start(final List<Range<DateTime>> ranges) {
+            lock.lock();
+            try {
+                for (Range<DateTime> range : ranges) {
+                    Shard<T> shard = new Shard<>(range);
+                    pending.add(shard);
+                    live.add(shard);
+                }
+                shards = ranges.size();
+                schedule();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Start pending shards while fewer than the allowed number are running. Pending shards are kept in the
+         * order they are merged in, so the shard an ordered iterator waits for is never left behind.
+         */
+        private void schedule() {
+            while (running < reader.concurrency && !pending.isEmpty() && !cancelled) {
+                final Shard<T> shard = pending.poll();
+                running++;
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            readShard(shard);
+                        }
+                    });
+                } catch (final RejectedExecutionException e) {
+                    running--;
+                    fail(e);
+                }
+            }
+            if (running == 0 && (pending.isEmpty() || cancelled)) {
+                executor.shutdown();
+            }
+        }
+
+        private void readShard(final Shard<T> shard) {
+            RuntimeException error = null;
+            try {
+                Reader<T> shardReader = reader.factory.create(shard.range);
+                Page<T> page = shardReader.firstPage(client);
+                if (page.hasNextPage() && split(shard)) {
+                    return;
+                }
+                while (deliver(shard, page) && page.hasNextPage()) {
+                    page = shardReader.nextPage(page, client);
+                }
+            } catch (final RuntimeException e) {
+                error = e;
+            } finally {
+                lock.lock();
+                try {
+                    if (error != null) {
+                        fail(error);
+                    }
+                    shard.done = true;
+                    running--;
+                    schedule();
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private boolean split(final Shard<T> shard) {
+            long units = units(shard.range, reader.granularityMillis);
+            lock.lock();
+            try {
+                if (units < 2 || shards >= reader.maxShards || cancelled) {
+                    return false;
+                }
+                List<Range<DateTime>> halves = ShardedReader.split(shard.range, 2, reader.granularityMillis);
+                List<Shard<T>> children = new ArrayList<>();
+                for (Range<DateTime> half : halves) {
+                    children.add(new Shard<T>(half));
+                }
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    pending.addFirst(children.get(i));
+                }
+                shard.children = children;
+                shards++;
+                splits++;
+                pages++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Buffer the records of a page, waiting while the shard's buffer is full.
+         *
+         * @return true to continue reading the shard
+         */
+        private boolean deliver(final Shard<T> shard, final Page<T> page) {
+            lock.lock();
+            try {
+                pages++;
+                for (T record : page.getRecords()) {
+                    while (shard.buffer.size() >= reader.bufferedRecords && !cancelled) {
+                        changed.awaitUninterruptibly();
+                    }
+                    if (cancelled) {
+                        return false;
+                    }
+                    shard.buffer.add(record);
+                    changed.signalAll();
+                }
+                return !cancelled;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void fail(final RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            cancelled = true;
+            changed.signalAll();
+        }
+
+        /**
+         * Stop reading. Shards stop after their current page, and iteration ends.
+         */
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                pending.clear();
+                schedule();
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Find the next record to return, waiting for it to be fetched.
+         *
+         * @return shard holding the next record, or null at the end
+         */
+        private Shard<T> await() {
+            lock.lock();
+            try {
+                while (true) {
+                    if (failure != null) {
+                        RuntimeException e = failure;
+                        failure = null;
+                        live.clear();
+                        throw e;
+                    }
+                    if (cancelled) {
+                        live.clear();
+                        return null;
+                    }
+
+                    boolean expanded = false;
+                    ListIterator<Shard<T>> shards = live.listIterator();
+                    while (shards.hasNext() && !expanded) {
+                        Shard<T> shard = shards.next();
+                        if (!shard.buffer.isEmpty()) {
+                            return shard;
+                        }
+                        if (shard.children != null) {
+                            // Merged in place of the shard that was split
+                            shards.remove();
+                            for (Shard<T> child : shard.children) {
+                                shards.add(child);
+                            }
+                            expanded = true;
+                        } else if (shard.done) {
+                            shards.remove();
+                        } else if (reader.ordered) {
+                            break;
+                        }
+                    }
+                    if (expanded) {
+                        continue;
+                    }
+                    if (live.isEmpty()) {
+                        return null;
+                    }
+                    changed.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            lock.lock();
+            try {
+                if (iterated) {
+                    throw new IllegalStateException("Records of a sharded read can only be iterated over once");
+                }
+                iterated = true;
+            } finally {
+                lock.unlock();
+            }
+
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return await() != null;
+                }
+
+                @Override
+                public T next() {
+                    Shard<T> shard = await();
+                    if (shard == null) {
+                        throw new NoSuchElementException();
+                    }
+                    lock.lock();
+                    try {
+                        T record = shard.buffer.poll();
+                        changed.signalAll();
+                        return record;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /**
+         * Get the number of shards, including those created by splitting.
+         *
+         * @return number of shards
+         */
+        public int getShards() {
+            lock.lock();
+            try {
+                return shards;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Get the number of dense shards that were split.
+         *
+         * @return number of splits
+         */
+        public int getSplits() {
+            lock.lock();
+            try {
+                return splits;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Get the number of pages read, including the first pages of split shards.
+         *
+         * @return number of pages
+         */
+        public long getPages() {
+            lock.lock();
+            try {
+                return pages;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Wait for the shards that are running to stop, after the records were read or cancelled.
+         *
+         * @param timeout maximum time to wait
+         * @param unit unit of the timeout
+         * @return true if every shard stopped
+         * @throws InterruptedException if interrupted while waiting
+         */
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+
+    public static class Builder<E extends Resource> {
+        private final Range<DateTime> range;
+        private final ReaderFactory<E> factory;
+        private int shards = 4;
+        private Integer maxShards;
+        private Integer concurrency;
+        private long granularityMillis = TimeUnit.SECONDS.toMillis(1);
+        private boolean ordered;
+        private int bufferedRecords = 1000;
+
+        /**
+         * Create a builder for a sharded read.
+         *
+         * @param range range to read, both ends inclusive
+         * @param factory factory of the reader of each shard
+         */
+        public Builder(final Range<DateTime> range, final ReaderFactory<E> factory) {
+            if (!range.hasLowerBound() || !range.hasUpperBound()) {
+                throw new IllegalArgumentException("Range to shard must have both ends");
+            }
+            this.range = range;
+            this.factory = factory;
+        }
+
+        /**
+         * Set the number of shards the range is first split into. Defaults to 4.
+         *
+         * @param shards number of shards
+         * @return this
+         */
+        public Builder<E> shards(final int shards) {
+            if (shards < 1) {
+                throw new IllegalArgumentException("shards must be at least 1");
+            }
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * Set the number of shards dense shards may be split into. Defaults to 4 times the number of shards;
+         * set it to the number of shards to never split.
+         *
+         * @param maxShards maximum number of shards
+         * @return this
+         */
+        public Builder<E> maxShards(final int maxShards) {
+            this.maxShards = maxShards;
+            return this;
+        }
+
+        /**
+         * Set the number of shards read at the same time, each on a thread of its own. Defaults to the number of
+         * shards.
+         *
+         * @param concurrency number of shards read at the same time
+         * @return this
+         */
+        public Builder<E> concurrency(final int concurrency) {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("concurrency must be at least 1");
+            }
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Set the unit shards are cut on. Defaults to 1 second; use 1 day for readers filtered by date.
+         *
+         * @param granularity length of the unit
+         * @param unit time unit of the length
+         * @return this
+         */
+        public Builder<E> granularity(final long granularity, final TimeUnit unit) {
+            if (granularity < 1) {
+                throw new IllegalArgumentException("granularity must be positive");
+            }
+            this.granularityMillis = unit.toMillis(granularity);
+            return this;
+        }
+
+        /**
+         * Merge the records in the order of the API, from the latest to the earliest. Defaults to unordered.
+         *
+         * @param ordered true to merge in order
+         * @return this
+         */
+        public Builder<E> ordered(final boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        /**
+         * Set the number of records each shard fetches ahead of the iterator. Defaults to 1000.
+         *
+         * @param bufferedRecords number of records buffered per shard
+         * @return this
+         */
+        public Builder<E> bufferedRecords(final int bufferedRecords) {
+            if (bufferedRecords < 1) {
+                throw new IllegalArgumentException("bufferedRecords must be at least 1");
+            }
+            this.bufferedRecords = bufferedRecords;
+            return this;
+        }
+
+        public ShardedReader<E> build() {
+            return new ShardedReader<>(this);
+        }
+    }
+}
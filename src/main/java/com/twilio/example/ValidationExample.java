@@ -2,7 +2,7 @@ package com.twilio.example;
 
 
 import com.twilio.http.TwilioRestClient;
-import com.twilio.http.ValidationClient;
+import com.twilio.http.ValidationInterceptor;
 import com.twilio.rest.accounts.v1.credential.PublicKey;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.rest.api.v2010.account.NewSigningKey;
@@ -44,10 +44,10 @@ public class ValidationExample {
 
         NewSigningKey signingKey = NewSigningKey.creator().create(client);
 
-        // Switch to validation client as the default client
+        // Sign every request made by a new client
         TwilioRestClient validationClient = new TwilioRestClient.Builder(signingKey.getSid(), signingKey.getSecret())
             .accountSid(ACCOUNT_SID)
-            .httpClient(new ValidationClient(ACCOUNT_SID, key.getSid(), signingKey.getSid(), pair.getPrivate()))
+            .interceptor(new ValidationInterceptor(ACCOUNT_SID, key.getSid(), signingKey.getSid(), pair.getPrivate()))
             .build();
 
         // Make REST API requests
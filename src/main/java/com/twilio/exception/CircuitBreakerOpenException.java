@@ -0,0 +1,20 @@
+package com.twilio.exception;
+
+/**
+ * Thrown instead of making a request while the circuit breaker for its host is open.
+ */
+public class CircuitBreakerOpenException extends TwilioException {
+
+    private static final long serialVersionUID = 4906313186526262425L;
+
+    private final String host;
+
+    public CircuitBreakerOpenException(final String message, final String host) {
+        super(message);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,21 @@
+package com.twilio.exception;
+
+/**
+ * Thrown instead of making a request while a request with the same idempotency key is in flight, or after one
+ * that may have taken effect until its key is resolved in the ledger.
+ */
+public class DuplicateRequestException extends TwilioException {
+
+    private static final long serialVersionUID = -2327157464930731836L;
+
+    private final String idempotencyKey;
+
+    public DuplicateRequestException(final String message, final String idempotencyKey) {
+        super(message);
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
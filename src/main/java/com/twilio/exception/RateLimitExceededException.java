@@ -0,0 +1,20 @@
+package com.twilio.exception;
+
+/**
+ * Thrown when a client-side rate limit has no capacity within the allowed wait.
+ */
+public class RateLimitExceededException extends TwilioException {
+
+    private static final long serialVersionUID = -1931552734180522719L;
+
+    private final String key;
+
+    public RateLimitExceededException(final String message, final String key) {
+        super(message);
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
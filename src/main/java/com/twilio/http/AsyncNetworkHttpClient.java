@@ -0,0 +1,211 @@
+package com.twilio.http;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.twilio.Twilio;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import com.twilio.exception.TwilioException;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHeader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * HTTP client backed by non-blocking I/O.
+ *
+ * <p>
+ *     Requests are multiplexed over a small, fixed number of I/O dispatcher threads, and
+ *     {@link #makeRequestAsync(Request)} futures are completed directly from the I/O callbacks,
+ *     so in-flight requests do not each hold a thread.
+ * </p>
+ *
+ * <p>
+ *     The client is opt-in. Install it with {@link TwilioRestClient.Builder#httpClient(HttpClient)}, and make
+ *     requests with {@link TwilioRestClient#requestAsync(Request)} to get the non-blocking path, including
+ *     interceptors, retries and circuit breakers. The generated {@code createAsync}, {@code fetchAsync},
+ *     {@code readAsync}, {@code updateAsync} and {@code deleteAsync} methods do not use that path. Generated
+ *     operations build the request and parse the response synchronously, so those methods still run on
+ *     {@link com.twilio.Twilio#getExecutorService()} and hold an executor thread while the request is in
+ *     flight, whichever client is installed.
+ * </p>
+ */
+public class AsyncNetworkHttpClient extends HttpClient implements Closeable {
+
+    private static final int CONNECTION_TIMEOUT = 10000;
+    private static final int SOCKET_TIMEOUT = 30500;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 10;
+
+    private final CloseableHttpAsyncClient client;
+
+    /**
+     * Create a new non-blocking HTTP Client.
+     */
+    public AsyncNetworkHttpClient() {
+        RequestConfig config = RequestConfig.custom()
+            .setConnectTimeout(CONNECTION_TIMEOUT)
+            .setSocketTimeout(SOCKET_TIMEOUT)
+            .build();
+
+        IOReactorConfig reactorConfig = IOReactorConfig.custom()
+            .setIoThreadCount(Runtime.getRuntime().availableProcessors())
+            .setConnectTimeout(CONNECTION_TIMEOUT)
+            .setSoTimeout(SOCKET_TIMEOUT)
+            .build();
+
+        Collection<Header> headers = Lists.<Header>newArrayList(
+            new BasicHeader("X-Twilio-Client", "java-" + Twilio.VERSION),
+            new BasicHeader(HttpHeaders.USER_AGENT, "twilio-java/" + Twilio.VERSION + " (" + Twilio.JAVA_VERSION + ")"),
+            new BasicHeader(HttpHeaders.ACCEPT, "application/json"),
+            new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "gzip,deflate")
+        );
+
+        client = HttpAsyncClientBuilder.create()
+            .useSystemProperties()
+            .setDefaultIOReactorConfig(reactorConfig)
+            .setDefaultRequestConfig(config)
+            .setDefaultHeaders(headers)
+            .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+            .build();
+        client.start();
+    }
+
+    /**
+     * Create a new non-blocking HTTP Client using custom configuration.
+     *
+     * @param clientBuilder builder used to create the underlying async client
+     */
+    public AsyncNetworkHttpClient(final HttpAsyncClientBuilder clientBuilder) {
+        Collection<Header> headers = Lists.<Header>newArrayList(
+            new BasicHeader("X-Twilio-Client", "java-" + Twilio.VERSION),
+            new BasicHeader(
+                HttpHeaders.USER_AGENT,
+                "twilio-java/" + Twilio.VERSION + " (" + Twilio.JAVA_VERSION + ") custom"
+            ),
+            new BasicHeader(HttpHeaders.ACCEPT, "application/json"),
+            new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "gzip,deflate")
+        );
+
+        client = clientBuilder
+            .setDefaultHeaders(headers)
+            .build();
+        client.start();
+    }
+
+    /**
+     * Make a request, blocking until the response has been received.
+     *
+     * @param request request to make
+     * @return Response of the HTTP request
+     */
+    public Response makeRequest(final Request request) {
+        try {
+            return makeRequestAsync(request).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while waiting for response", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof TwilioException) {
+                throw (TwilioException) e.getCause();
+            }
+            throw new ApiException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Make an asynchronous request.
+     *
+     * <p>
+     *     The returned future is completed on an I/O dispatcher thread, so listeners should not block.
+     *     Cancelling the future aborts the underlying exchange.
+     * </p>
+     *
+     * @param request request to make
+     * @return future that resolves to the Response of the HTTP request
+     */
+    @Override
+    public ListenableFuture<Response> makeRequestAsync(final Request request) {
+        RequestBuilder builder = RequestBuilder.create(request.getMethod().toString())
+            .setUri(request.constructURI())
+            .setVersion(HttpVersion.HTTP_1_1)
+            .setCharset(StandardCharsets.UTF_8);
+
+        if (request.requiresAuthentication()) {
+            builder.addHeader(HttpHeaders.AUTHORIZATION, request.getAuthString());
+        }
+
+        for (Map.Entry<String, List<String>> entry : request.getHeaders().entrySet()) {
+            for (String value : entry.getValue()) {
+                builder.addHeader(entry.getKey(), value);
+            }
+        }
+
+        HttpMethod method = request.getMethod();
+        if (method == HttpMethod.POST) {
+            builder.addHeader(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded");
+            builder.setEntity(new ByteArrayEntity(request.encodeFormBodyBytes()));
+        }
+
+        final SettableFuture<Response> result = SettableFuture.create();
+        final Future<HttpResponse> exchange = client.execute(builder.build(), new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                try {
+                    result.set(Response.buffer(response));
+                } catch (final IOException e) {
+                    result.setException(new ApiConnectionException(e.getMessage(), e));
+                }
+            }
+
+            @Override
+            public void failed(final Exception e) {
+                result.setException(new ApiConnectionException(e.getMessage(), e));
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (result.isCancelled()) {
+                    exchange.cancel(true);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+
+        return result;
+    }
+
+    /**
+     * Shut down the I/O reactor and release all pooled connections.
+     *
+     * @throws IOException if the reactor fails to shut down cleanly
+     */
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+}
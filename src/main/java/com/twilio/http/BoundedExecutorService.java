@@ -0,0 +1,536 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.twilio.rest.Domains;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor with a fixed number of threads and a bounded queue, used by default for asynchronous requests.
+ *
+ * <p>
+ *     When every thread is busy and the queue is full, new tasks are handled by the {@link Rejection} policy:
+ *     run on the submitting thread, wait for room, or fail with a {@link RejectedExecutionException}.
+ *     Tasks for a domain can additionally be limited by a bulkhead, so that a slow or busy domain cannot take
+ *     up every thread and queue slot; a task over its domain's limit is handled by the same policy.
+ * </p>
+ *
+ * <p>
+ *     Threads are created on demand and stop after a minute without work. On Java 21 and later the executor
+ *     can run every task on its own virtual thread instead, see {@link Builder#virtualThreads()}; there is then
+ *     no pool or queue to fill, and only bulkheads limit how many tasks run at once.
+ * </p>
+ */
+public class BoundedExecutorService extends AbstractListeningExecutorService {
+
+    private static final String REST_PACKAGE = "com.twilio.rest.";
+    private static final ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
+
+    /**
+     * What to do with a task that cannot be queued.
+     */
+    public enum Rejection {
+        /**
+         * Run the task on the submitting thread, which slows the submitter down to the rate tasks complete.
+         */
+        CALLER_RUNS,
+
+        /**
+         * Block the submitting thread until the task can be queued.
+         */
+        BLOCK,
+
+        /**
+         * Throw a {@link RejectedExecutionException}.
+         */
+        FAIL
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final BlockingQueue<Runnable> queue;
+    private final Rejection rejection;
+    private final Map<String, Integer> limits;
+    private final Map<String, Semaphore> bulkheads;
+    private final boolean virtual;
+
+    private final AtomicInteger waitingForBulkhead = new AtomicInteger();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+
+    private BoundedExecutorService(final Builder b) {
+        this.rejection = b.rejection;
+        this.limits = new HashMap<>(b.bulkheads);
+        this.bulkheads = new HashMap<>();
+        for (Map.Entry<String, Integer> bulkhead : b.bulkheads.entrySet()) {
+            this.bulkheads.put(bulkhead.getKey(), new Semaphore(bulkhead.getValue()));
+        }
+
+        RejectedExecutionHandler handler = new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(final Runnable task, final ThreadPoolExecutor executor) {
+                reject(task);
+            }
+        };
+        this.virtual = b.virtualThreads && VIRTUAL_THREADS != null;
+        if (virtual) {
+            // A new virtual thread per task, which ends with the task
+            this.queue = new SynchronousQueue<>();
+            this.executor = new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS, queue, VIRTUAL_THREADS, handler
+            );
+        } else {
+            this.queue = new ArrayBlockingQueue<>(b.queueCapacity);
+            this.executor = new ThreadPoolExecutor(
+                b.threads,
+                b.threads,
+                60,
+                TimeUnit.SECONDS,
+                queue,
+                new ThreadFactoryBuilder().setNameFormat("twilio-async-%d").build(),
+                handler
+            );
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * Look up the virtual thread factory of Java 21 and later by reflection, as the library targets Java 7.
+     *
+     * @return factory of virtual threads, or null if the JVM has none
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> type = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = type.getMethod("name", String.class, long.class).invoke(builder, "twilio-virtual-", 0L);
+            return (ThreadFactory) type.getMethod("factory").invoke(builder);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Check whether the JVM supports virtual threads.
+     *
+     * @return true on Java 21 and later
+     */
+    public static boolean supportsVirtualThreads() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    /**
+     * Get the domain a generated resource class belongs to, e.g. {@code api} for
+     * {@code com.twilio.rest.api.v2010.account.MessageCreator}.
+     *
+     * @param type generated class
+     * @return domain of the class, or null if it is not a generated class
+     */
+    public static String domainOf(final Class<?> type) {
+        String name = type.getName();
+        if (!name.startsWith(REST_PACKAGE)) {
+            return null;
+        }
+
+        int end = name.indexOf('.', REST_PACKAGE.length());
+        if (end < 0) {
+            return null;
+        }
+        try {
+            return Domains.valueOf(name.substring(REST_PACKAGE.length(), end).toUpperCase()).toString();
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the domain a request is made to, e.g. {@code api} for {@code https://api.twilio.com/...}.
+     *
+     * @param request request to get the domain of
+     * @return first label of the request host, or null if the URL has no host
+     */
+    public static String domainOf(final Request request) {
+        // Parsed by hand, as paths built from user input are not always valid URIs
+        String url = request.getUrl();
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return null;
+        }
+        start += 3;
+        int end = start;
+        while (end < url.length() && ".:/".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        return end == start ? null : url.substring(start, end);
+    }
+
+    /**
+     * Submit a task to an executor, within the bulkhead of its domain if the executor is bounded.
+     *
+     * @param executor executor to submit to
+     * @param domain domain of the task, or null for none
+     * @param task task to run
+     * @param <T> type of the result
+     * @return future that resolves to the result of the task
+     */
+    public static <T> ListenableFuture<T> submit(final ListeningExecutorService executor, final String domain,
+                                                 final Callable<T> task) {
+        if (executor instanceof BoundedExecutorService) {
+            return ((BoundedExecutorService) executor).submit(domain, task);
+        }
+        return executor.submit(task);
+    }
+
+    /**
+     * Submit a task within the bulkhead of its domain.
+     *
+     * @param domain domain of the task, or null for none
+     * @param task task to run
+     * @param <T> type of the result
+     * @return future that resolves to the result of the task
+     */
+    public <T> ListenableFuture<T> submit(final String domain, final Callable<T> task) {
+        ListenableFutureTask<T> future = ListenableFutureTask.create(task);
+        execute(domain, future);
+        return future;
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        execute(null, task);
+    }
+
+    /**
+     * Run a task within the bulkhead of its domain.
+     *
+     * @param domain domain of the task, or null for none
+     * @param task task to run
+     */
+    public void execute(final String domain, final Runnable task) {
+        Semaphore bulkhead = domain == null ? null : bulkheads.get(domain);
+        if (virtual) {
+            // The task's own virtual thread waits for the bulkhead, never the caller
+            executor.execute(new Queued(task, bulkhead, true));
+            return;
+        }
+
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            if (rejection == Rejection.BLOCK && !isShutdown()) {
+                try {
+                    bulkhead.acquire();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Interrupted while waiting for bulkhead " + domain, e);
+                }
+            } else {
+                reject(task);
+                return;
+            }
+        }
+
+        Queued queued = new Queued(task, bulkhead, false);
+        try {
+            executor.execute(queued);
+        } catch (final RuntimeException e) {
+            queued.releasePermit();
+            throw e;
+        }
+    }
+
+    /**
+     * Apply the rejection policy to a task that could not be queued.
+     */
+    private void reject(final Runnable task) {
+        if (executor.isShutdown()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+
+        switch (rejection) {
+            case CALLER_RUNS:
+                callerRuns.incrementAndGet();
+                task.run();
+                return;
+
+            case BLOCK:
+                try {
+                    queue.put(task);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Interrupted while waiting to queue task", e);
+                }
+                // The queue is filled directly, bypassing the executor's own check; a task queued while the
+                // executor shut down may find no thread left to run it
+                if (executor.isShutdown() && queue.remove(task)) {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Executor has been shut down");
+                }
+                return;
+
+            default:
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException(
+                    "Task rejected: " + executor.getActiveCount() + " tasks running, " + queue.size() + " queued"
+                );
+        }
+    }
+
+    /**
+     * A task that records how long it waited, and frees its bulkhead permit when done. On virtual threads the
+     * task takes its permit when it starts instead of when it is submitted.
+     */
+    private class Queued implements Runnable {
+        private final Runnable task;
+        private final Semaphore bulkhead;
+        private final long queuedAt = System.nanoTime();
+        private boolean held;
+
+        Queued(final Runnable task, final Semaphore bulkhead, final boolean acquireOnStart) {
+            this.task = task;
+            this.bulkhead = bulkhead;
+            this.held = bulkhead != null && !acquireOnStart;
+        }
+
+        @Override
+        public void run() {
+            if (bulkhead != null && !isHeld() && !acquirePermit()) {
+                return;
+            }
+
+            waitTime.record(System.nanoTime() - queuedAt);
+            try {
+                task.run();
+            } finally {
+                releasePermit();
+            }
+        }
+
+        private boolean acquirePermit() {
+            waitingForBulkhead.incrementAndGet();
+            try {
+                bulkhead.acquire();
+            } catch (final InterruptedException e) {
+                // Shut down while waiting: the task never runs
+                if (task instanceof Future) {
+                    ((Future<?>) task).cancel(false);
+                }
+                return false;
+            } finally {
+                waitingForBulkhead.decrementAndGet();
+            }
+
+            synchronized (this) {
+                held = true;
+            }
+            return true;
+        }
+
+        private synchronized boolean isHeld() {
+            return held;
+        }
+
+        synchronized void releasePermit() {
+            if (held) {
+                held = false;
+                bulkhead.release();
+            }
+        }
+    }
+
+    /**
+     * Get the number of tasks waiting for a thread, or on virtual threads for their bulkhead.
+     *
+     * @return current queue depth
+     */
+    public int getQueueDepth() {
+        return virtual ? waitingForBulkhead.get() : queue.size();
+    }
+
+    /**
+     * Get the number of tasks running.
+     *
+     * @return approximate number of busy threads
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Get the number of tasks a domain's bulkhead has admitted that have not completed.
+     *
+     * @param domain domain of the bulkhead
+     * @return tasks queued or running for the domain, only running ones on virtual threads, or 0 if it has no
+     *         bulkhead
+     */
+    public int getBulkheadInUse(final Domains domain) {
+        Semaphore bulkhead = bulkheads.get(domain.toString());
+        return bulkhead == null ? 0 : limits.get(domain.toString()) - bulkhead.availablePermits();
+    }
+
+    /**
+     * Get how long tasks waited in the queue before starting.
+     *
+     * @return snapshot of queue wait times
+     */
+    public LatencyHistogram.Snapshot getWaitTime() {
+        return waitTime.snapshot();
+    }
+
+    /**
+     * Get the number of tasks that failed with a {@link RejectedExecutionException}.
+     *
+     * @return number of rejected tasks
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Get the number of tasks run on the submitting thread by {@link Rejection#CALLER_RUNS}.
+     *
+     * @return number of tasks run by callers
+     */
+    public long getCallerRuns() {
+        return callerRuns.get();
+    }
+
+    public Rejection getRejection() {
+        return rejection;
+    }
+
+    /**
+     * Check whether tasks run on virtual threads.
+     *
+     * @return true if virtual threads were requested and are supported
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    public static class Builder {
+        private int threads = 20;
+        private int queueCapacity = 1000;
+        private Rejection rejection = Rejection.CALLER_RUNS;
+        private Map<String, Integer> bulkheads = new HashMap<>();
+        private boolean virtualThreads;
+
+        /**
+         * Set the maximum number of threads. Defaults to 20, the size of the default connection pool.
+         *
+         * @param threads maximum number of threads
+         * @return this builder
+         */
+        public Builder threads(final int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of tasks waiting for a thread. Defaults to 1000.
+         *
+         * @param queueCapacity maximum queue depth
+         * @return this builder
+         */
+        public Builder queueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Set what happens to tasks that cannot be queued. Defaults to {@link Rejection#CALLER_RUNS}.
+         *
+         * @param rejection rejection policy
+         * @return this builder
+         */
+        public Builder rejection(final Rejection rejection) {
+            this.rejection = rejection;
+            return this;
+        }
+
+        /**
+         * Limit the number of tasks for a domain that are queued or running at once.
+         *
+         * @param domain domain to limit
+         * @param maxTasks maximum number of tasks for the domain
+         * @return this builder
+         */
+        public Builder bulkhead(final Domains domain, final int maxTasks) {
+            if (maxTasks <= 0) {
+                throw new IllegalArgumentException("maxTasks must be positive");
+            }
+            this.bulkheads.put(domain.toString(), maxTasks);
+            return this;
+        }
+
+        /**
+         * Run tasks on virtual threads when the JVM supports them, and on platform threads otherwise.
+         *
+         * <p>
+         *     Virtual threads are cheap to create and to block, so every task gets its own and the thread count,
+         *     queue capacity and rejection policy no longer apply: submitting never blocks or runs the task on
+         *     the caller. Concurrency is limited per domain by {@link #bulkhead(Domains, int)} instead, with
+         *     tasks over the limit waiting on their own virtual thread; the connection pool of the HttpClient
+         *     should be sized to the bulkheads.
+         * </p>
+         *
+         * @return this builder
+         */
+        public Builder virtualThreads() {
+            this.virtualThreads = true;
+            return this;
+        }
+
+        public BoundedExecutorService build() {
+            if (threads <= 0 || queueCapacity <= 0) {
+                throw new IllegalArgumentException("threads and queueCapacity must be positive");
+            }
+            return new BoundedExecutorService(this);
+        }
+    }
+}
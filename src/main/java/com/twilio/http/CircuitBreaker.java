@@ -0,0 +1,188 @@
+package com.twilio.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker guarding requests to a single host.
+ *
+ * <p>
+ *     While CLOSED, the outcome of the last {@code windowSize} calls is tracked and the breaker OPENs when the
+ *     failure rate or slow call rate crosses its threshold. While OPEN, calls are rejected without touching the
+ *     network. After {@code openDuration} the breaker goes HALF_OPEN and lets {@code halfOpenProbes} calls
+ *     through: if they all succeed it closes, and any failure opens it again.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String host;
+    private final CircuitBreakerConfig config;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int index;
+    private int calls;
+    private int failureCount;
+    private int slowCount;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    private final AtomicLong openedTransitions = new AtomicLong();
+    private final AtomicLong halfOpenedTransitions = new AtomicLong();
+    private final AtomicLong closedTransitions = new AtomicLong();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    /**
+     * Create a new circuit breaker.
+     *
+     * @param host host guarded by this breaker
+     * @param config thresholds for the breaker
+     */
+    public CircuitBreaker(final String host, final CircuitBreakerConfig config) {
+        this.host = host;
+        this.config = config;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationMillis());
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMillis());
+        this.failures = new boolean[config.getWindowSize()];
+        this.slowCalls = new boolean[config.getWindowSize()];
+    }
+
+    /**
+     * Ask to make a call.
+     *
+     * @return true if the call may proceed; the caller must then report its outcome
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                rejectedCalls.incrementAndGet();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probesIssued >= config.getHalfOpenProbes()) {
+                rejectedCalls.incrementAndGet();
+                return false;
+            }
+            probesIssued++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Record the response to a permitted call.
+     *
+     * @param response response of the call, null if there was none
+     * @param durationNanos time taken by the call
+     */
+    public void onResponse(final Response response, final long durationNanos) {
+        record(response == null || response.getStatusCode() >= 500, durationNanos);
+    }
+
+    /**
+     * Record a permitted call that failed with an exception.
+     *
+     * @param durationNanos time taken by the call
+     */
+    public void onError(final long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    private synchronized void record(final boolean failed, final long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transitionTo(State.OPEN);
+            } else if (++probesSucceeded >= config.getHalfOpenProbes()) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+
+        if (state == State.OPEN) {
+            // Late outcome of a call made before the breaker opened
+            return;
+        }
+
+        if (calls == failures.length) {
+            failureCount -= failures[index] ? 1 : 0;
+            slowCount -= slowCalls[index] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failures[index] = failed;
+        slowCalls[index] = slow;
+        failureCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        index = (index + 1) % failures.length;
+
+        if (calls >= config.getMinimumCalls()
+            && ((double) failureCount / calls >= config.getFailureRateThreshold()
+                || (double) slowCount / calls >= config.getSlowCallRateThreshold())) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(final State next) {
+        state = next;
+        switch (next) {
+            case OPEN:
+                openedAt = System.nanoTime();
+                openedTransitions.incrementAndGet();
+                break;
+            case HALF_OPEN:
+                probesIssued = 0;
+                probesSucceeded = 0;
+                halfOpenedTransitions.incrementAndGet();
+                break;
+            case CLOSED:
+                index = 0;
+                calls = 0;
+                failureCount = 0;
+                slowCount = 0;
+                closedTransitions.incrementAndGet();
+                break;
+            default:
+                break;
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getOpenedTransitions() {
+        return openedTransitions.get();
+    }
+
+    public long getHalfOpenedTransitions() {
+        return halfOpenedTransitions.get();
+    }
+
+    public long getClosedTransitions() {
+        return closedTransitions.get();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+}
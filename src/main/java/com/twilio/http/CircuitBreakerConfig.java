@@ -0,0 +1,137 @@
+package com.twilio.http;
+
+/**
+ * Thresholds shared by the circuit breakers of a {@link CircuitBreakerRegistry}.
+ */
+public class CircuitBreakerConfig {
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationMillis;
+    private final long openDurationMillis;
+    private final int halfOpenProbes;
+
+    private CircuitBreakerConfig(final Builder b) {
+        this.windowSize = b.windowSize;
+        this.minimumCalls = b.minimumCalls;
+        this.failureRateThreshold = b.failureRateThreshold;
+        this.slowCallRateThreshold = b.slowCallRateThreshold;
+        this.slowCallDurationMillis = b.slowCallDurationMillis;
+        this.openDurationMillis = b.openDurationMillis;
+        this.halfOpenProbes = b.halfOpenProbes;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationMillis() {
+        return slowCallDurationMillis;
+    }
+
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    public static class Builder {
+        private int windowSize = 100;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = 1.0;
+        private long slowCallDurationMillis = 10000L;
+        private long openDurationMillis = 30000L;
+        private int halfOpenProbes = 3;
+
+        /**
+         * Set the number of most recent calls used to compute failure and slow call rates.
+         *
+         * @param windowSize number of calls in the sliding window
+         * @return this builder
+         */
+        public Builder windowSize(final int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Set the number of calls that must be recorded before the breaker can trip.
+         *
+         * @param minimumCalls minimum number of calls
+         * @return this builder
+         */
+        public Builder minimumCalls(final int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        public Builder failureRateThreshold(final double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        public Builder slowCallRateThreshold(final double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        public Builder slowCallDurationMillis(final long slowCallDurationMillis) {
+            this.slowCallDurationMillis = slowCallDurationMillis;
+            return this;
+        }
+
+        /**
+         * Set how long the breaker stays open before letting probe requests through.
+         *
+         * @param openDurationMillis open duration in milliseconds
+         * @return this builder
+         */
+        public Builder openDurationMillis(final long openDurationMillis) {
+            this.openDurationMillis = openDurationMillis;
+            return this;
+        }
+
+        /**
+         * Set the number of probe requests allowed while half-open; all must succeed to close the breaker.
+         *
+         * @param halfOpenProbes number of probe requests
+         * @return this builder
+         */
+        public Builder halfOpenProbes(final int halfOpenProbes) {
+            this.halfOpenProbes = halfOpenProbes;
+            return this;
+        }
+
+        /**
+         * Build the configuration.
+         *
+         * @return the circuit breaker configuration
+         */
+        public CircuitBreakerConfig build() {
+            if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException("minimumCalls must be between 1 and windowSize");
+            }
+            if (halfOpenProbes <= 0) {
+                throw new IllegalArgumentException("halfOpenProbes must be positive");
+            }
+            return new CircuitBreakerConfig(this);
+        }
+    }
+}
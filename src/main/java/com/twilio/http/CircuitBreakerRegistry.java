@@ -0,0 +1,68 @@
+package com.twilio.http;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds one {@link CircuitBreaker} per Twilio host, so that a degraded product or region
+ * (for example {@code taskrouter.twilio.com}) fails fast without affecting calls to healthy ones.
+ */
+public class CircuitBreakerRegistry {
+
+    private final CircuitBreakerConfig config;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry() {
+        this(new CircuitBreakerConfig.Builder().build());
+    }
+
+    public CircuitBreakerRegistry(final CircuitBreakerConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Get the circuit breaker guarding the host of a URL, creating it if needed.
+     *
+     * @param url absolute request URL
+     * @return circuit breaker for the host
+     */
+    public CircuitBreaker forUrl(final String url) {
+        String host = hostOf(url);
+        CircuitBreaker breaker = breakers.get(host);
+        if (breaker == null) {
+            CircuitBreaker created = new CircuitBreaker(host, config);
+            breaker = breakers.putIfAbsent(host, created);
+            if (breaker == null) {
+                breaker = created;
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * Get all circuit breakers created so far, keyed by host.
+     *
+     * @return read-only view of the circuit breakers
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(breakers);
+    }
+
+    static String hostOf(final String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            end++;
+        }
+
+        return url.substring(start, end).toLowerCase();
+    }
+}
@@ -0,0 +1,251 @@
+package com.twilio.http;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock-free {@link RequestMetrics} that keeps latency histograms, in-flight gauges and retry and error counters
+ * per endpoint, and pool wait histograms per host.
+ *
+ * <p>
+ *     Metrics are read through {@link #getEndpoints()} and {@link #getPoolWait()}, or over JMX when created
+ *     with an MBeanServer: every endpoint is registered as
+ *     {@code com.twilio:type=EndpointMetrics,name=<name>,domain=<host>,method=<method>,path=<template>}
+ *     and the totals as {@code com.twilio:type=RequestMetrics,name=<name>}.
+ * </p>
+ */
+public class DefaultRequestMetrics implements RequestMetrics, DefaultRequestMetricsMXBean {
+
+    private static final String JMX_DOMAIN = "com.twilio";
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> poolWaitByHost = new ConcurrentHashMap<>();
+    private final LatencyHistogram poolWait = new LatencyHistogram();
+    private final MBeanServer mbeanServer;
+    private final String name;
+
+    /**
+     * Create metrics that are only readable through this object.
+     */
+    public DefaultRequestMetrics() {
+        this.mbeanServer = null;
+        this.name = null;
+    }
+
+    /**
+     * Create metrics that are also registered with an MBeanServer.
+     *
+     * @param mbeanServer server to register the MXBeans with, e.g. the platform MBeanServer
+     * @param name name distinguishing these metrics from other clients in the same JVM
+     * @throws IllegalArgumentException if metrics with the same name are already registered
+     */
+    public DefaultRequestMetrics(final MBeanServer mbeanServer, final String name) {
+        this.mbeanServer = mbeanServer;
+        this.name = name;
+
+        try {
+            mbeanServer.registerMBean(this, new ObjectName(
+                JMX_DOMAIN + ":type=RequestMetrics,name=" + ObjectName.quote(name)
+            ));
+        } catch (final JMException e) {
+            throw new IllegalArgumentException("Unable to register request metrics " + name, e);
+        }
+    }
+
+    @Override
+    public void onStart(final Request request) {
+        endpointFor(request).started();
+    }
+
+    @Override
+    public void onResponse(final Request request, final Response response, final long durationNanos) {
+        endpointFor(request).completed(response.getStatusCode(), durationNanos);
+    }
+
+    @Override
+    public void onError(final Request request, final Throwable error, final long durationNanos) {
+        endpointFor(request).failed(durationNanos);
+    }
+
+    @Override
+    public void onRetry(final Request request, final int attempt) {
+        endpointFor(request).retried();
+    }
+
+    @Override
+    public void onPoolWait(final String host, final long waitNanos) {
+        poolWait.record(waitNanos);
+
+        LatencyHistogram histogram = poolWaitByHost.get(host);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = poolWaitByHost.putIfAbsent(host, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        histogram.record(waitNanos);
+    }
+
+    private EndpointMetrics endpointFor(final Request request) {
+        String domain = CircuitBreakerRegistry.hostOf(request.getUrl());
+        String method = request.getMethod().toString();
+        String pathTemplate = RateLimit.pathTemplate(request.getUrl());
+        String key = method + " " + domain + pathTemplate;
+
+        EndpointMetrics endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            EndpointMetrics created = new EndpointMetrics(domain, method, pathTemplate);
+            endpoint = endpoints.putIfAbsent(key, created);
+            if (endpoint == null) {
+                endpoint = created;
+                register(created);
+            }
+        }
+        return endpoint;
+    }
+
+    private void register(final EndpointMetrics endpoint) {
+        if (mbeanServer == null) {
+            return;
+        }
+
+        try {
+            mbeanServer.registerMBean(endpoint, objectNameOf(endpoint));
+        } catch (final InstanceAlreadyExistsException e) {
+            // Left over from an earlier client with the same name; keep the existing registration
+        } catch (final JMException e) {
+            // Metrics stay readable through getEndpoints()
+        }
+    }
+
+    private ObjectName objectNameOf(final EndpointMetrics endpoint) throws JMException {
+        return new ObjectName(
+            JMX_DOMAIN + ":type=EndpointMetrics"
+                + ",name=" + ObjectName.quote(name)
+                + ",domain=" + ObjectName.quote(endpoint.getDomain())
+                + ",method=" + endpoint.getMethod()
+                + ",path=" + ObjectName.quote(endpoint.getPathTemplate())
+        );
+    }
+
+    /**
+     * Remove every MXBean registered by these metrics.
+     */
+    public void unregister() {
+        if (mbeanServer == null) {
+            return;
+        }
+
+        try {
+            mbeanServer.unregisterMBean(new ObjectName(
+                JMX_DOMAIN + ":type=RequestMetrics,name=" + ObjectName.quote(name)
+            ));
+        } catch (final JMException e) {
+            // Already unregistered
+        }
+
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            try {
+                mbeanServer.unregisterMBean(objectNameOf(endpoint));
+            } catch (final JMException e) {
+                // Already unregistered
+            }
+        }
+    }
+
+    /**
+     * Get the metrics of every endpoint called so far.
+     *
+     * @return live endpoint metrics
+     */
+    public Collection<EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableCollection(endpoints.values());
+    }
+
+    /**
+     * Get the time spent waiting for pooled connections, across all hosts.
+     *
+     * @return pool wait snapshot
+     */
+    public LatencyHistogram.Snapshot getPoolWait() {
+        return poolWait.snapshot();
+    }
+
+    /**
+     * Get the time spent waiting for pooled connections, per host.
+     *
+     * @return pool wait snapshots keyed by host
+     */
+    public Map<String, LatencyHistogram.Snapshot> getPoolWaitByHost() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new HashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : poolWaitByHost.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
+    @Override
+    public long getInFlight() {
+        long inFlight = 0;
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            inFlight += endpoint.getInFlight();
+        }
+        return inFlight;
+    }
+
+    @Override
+    public long getRequests() {
+        long requests = 0;
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            requests += endpoint.getRequests();
+        }
+        return requests;
+    }
+
+    @Override
+    public long getErrors() {
+        long errors = 0;
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            errors += endpoint.getErrors();
+        }
+        return errors;
+    }
+
+    @Override
+    public long getRetries() {
+        long retries = 0;
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            retries += endpoint.getRetries();
+        }
+        return retries;
+    }
+
+    @Override
+    public double getPoolWaitMeanMillis() {
+        return toMillis(poolWait.snapshot().getMeanNanos());
+    }
+
+    @Override
+    public double getPoolWaitP99Millis() {
+        return toMillis(poolWait.snapshot().getPercentileNanos(0.99));
+    }
+
+    @Override
+    public double getPoolWaitMaxMillis() {
+        return toMillis(poolWait.snapshot().getMaxNanos());
+    }
+
+    private static double toMillis(final long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
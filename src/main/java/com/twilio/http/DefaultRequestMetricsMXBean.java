@@ -0,0 +1,21 @@
+package com.twilio.http;
+
+/**
+ * JMX view of the totals kept by {@link DefaultRequestMetrics}.
+ */
+public interface DefaultRequestMetricsMXBean {
+
+    long getInFlight();
+
+    long getRequests();
+
+    long getErrors();
+
+    long getRetries();
+
+    double getPoolWaitMeanMillis();
+
+    double getPoolWaitP99Millis();
+
+    double getPoolWaitMaxMillis();
+}
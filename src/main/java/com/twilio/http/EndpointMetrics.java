@@ -0,0 +1,165 @@
+package com.twilio.http;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics for the requests made to one endpoint, identified by domain, HTTP method and resource path template.
+ *
+ * <p>
+ *     Latencies are kept per status class; requests that failed without a response are counted as errors
+ *     and recorded under status class 0.
+ * </p>
+ */
+public class EndpointMetrics implements EndpointMetricsMXBean {
+
+    private static final int STATUS_CLASSES = 6;
+
+    private final String domain;
+    private final String method;
+    private final String pathTemplate;
+
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram[] latencyByStatusClass = new LatencyHistogram[STATUS_CLASSES];
+
+    /**
+     * Create metrics for an endpoint.
+     *
+     * @param domain host of the endpoint
+     * @param method HTTP method
+     * @param pathTemplate resource path with SIDs replaced by {@code {Sid}}
+     */
+    public EndpointMetrics(final String domain, final String method, final String pathTemplate) {
+        this.domain = domain;
+        this.method = method;
+        this.pathTemplate = pathTemplate;
+        for (int i = 0; i < STATUS_CLASSES; i++) {
+            latencyByStatusClass[i] = new LatencyHistogram();
+        }
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void completed(final int statusCode, final long durationNanos) {
+        inFlight.decrementAndGet();
+        latency.record(durationNanos);
+        latencyByStatusClass[statusClassOf(statusCode)].record(durationNanos);
+    }
+
+    void failed(final long durationNanos) {
+        inFlight.decrementAndGet();
+        errors.incrementAndGet();
+        latency.record(durationNanos);
+        latencyByStatusClass[0].record(durationNanos);
+    }
+
+    void retried() {
+        retries.incrementAndGet();
+    }
+
+    static int statusClassOf(final int statusCode) {
+        int statusClass = statusCode / 100;
+        return statusClass >= 1 && statusClass < STATUS_CLASSES ? statusClass : 0;
+    }
+
+    @Override
+    public String getDomain() {
+        return domain;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    @Override
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public long getRequests() {
+        return latency.snapshot().getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Get the latencies of all completed and failed requests.
+     *
+     * @return latency snapshot
+     */
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    /**
+     * Get the latencies of requests whose response fell in a status class.
+     *
+     * @param statusClass 1 to 5 for 1xx to 5xx, or 0 for requests that failed without a response
+     * @return latency snapshot
+     */
+    public LatencyHistogram.Snapshot getLatency(final int statusClass) {
+        return latencyByStatusClass[statusClass].snapshot();
+    }
+
+    @Override
+    public Map<String, Long> getRequestsByStatusClass() {
+        Map<String, Long> requests = new LinkedHashMap<>();
+        requests.put("error", latencyByStatusClass[0].snapshot().getCount());
+        for (int i = 1; i < STATUS_CLASSES; i++) {
+            requests.put(i + "xx", latencyByStatusClass[i].snapshot().getCount());
+        }
+        return Collections.unmodifiableMap(requests);
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+        return toMillis(latency.snapshot().getMeanNanos());
+    }
+
+    @Override
+    public double getP50LatencyMillis() {
+        return toMillis(latency.snapshot().getPercentileNanos(0.5));
+    }
+
+    @Override
+    public double getP95LatencyMillis() {
+        return toMillis(latency.snapshot().getPercentileNanos(0.95));
+    }
+
+    @Override
+    public double getP99LatencyMillis() {
+        return toMillis(latency.snapshot().getPercentileNanos(0.99));
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return toMillis(latency.snapshot().getMaxNanos());
+    }
+
+    private static double toMillis(final long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.twilio.http;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics for one endpoint.
+ */
+public interface EndpointMetricsMXBean {
+
+    String getDomain();
+
+    String getMethod();
+
+    String getPathTemplate();
+
+    long getInFlight();
+
+    long getRequests();
+
+    long getErrors();
+
+    long getRetries();
+
+    /**
+     * Get the number of completed requests per status class, e.g. {@code 2xx}.
+     *
+     * @return request counts keyed by status class
+     */
+    Map<String, Long> getRequestsByStatusClass();
+
+    double getMeanLatencyMillis();
+
+    double getP50LatencyMillis();
+
+    double getP95LatencyMillis();
+
+    double getP99LatencyMillis();
+
+    double getMaxLatencyMillis();
+}
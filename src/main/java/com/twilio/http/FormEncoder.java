@@ -0,0 +1,163 @@
+package com.twilio.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes parameters as {@code application/x-www-form-urlencoded}, byte for byte the same as
+ * {@link java.net.URLEncoder} with UTF-8.
+ *
+ * <p>
+ *     Parameters are written straight into a per-thread scratch buffer instead of building a string per
+ *     name and value, so encoding a request allocates only its result.
+ * </p>
+ */
+final class FormEncoder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['.'] = true;
+        UNRESERVED['-'] = true;
+        UNRESERVED['*'] = true;
+        UNRESERVED['_'] = true;
+    }
+
+    private static final ThreadLocal<FormEncoder> ENCODERS = new ThreadLocal<FormEncoder>() {
+        @Override
+        protected FormEncoder initialValue() {
+            return new FormEncoder();
+        }
+    };
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length;
+
+    private FormEncoder() {}
+
+    /**
+     * Encode parameters, skipping null values.
+     *
+     * @param params parameters to encode
+     * @return encoded bytes
+     */
+    static byte[] encode(final Map<String, List<String>> params) {
+        FormEncoder encoder = ENCODERS.get();
+        try {
+            encoder.write(params);
+            return Arrays.copyOf(encoder.buffer, encoder.length);
+        } finally {
+            encoder.reset();
+        }
+    }
+
+    /**
+     * Encode parameters, skipping null values.
+     *
+     * @param params parameters to encode
+     * @return encoded string
+     */
+    static String encodeToString(final Map<String, List<String>> params) {
+        if (params.isEmpty()) {
+            return "";
+        }
+
+        FormEncoder encoder = ENCODERS.get();
+        try {
+            encoder.write(params);
+            return new String(encoder.buffer, 0, encoder.length, StandardCharsets.US_ASCII);
+        } finally {
+            // A failed encode must not leave its partial output for the thread's next request
+            encoder.reset();
+        }
+    }
+
+    private void write(final Map<String, List<String>> params) {
+        for (final Map.Entry<String, List<String>> entry : params.entrySet()) {
+            for (final String value : entry.getValue()) {
+                if (value == null) {
+                    continue;
+                }
+
+                if (length > 0) {
+                    put((byte) '&');
+                }
+                write(entry.getKey());
+                put((byte) '=');
+                write(value);
+            }
+        }
+    }
+
+    private void write(final String s) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (UNRESERVED[c]) {
+                    put((byte) c);
+                } else if (c == ' ') {
+                    put((byte) '+');
+                } else {
+                    escape(c);
+                }
+            } else if (c < 0x800) {
+                escape(0xC0 | (c >> 6));
+                escape(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                escape(0xF0 | (codePoint >> 18));
+                escape(0x80 | ((codePoint >> 12) & 0x3F));
+                escape(0x80 | ((codePoint >> 6) & 0x3F));
+                escape(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates cannot be encoded and are replaced, as String.getBytes does
+                escape('?');
+            } else {
+                escape(0xE0 | (c >> 12));
+                escape(0x80 | ((c >> 6) & 0x3F));
+                escape(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void escape(final int b) {
+        ensureCapacity(3);
+        buffer[length++] = '%';
+        buffer[length++] = HEX[(b >> 4) & 0x0F];
+        buffer[length++] = HEX[b & 0x0F];
+    }
+
+    private void put(final byte b) {
+        ensureCapacity(1);
+        buffer[length++] = b;
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private void reset() {
+        length = 0;
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            // Do not pin the buffer of one unusually large request to the thread
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.twilio.exception.ApiException;
+import com.twilio.exception.TwilioException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * HttpClient decorator that hedges GET requests.
+ *
+ * <p>
+ *     If a GET has not completed after the hedge delay, a second identical request is sent and whichever
+ *     response arrives first is returned; the other request is cancelled. A failure is only reported once
+ *     every request that was sent has failed. Other methods are passed straight to the delegate.
+ * </p>
+ *
+ * <p>
+ *     The hedge delay should sit around the high percentiles of normal latency (for example p95), so that
+ *     only a few percent of requests are duplicated.
+ * </p>
+ *
+ * <p>
+ *     Synchronous GETs run each attempt with the delegate's blocking {@link HttpClient#makeRequest(Request)}
+ *     on threads of the hedger's own, unbounded pool, so a busy Twilio executor never delays or swallows the
+ *     hedge. A blocking read cannot be interrupted: the losing attempt keeps its thread until the delegate
+ *     returns, and its response is then closed.
+ * </p>
+ */
+public class HedgingHttpClient extends HttpClient {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("twilio-hedger").setDaemon(true).build()
+    );
+    private static final ListeningExecutorService ATTEMPTS = MoreExecutors.listeningDecorator(
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("twilio-hedge-attempt-%d").setDaemon(true).build()
+        )
+    );
+
+    private final HttpClient delegate;
+    private final long delayNanos;
+
+    private final AtomicLong hedgesIssued = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    /**
+     * Create a new hedging client.
+     *
+     * @param delegate client that makes the requests
+     * @param delay time to wait for the first response before sending a hedge
+     * @param unit unit of delay
+     */
+    public HedgingHttpClient(final HttpClient delegate, final long delay, final TimeUnit unit) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Hedge delay must not be negative");
+        }
+
+        this.delegate = delegate;
+        this.delayNanos = unit.toNanos(delay);
+    }
+
+    @Override
+    public Response makeRequest(final Request request) {
+        if (request.getMethod() != HttpMethod.GET) {
+            return delegate.makeRequest(request);
+        }
+
+        ListenableFuture<Response> result = new Hedge(request, true).start();
+        try {
+            return result.get();
+        } catch (final InterruptedException e) {
+            // Nobody is waiting any more; stop the timer and the attempts rather than send a hedge for nothing
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while waiting for response", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof TwilioException) {
+                throw (TwilioException) e.getCause();
+            }
+            throw new ApiException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public ListenableFuture<Response> makeRequestAsync(final Request request) {
+        if (request.getMethod() != HttpMethod.GET) {
+            return delegate.makeRequestAsync(request);
+        }
+
+        return new Hedge(request, false).start();
+    }
+
+    public HttpClient getDelegate() {
+        return delegate;
+    }
+
+    public long getDelayNanos() {
+        return delayNanos;
+    }
+
+    /**
+     * Get the number of hedge requests sent.
+     *
+     * @return hedges issued
+     */
+    public long getHedgesIssued() {
+        return hedgesIssued.get();
+    }
+
+    /**
+     * Get the number of requests answered by the hedge rather than the original request.
+     *
+     * @return hedges won
+     */
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /**
+     * State of one hedged request: the original attempt and at most one hedge.
+     */
+    private class Hedge implements Runnable {
+        private final Request request;
+        private final boolean blocking;
+        private final SettableFuture<Response> result = SettableFuture.create();
+        private final AtomicReferenceArray<ListenableFuture<Response>> attempts =
+            new AtomicReferenceArray<>(2);
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+        private final AtomicBoolean answered = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timer;
+
+        Hedge(final Request request, final boolean blocking) {
+            this.request = request;
+            this.blocking = blocking;
+        }
+
+        ListenableFuture<Response> start() {
+            result.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    finish();
+                }
+            }, MoreExecutors.directExecutor());
+
+            send(0);
+            if (!result.isDone()) {
+                timer = SCHEDULER.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+                if (result.isDone()) {
+                    timer.cancel(false);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Send the hedge, unless the result is in or every attempt has already failed.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                int n = outstanding.get();
+                if (n == 0 || result.isDone()) {
+                    return;
+                }
+                if (outstanding.compareAndSet(n, n + 1)) {
+                    break;
+                }
+            }
+
+            hedgesIssued.incrementAndGet();
+            send(1);
+        }
+
+        private void send(final int index) {
+            ListenableFuture<Response> attempt;
+            try {
+                attempt = blocking ? ATTEMPTS.submit(new Callable<Response>() {
+                    @Override
+                    public Response call() {
+                        Response response = delegate.makeRequest(request);
+                        // The other attempt already answered
+                        if (result.isDone() && response != null) {
+                            response.close();
+                        }
+                        return response;
+                    }
+                }) : delegate.makeRequestAsync(request);
+            } catch (final RuntimeException e) {
+                attempt = Futures.immediateFailedFuture(e);
+            }
+            attempts.set(index, attempt);
+
+            Futures.addCallback(attempt, new FutureCallback<Response>() {
+                @Override
+                public void onSuccess(final Response response) {
+                    // Claim the win before publishing the result, so the counter is current when the caller wakes
+                    boolean won = answered.compareAndSet(false, true);
+                    if (won && index == 1) {
+                        hedgesWon.incrementAndGet();
+                    }
+                    if ((!won || !result.set(response)) && response != null) {
+                        response.close();
+                    }
+                }
+
+                @Override
+                public void onFailure(final Throwable t) {
+                    if (outstanding.decrementAndGet() == 0) {
+                        result.setException(t);
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+
+            // The result may have completed while this attempt was being sent
+            if (result.isDone()) {
+                finish();
+            }
+        }
+
+        /**
+         * Cancel the pending hedge and every attempt that did not produce the result.
+         */
+        private void finish() {
+            ScheduledFuture<?> pending = timer;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+
+            for (int i = 0; i < attempts.length(); i++) {
+                ListenableFuture<Response> attempt = attempts.get(i);
+                if (attempt != null && !attempt.isDone()) {
+                    attempt.cancel(true);
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,19 @@
 package com.twilio.http;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.twilio.Twilio;
+import com.twilio.exception.ApiConnectionException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 public abstract class HttpClient {
 
     public static final int ANY_500 = -500;
@@ -12,14 +26,197 @@ public abstract class HttpClient {
     public static final int RETRIES = 3;
     public static final long DELAY_MILLIS = 100L;
 
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("twilio-retry").setDaemon(true).build()
+    );
+
+    private final RetryPolicy retryPolicy = new RetryPolicy.Builder().build();
+
     /**
-     * Make a request.
+     * Make a request, retrying with this client's default retry policy.
      *
      * @param request request to make
      * @return Response of the HTTP request
      */
     public Response reliableRequest(final Request request) {
-        return reliableRequest(request, RETRY_CODES, RETRIES, DELAY_MILLIS);
+        return reliableRequest(request, retryPolicy);
+    }
+
+    /**
+     * Make a request, retrying as directed by a retry policy.
+     *
+     * @param request request to make
+     * @param policy policy deciding whether and when to retry
+     * @return Response of the HTTP request
+     * @throws ApiConnectionException if the last attempt failed to connect
+     */
+    public Response reliableRequest(final Request request, final RetryPolicy policy) {
+        return reliableRequest(request, policy, null);
+    }
+
+    /**
+     * Make a request, retrying as directed by a retry policy and reporting retries to metrics.
+     *
+     * @param request request to make
+     * @param policy policy deciding whether and when to retry
+     * @param metrics metrics told about each retry, may be null
+     * @return Response of the HTTP request
+     * @throws ApiConnectionException if the last attempt failed to connect
+     */
+    public Response reliableRequest(final Request request, final RetryPolicy policy, final RequestMetrics metrics) {
+        int attempt = 0;
+        while (true) {
+            attempt++;
+
+            Response response = null;
+            ApiConnectionException failure = null;
+            try {
+                response = makeRequest(request);
+            } catch (final ApiConnectionException e) {
+                failure = e;
+            }
+
+            long delay = policy.nextDelay(request, response, failure, attempt);
+            if (delay < 0) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+
+            if (metrics != null) {
+                metrics.onRetry(request, attempt);
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (final InterruptedException e) {
+                // Give up on retrying and return the last response, still readable
+                Thread.currentThread().interrupt();
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * Make an asynchronous request, retrying as directed by a retry policy and reporting retries to metrics.
+     *
+     * <p>
+     *     Each attempt is made with {@link #makeRequestAsync(Request)}, and the backoff between attempts is
+     *     scheduled rather than slept, so no thread waits for a retry. Cancelling the returned future cancels
+     *     the attempt in flight and stops further retries.
+     * </p>
+     *
+     * @param request request to make
+     * @param policy policy deciding whether and when to retry
+     * @param metrics metrics told about each retry, may be null
+     * @return future that resolves to the Response of the last attempt, or fails with the
+     *         {@link ApiConnectionException} of the last attempt
+     */
+    public ListenableFuture<Response> reliableRequestAsync(final Request request, final RetryPolicy policy,
+                                                           final RequestMetrics metrics) {
+        RetryingRequest retrying = new RetryingRequest(request, policy, metrics);
+        retrying.run();
+        return retrying.result;
+    }
+
+    /**
+     * Attempts of an asynchronous request, each started when the backoff after the previous one has elapsed.
+     */
+    private class RetryingRequest implements Runnable {
+        private final Request request;
+        private final RetryPolicy policy;
+        private final RequestMetrics metrics;
+        private final SettableFuture<Response> result = SettableFuture.create();
+        private int attempt;
+
+        RetryingRequest(final Request request, final RetryPolicy policy, final RequestMetrics metrics) {
+            this.request = request;
+            this.policy = policy;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                return;
+            }
+            attempt++;
+
+            final ListenableFuture<Response> future;
+            try {
+                future = makeRequestAsync(request);
+            } catch (final RuntimeException e) {
+                onAttempt(null, e);
+                return;
+            }
+            result.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (result.isCancelled()) {
+                        future.cancel(true);
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+
+            Futures.addCallback(future, new FutureCallback<Response>() {
+                @Override
+                public void onSuccess(final Response response) {
+                    onAttempt(response, null);
+                }
+
+                @Override
+                public void onFailure(final Throwable t) {
+                    onAttempt(null, t);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        private void onAttempt(final Response response, final Throwable t) {
+            if (t != null && !(t instanceof ApiConnectionException)) {
+                result.setException(t);
+                return;
+            }
+
+            long delay;
+            try {
+                delay = policy.nextDelay(request, response, (ApiConnectionException) t, attempt);
+            } catch (final RuntimeException e) {
+                result.setException(e);
+                return;
+            }
+            if (delay < 0) {
+                if (t != null) {
+                    result.setException(t);
+                } else {
+                    result.set(response);
+                }
+                return;
+            }
+
+            if (response != null) {
+                response.close();
+            }
+            if (metrics != null) {
+                metrics.onRetry(request, attempt);
+            }
+            SCHEDULER.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Get the retry policy used by {@link #reliableRequest(Request)}.
+     *
+     * @return default retry policy of this client
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
     }
 
     /**
@@ -58,7 +255,10 @@ public abstract class HttpClient {
             return true;
         }
 
-        int statusCode = response.getStatusCode();
+        return matchesStatus(response.getStatusCode(), retryCodes);
+    }
+
+    static boolean matchesStatus(final int statusCode, final int[] retryCodes) {
         int category = (int) Math.floor(statusCode / 100.0);
 
         for (final int retryCode : retryCodes) {
@@ -99,4 +299,26 @@ public abstract class HttpClient {
     }
 
     public abstract Response makeRequest(final Request request);
+
+    /**
+     * Make an asynchronous request.
+     *
+     * <p>
+     *     The default implementation runs {@link #makeRequest(Request)} on the Twilio executor service, within
+     *     the bulkhead of the request's domain.
+     *     Clients backed by non-blocking I/O should override this to complete the future from the
+     *     I/O callback instead.
+     * </p>
+     *
+     * @param request request to make
+     * @return future that resolves to the Response of the HTTP request
+     */
+    public ListenableFuture<Response> makeRequestAsync(final Request request) {
+        String domain = BoundedExecutorService.domainOf(request);
+        return BoundedExecutorService.submit(Twilio.getExecutorService(), domain, new Callable<Response>() {
+            public Response call() {
+                return makeRequest(request);
+            }
+        });
+    }
 }
@@ -0,0 +1,149 @@
+package com.twilio.http;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.DuplicateRequestException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a create that the caller gave an idempotency key, in the {@link IdempotencyLedger#HEADER} header,
+ * from being sent twice. POSTs without the header are passed through untouched.
+ *
+ * <p>
+ *     A create whose key already succeeded is answered from the ledger without being sent, and one whose key
+ *     is still in flight fails with a {@link DuplicateRequestException}. A create that failed to connect or got
+ *     a server error may still have taken effect, so its key is left unresolved and later creates with it fail
+ *     with a {@link DuplicateRequestException} until the caller calls {@link IdempotencyLedger#resolve(String)}.
+ * </p>
+ */
+public class IdempotencyInterceptor implements Interceptor {
+
+    private final IdempotencyLedger ledger;
+
+    public IdempotencyInterceptor(final IdempotencyLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) {
+        Request request = chain.request();
+        String key = key(request);
+        if (key == null) {
+            return chain.proceed(request);
+        }
+
+        Response recorded = ledger.acquire(key);
+        if (recorded != null) {
+            return recorded;
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (final RuntimeException e) {
+            fail(key, e);
+            throw e;
+        }
+        return settle(key, response);
+    }
+
+    @Override
+    public ListenableFuture<Response> interceptAsync(final Chain chain) {
+        Request request = chain.request();
+        final String key = key(request);
+        if (key == null) {
+            return chain.proceedAsync(request);
+        }
+
+        Response recorded;
+        try {
+            recorded = ledger.acquire(key);
+        } catch (final DuplicateRequestException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+        if (recorded != null) {
+            return Futures.immediateFuture(recorded);
+        }
+
+        ListenableFuture<Response> future;
+        try {
+            future = chain.proceedAsync(request);
+        } catch (final RuntimeException e) {
+            fail(key, e);
+            return Futures.immediateFailedFuture(e);
+        }
+
+        Futures.addCallback(future, new FutureCallback<Response>() {
+            @Override
+            public void onSuccess(final Response response) {
+                // Settled by the transform below
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                fail(key, t);
+            }
+        }, MoreExecutors.directExecutor());
+
+        return Futures.transform(future, new Function<Response, Response>() {
+            @Override
+            public Response apply(final Response response) {
+                return settle(key, response);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Get the key the caller gave a create.
+     *
+     * @return the key, or null if the request is not a keyed POST
+     */
+    private static String key(final Request request) {
+        if (request.getMethod() != HttpMethod.POST) {
+            return null;
+        }
+
+        Map<String, List<String>> headers = request.getHeaders();
+        List<String> values = headers.get(IdempotencyLedger.HEADER);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Record a successful create; leave the key of one that may have taken effect unresolved; and release the
+     * key of one that was rejected so it may be sent again.
+     */
+    private Response settle(final String key, final Response response) {
+        int statusCode = response.getStatusCode();
+        if (statusCode >= 200 && statusCode < 300) {
+            return ledger.complete(key, response);
+        }
+        if (statusCode >= 500) {
+            ledger.markUnresolved(key);
+        } else {
+            ledger.release(key);
+        }
+        return response;
+    }
+
+    /**
+     * Settle a create that failed without a response: a connection failure may have come after the create
+     * reached Twilio, while any other failure means it was not sent.
+     */
+    private void fail(final String key, final Throwable t) {
+        if (t instanceof ApiConnectionException) {
+            ledger.markUnresolved(key);
+        } else {
+            ledger.release(key);
+        }
+    }
+
+    public IdempotencyLedger getLedger() {
+        return ledger;
+    }
+}
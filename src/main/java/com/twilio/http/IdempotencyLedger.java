@@ -0,0 +1,457 @@
+package com.twilio.http;
+
+import com.twilio.exception.DuplicateRequestException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side record of the creates made with each idempotency key, so a repeated create is answered with
+ * the original response instead of being sent again.
+ *
+ * <p>
+ *     Completed creates are remembered for a limited time and up to a maximum number, oldest first. Only
+ *     successful responses are remembered; a create that was rejected may be sent again with the same key.
+ *     Keys can also be appended to a file, which is read back and compacted when the ledger is created, so
+ *     they are remembered across restarts.
+ * </p>
+ *
+ * <p>
+ *     A create that failed to connect or got a server error may or may not have taken effect. Its key stays
+ *     unresolved, without expiring, and creates with it are refused until the caller has checked what happened
+ *     and calls {@link #resolve(String)}. Keys in flight or unresolved do not count towards the maximum and are
+ *     never evicted. A key in flight is written to the file before the create is sent, so a create cut short by
+ *     a crash is unresolved when the file is read back.
+ * </p>
+ *
+ * <p>
+ *     Install it with {@link TwilioRestClient.Builder#idempotency(IdempotencyLedger)}.
+ * </p>
+ */
+public class IdempotencyLedger implements Closeable {
+
+    /**
+     * Request header carrying the idempotency key, sent with every attempt of a create.
+     */
+    public static final String HEADER = "I-Twilio-Idempotency-Token";
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final File file;
+    private final Map<String, Entry> entries;
+    private final Map<String, Entry> pending = new LinkedHashMap<>();
+    private final Lock fileLock = new ReentrantLock();
+    private final Condition fileTurn = fileLock.newCondition();
+    private DataOutputStream out;
+    private long sequence;
+    private long written;
+
+    private static final int IN_FLIGHT = 0;
+    private static final int UNRESOLVED = -1;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final AtomicLong duplicates = new AtomicLong();
+
+    /**
+     * A key that is in flight, completed with a response, or unresolved.
+     */
+    private static class Entry {
+        private final long expiresAt;
+        private final int statusCode;
+        private final byte[] body;
+
+        Entry(final long expiresAt, final int statusCode, final byte[] body) {
+            this.expiresAt = expiresAt;
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        boolean isInFlight() {
+            return statusCode == IN_FLIGHT;
+        }
+
+        boolean isUnresolved() {
+            return statusCode == UNRESOLVED;
+        }
+
+        boolean isPending() {
+            return isInFlight() || isUnresolved();
+        }
+    }
+
+    private IdempotencyLedger(final Builder b) throws IOException {
+        this.maxEntries = b.maxEntries;
+        this.ttlMillis = b.ttlMillis;
+        this.file = b.file;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, false) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        if (file != null) {
+            load();
+        }
+    }
+
+    /**
+     * Start a create with the given key.
+     *
+     * @param key idempotency key
+     * @return the response of an earlier create with the key, or null if the create should be sent
+     * @throws DuplicateRequestException if a create with the key is in flight or unresolved
+     */
+    Response acquire(final String key) {
+        Entry inFlight = new Entry(Long.MAX_VALUE, IN_FLIGHT, EMPTY);
+        long turn;
+        synchronized (this) {
+            Entry entry = pending.get(key);
+            if (entry != null && entry.isInFlight()) {
+                duplicates.incrementAndGet();
+                throw new DuplicateRequestException("A request with idempotency key " + key + " is in flight", key);
+            }
+            if (entry != null) {
+                duplicates.incrementAndGet();
+                throw new DuplicateRequestException(
+                    "A request with idempotency key " + key + " may have taken effect; resolve the key to send it "
+                        + "again",
+                    key
+                );
+            }
+
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                duplicates.incrementAndGet();
+                return new Response(entry.body, entry.statusCode);
+            }
+
+            entries.remove(key);
+            pending.put(key, inFlight);
+            turn = nextTurn();
+        }
+        persist(turn, key, inFlight);
+        return null;
+    }
+
+    /**
+     * Record the successful response of a create.
+     *
+     * @param key idempotency key
+     * @param response response to the create
+     * @return a response equivalent to the one recorded, as the original may have been consumed
+     */
+    Response complete(final String key, final Response response) {
+        byte[] body = response.getContent().getBytes(StandardCharsets.UTF_8);
+        Entry entry = new Entry(System.currentTimeMillis() + ttlMillis, response.getStatusCode(), body);
+        long turn;
+        synchronized (this) {
+            pending.remove(key);
+            entries.remove(key);
+            entries.put(key, entry);
+            turn = nextTurn();
+        }
+        persist(turn, key, entry);
+        return new Response(body, response.getStatusCode(), response.getHeaders());
+    }
+
+    /**
+     * Record that a create may have taken effect, refusing to send it again until the key is resolved.
+     *
+     * @param key idempotency key
+     */
+    void markUnresolved(final String key) {
+        Entry entry = new Entry(Long.MAX_VALUE, UNRESOLVED, EMPTY);
+        long turn;
+        synchronized (this) {
+            pending.remove(key);
+            pending.put(key, entry);
+            turn = nextTurn();
+        }
+        persist(turn, key, entry);
+    }
+
+    /**
+     * Allow a create whose outcome was unknown to be sent again, once the caller has made sure it did not take
+     * effect.
+     *
+     * @param key idempotency key
+     * @return true if the key was unresolved
+     */
+    public boolean resolve(final String key) {
+        long turn;
+        synchronized (this) {
+            Entry entry = pending.get(key);
+            if (entry == null || !entry.isUnresolved()) {
+                return false;
+            }
+            pending.remove(key);
+            turn = nextTurn();
+        }
+        forget(turn, key);
+        return true;
+    }
+
+    /**
+     * Forget a create that was rejected or never sent, so it may be sent again.
+     *
+     * @param key idempotency key
+     */
+    void release(final String key) {
+        long turn;
+        synchronized (this) {
+            Entry entry = pending.get(key);
+            if (entry == null || !entry.isInFlight()) {
+                return;
+            }
+            pending.remove(key);
+            turn = nextTurn();
+        }
+        forget(turn, key);
+    }
+
+    /**
+     * Take the next place in the file, in the order the entries change in memory. Called holding the monitor.
+     */
+    private long nextTurn() {
+        return file == null ? 0 : ++sequence;
+    }
+
+    private void forget(final long turn, final String key) {
+        // An expired entry tells a reload to forget the key
+        persist(turn, key, new Entry(0, UNRESOLVED, EMPTY));
+    }
+
+    private void persist(final long turn, final String key, final Entry entry) {
+        if (turn == 0) {
+            return;
+        }
+
+        // File writes hold a lock rather than the monitor, so they do not pin virtual threads; each waits for
+        // its turn, so the file sees the changes in the order memory did
+        fileLock.lock();
+        try {
+            while (written != turn - 1) {
+                fileTurn.awaitUninterruptibly();
+            }
+            if (out != null) {
+                write(out, key, entry);
+                out.flush();
+            }
+        } catch (final IOException e) {
+            // The entry is still remembered in memory; stop persisting rather than fail the create
+            closeQuietly();
+        } finally {
+            written = turn;
+            fileTurn.signalAll();
+            fileLock.unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        long now = System.currentTimeMillis();
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    String key = in.readUTF();
+                    long expiresAt = in.readLong();
+                    int statusCode = in.readShort();
+                    byte[] body = new byte[in.readInt()];
+                    in.readFully(body);
+                    Entry entry = new Entry(expiresAt, statusCode, body);
+                    entries.remove(key);
+                    pending.remove(key);
+                    if (expiresAt <= now) {
+                        continue;
+                    }
+                    if (entry.isPending()) {
+                        // A create still in flight when the process stopped may have taken effect
+                        pending.put(key, new Entry(Long.MAX_VALUE, UNRESOLVED, EMPTY));
+                    } else {
+                        entries.put(key, entry);
+                    }
+                }
+            } catch (final EOFException e) {
+                // End of the log, or a record cut short by a crash
+            }
+        }
+
+        // Rewrite the log with only the live entries, then keep appending to it
+        File compacted = new File(file.getPath() + ".tmp");
+        try (DataOutputStream tmp = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compacted)))) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                write(tmp, entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<String, Entry> entry : pending.entrySet()) {
+                write(tmp, entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            Files.move(
+                compacted.toPath(),
+                file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    private static void write(final DataOutputStream out, final String key, final Entry entry) throws IOException {
+        out.writeUTF(key);
+        out.writeLong(entry.expiresAt);
+        out.writeShort(entry.statusCode);
+        out.writeInt(entry.body.length);
+        out.write(entry.body);
+    }
+
+    /**
+     * Drop expired keys of completed creates.
+     */
+    public synchronized void evictExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Get the keys currently remembered: completed, then in flight or unresolved.
+     *
+     * @return remembered keys, oldest first within each group
+     */
+    public synchronized List<String> getKeys() {
+        List<String> keys = new ArrayList<>(entries.keySet());
+        keys.addAll(pending.keySet());
+        return keys;
+    }
+
+    /**
+     * Get the keys of creates that may have taken effect and are waiting for {@link #resolve(String)}.
+     *
+     * @return unresolved keys, oldest first
+     */
+    public synchronized List<String> getUnresolvedKeys() {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : pending.entrySet()) {
+            if (entry.getValue().isUnresolved()) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Get the number of creates that were answered from the ledger or rejected as in flight or unresolved.
+     *
+     * @return number of duplicates detected
+     */
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    private void closeQuietly() {
+        try {
+            out.close();
+        } catch (final IOException e) {
+            // Already failing
+        }
+        out = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileLock.lock();
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    public static class Builder {
+        private int maxEntries = 10000;
+        private long ttlMillis = TimeUnit.MINUTES.toMillis(15);
+        private File file;
+
+        /**
+         * Set the maximum number of completed creates remembered. Keys in flight or unresolved are kept
+         * regardless. Defaults to 10000.
+         *
+         * @param maxEntries maximum number of completed keys
+         * @return this builder
+         */
+        public Builder maxEntries(final int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Set how long the key of a completed create is remembered. Defaults to 15 minutes.
+         *
+         * @param ttl time to remember a key
+         * @param unit unit of ttl
+         * @return this builder
+         */
+        public Builder ttl(final long ttl, final TimeUnit unit) {
+            this.ttlMillis = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * Remember keys in a file as well as in memory.
+         *
+         * @param file file to store keys in
+         * @return this builder
+         */
+        public Builder file(final File file) {
+            this.file = file;
+            return this;
+        }
+
+        /**
+         * Create the ledger, reading back the file if one was set.
+         *
+         * @return the ledger
+         * @throws IOException if the file cannot be read or written
+         */
+        public IdempotencyLedger build() throws IOException {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("maxEntries must be positive");
+            }
+            return new IdempotencyLedger(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A stage in the request pipeline of a {@link TwilioRestClient}.
+ *
+ * <p>
+ *     Interceptors run in the order they were added, each wrapping the ones after it; the last one wraps
+ *     metrics, circuit breakers, retries and the HttpClient. An interceptor may change the request, short
+ *     circuit with its own response, or inspect the response it gets back from the chain. Both methods run
+ *     on the calling thread; asynchronous interceptors should attach to the future instead of blocking on it.
+ * </p>
+ *
+ * <p>
+ *     Interceptors that only need to modify the request can extend {@link RequestInterceptor}.
+ * </p>
+ */
+public interface Interceptor {
+
+    /**
+     * Intercept a blocking request.
+     *
+     * @param chain chain to pass the request on to
+     * @return response for the request
+     */
+    Response intercept(final Chain chain);
+
+    /**
+     * Intercept an asynchronous request.
+     *
+     * @param chain chain to pass the request on to
+     * @return future that resolves to the response for the request
+     */
+    ListenableFuture<Response> interceptAsync(final Chain chain);
+
+    /**
+     * The rest of the pipeline, as seen by one interceptor.
+     */
+    interface Chain {
+
+        /**
+         * Get the request as it was handed to this interceptor.
+         *
+         * @return request being made
+         */
+        Request request();
+
+        /**
+         * Pass a request to the next stage and wait for its response.
+         *
+         * @param request request to pass on
+         * @return response from the next stage
+         */
+        Response proceed(final Request request);
+
+        /**
+         * Pass a request to the next stage without blocking.
+         *
+         * @param request request to pass on
+         * @return future that resolves to the response from the next stage
+         */
+        ListenableFuture<Response> proceedAsync(final Request request);
+    }
+}
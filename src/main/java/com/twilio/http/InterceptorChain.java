@@ -0,0 +1,80 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+/**
+ * Chain that runs interceptors in order and then hands the request to an HttpClient.
+ */
+class InterceptorChain implements Interceptor.Chain {
+
+    private final List<Interceptor> interceptors;
+    private final int index;
+    private final Request request;
+    private final HttpClient terminal;
+
+    /**
+     * Create a chain positioned at an interceptor.
+     *
+     * @param interceptors interceptors to run
+     * @param index position of the next interceptor to run
+     * @param request request handed to this position
+     * @param terminal client that makes the request after the last interceptor
+     */
+    InterceptorChain(final List<Interceptor> interceptors, final int index, final Request request,
+                     final HttpClient terminal) {
+        this.interceptors = interceptors;
+        this.index = index;
+        this.request = request;
+        this.terminal = terminal;
+    }
+
+    /**
+     * Run a request through interceptors and then the terminal client.
+     *
+     * @param interceptors interceptors to run
+     * @param request request to make
+     * @param terminal client that makes the request
+     * @return Response of the request
+     */
+    static Response execute(final List<Interceptor> interceptors, final Request request, final HttpClient terminal) {
+        return new InterceptorChain(interceptors, 0, request, terminal).proceed(request);
+    }
+
+    /**
+     * Run a request through interceptors and then the terminal client, without blocking.
+     *
+     * @param interceptors interceptors to run
+     * @param request request to make
+     * @param terminal client that makes the request
+     * @return future that resolves to the Response of the request
+     */
+    static ListenableFuture<Response> executeAsync(final List<Interceptor> interceptors, final Request request,
+                                                   final HttpClient terminal) {
+        return new InterceptorChain(interceptors, 0, request, terminal).proceedAsync(request);
+    }
+
+    @Override
+    public Request request() {
+        return request;
+    }
+
+    @Override
+    public Response proceed(final Request request) {
+        if (index == interceptors.size()) {
+            return terminal.makeRequest(request);
+        }
+        return interceptors.get(index).intercept(new InterceptorChain(interceptors, index + 1, request, terminal));
+    }
+
+    @Override
+    public ListenableFuture<Response> proceedAsync(final Request request) {
+        if (index == interceptors.size()) {
+            return terminal.makeRequestAsync(request);
+        }
+        return interceptors.get(index).interceptAsync(
+            new InterceptorChain(interceptors, index + 1, request, terminal)
+        );
+    }
+}
@@ -0,0 +1,142 @@
+package com.twilio.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets.
+ *
+ * <p>
+ *     Each power of two microseconds is split into four buckets, so reported percentiles are within 25% of
+ *     the true value, from 1 microsecond up to several days. Recording is a handful of atomic increments.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int MAGNITUDES = 40;
+    private static final int BUCKETS = 1 + MAGNITUDES * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        totalNanos.addAndGet(value);
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Take a point-in-time copy of the histogram.
+     *
+     * @return snapshot of the recorded latencies
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, count.get(), totalNanos.get(), maxNanos.get());
+    }
+
+    static int bucketOf(final long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        if (micros == 0) {
+            return 0;
+        }
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude >= MAGNITUDES) {
+            return BUCKETS - 1;
+        }
+
+        int sub = magnitude >= 2
+            ? (int) (micros >>> (magnitude - 2)) & (SUB_BUCKETS - 1)
+            : (int) (micros << (2 - magnitude)) & (SUB_BUCKETS - 1);
+        return 1 + magnitude * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundNanos(final int bucket) {
+        if (bucket == 0) {
+            return TimeUnit.MICROSECONDS.toNanos(1);
+        }
+
+        int magnitude = (bucket - 1) / SUB_BUCKETS;
+        int sub = (bucket - 1) % SUB_BUCKETS;
+        double micros = Math.scalb((double) (SUB_BUCKETS + sub + 1), magnitude - 2);
+        return (long) (micros * 1000);
+    }
+
+    /**
+     * Immutable copy of a histogram.
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(final long[] counts, final long count, final long totalNanos, final long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Get a percentile of the recorded latencies.
+         *
+         * @param quantile quantile between 0 and 1, e.g. 0.99
+         * @return upper bound of the bucket holding the quantile, in nanoseconds; 0 if nothing was recorded
+         */
+        public long getPercentileNanos(final double quantile) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return Math.min(upperBoundNanos(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
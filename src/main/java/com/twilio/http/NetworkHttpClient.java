@@ -1,54 +1,113 @@
 package com.twilio.http;
 
+import com.google.common.base.Function;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.twilio.Twilio;
-import com.twilio.exception.ApiException;
+import com.twilio.exception.ApiConnectionException;
 import org.apache.http.Header;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class NetworkHttpClient extends HttpClient {
+public class NetworkHttpClient extends HttpClient implements Closeable {
 
     private static final int CONNECTION_TIMEOUT = 10000;
     private static final int SOCKET_TIMEOUT = 30500;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 10;
+    private static final int MAX_CONNECTIONS_TOTAL = 20;
 
     private final org.apache.http.client.HttpClient client;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final int connectTimeout;
+    private ScheduledExecutorService keepWarmScheduler;
 
     /**
      * Create a new HTTP Client.
      */
     public NetworkHttpClient() {
+        this(new Builder());
+    }
+
+    private NetworkHttpClient(final Builder b) {
         RequestConfig config = RequestConfig.custom()
-            .setConnectTimeout(CONNECTION_TIMEOUT)
-            .setSocketTimeout(SOCKET_TIMEOUT)
+            .setConnectTimeout(b.connectTimeout)
+            .setSocketTimeout(b.socketTimeout)
             .build();
-        
+
         Collection<Header> headers = Lists.<Header>newArrayList(
             new BasicHeader("X-Twilio-Client", "java-" + Twilio.VERSION),
             new BasicHeader(HttpHeaders.USER_AGENT, "twilio-java/" + Twilio.VERSION + " (" + Twilio.JAVA_VERSION + ")"),
-            new BasicHeader(HttpHeaders.ACCEPT, "application/json"),
-            new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "utf-8")
+            new BasicHeader(HttpHeaders.ACCEPT, "application/json")
         );
 
-        client = HttpClientBuilder.create()
+        connectTimeout = b.connectTimeout;
+        connectionManager = b.metrics == null
+            ? new PoolingHttpClientConnectionManager(b.timeToLive, TimeUnit.MILLISECONDS)
+            : new MeteredConnectionManager(b.timeToLive, b.metrics);
+        connectionManager.setDefaultMaxPerRoute(b.maxConnectionsPerRoute);
+        connectionManager.setMaxTotal(b.maxConnectionsTotal);
+        if (b.validateAfterInactivity != null) {
+            connectionManager.setValidateAfterInactivity(b.validateAfterInactivity);
+        }
+        if (b.socketConfig != null) {
+            connectionManager.setDefaultSocketConfig(b.socketConfig);
+        }
+
+        HttpClientBuilder clientBuilder = HttpClientBuilder.create()
             .useSystemProperties()
-            .setConnectionManager(new PoolingHttpClientConnectionManager())
+            .setConnectionManager(connectionManager)
             .setDefaultRequestConfig(config)
-            .setDefaultHeaders(headers)
-            .setMaxConnPerRoute(10)
-            .build();
+            .setDefaultHeaders(headers);
+
+        if (!b.contentCompression) {
+            clientBuilder.disableContentCompression();
+        }
+        if (b.keepAliveStrategy != null) {
+            clientBuilder.setKeepAliveStrategy(b.keepAliveStrategy);
+        }
+        if (b.evictExpiredConnections) {
+            clientBuilder.evictExpiredConnections();
+        }
+        if (b.maxIdleTime > 0) {
+            clientBuilder.evictIdleConnections(b.maxIdleTime, TimeUnit.MILLISECONDS);
+        }
+
+        client = clientBuilder.build();
     }
 
     /**
@@ -58,13 +117,14 @@ public class NetworkHttpClient extends HttpClient {
         Collection<Header> headers = Lists.<Header>newArrayList(
                 new BasicHeader("X-Twilio-Client", "java-" + Twilio.VERSION),
                 new BasicHeader(HttpHeaders.USER_AGENT, "twilio-java/" + Twilio.VERSION + " (" + Twilio.JAVA_VERSION + ") custom"),
-                new BasicHeader(HttpHeaders.ACCEPT, "application/json"),
-                new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "utf-8")
+                new BasicHeader(HttpHeaders.ACCEPT, "application/json")
         );
 
         client = clientBuilder
                 .setDefaultHeaders(headers)
                 .build();
+        connectionManager = null;
+        connectTimeout = CONNECTION_TIMEOUT;
     }
 
     /**
@@ -76,7 +136,7 @@ public class NetworkHttpClient extends HttpClient {
     public Response makeRequest(final Request request) {
 
         RequestBuilder builder = RequestBuilder.create(request.getMethod().toString())
-            .setUri(request.constructURL().toString())
+            .setUri(request.constructURI())
             .setVersion(HttpVersion.HTTP_1_1)
             .setCharset(StandardCharsets.UTF_8);
 
@@ -84,26 +144,365 @@ public class NetworkHttpClient extends HttpClient {
             builder.addHeader(HttpHeaders.AUTHORIZATION, request.getAuthString());
         }
 
+        for (Map.Entry<String, List<String>> entry : request.getHeaders().entrySet()) {
+            for (String value : entry.getValue()) {
+                builder.addHeader(entry.getKey(), value);
+            }
+        }
+
         HttpMethod method = request.getMethod();
         if (method == HttpMethod.POST) {
             builder.addHeader(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded");
+            builder.setEntity(new ByteArrayEntity(request.encodeFormBodyBytes()));
+        }
+
+        try {
+            HttpResponse response = client.execute(builder.build());
+            return Response.buffer(response);
+        } catch (IOException e) {
+            throw new ApiConnectionException(e.getMessage(), e);
+        }
+
+    }
+
+    /**
+     * Get a snapshot of the connection pool usage.
+     *
+     * <p>
+     *     Only available for clients whose pool is managed by this class; clients created from a
+     *     custom {@link HttpClientBuilder} return null.
+     * </p>
+     *
+     * @return leased, pending, available and max connection counts across all routes
+     */
+    public PoolStats getPoolStats() {
+        if (connectionManager == null) {
+            return null;
+        }
 
-            for (Map.Entry<String, List<String>> entry : request.getPostParams().entrySet()) {
-                for (String value : entry.getValue()) {
-                    builder.addParameter(entry.getKey(), value);
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Open pooled connections to each host in the background, so the first requests to them skip the DNS
+     * lookup and the TCP and TLS handshakes.
+     *
+     * <p>
+     *     Idle connections already in the pool count towards the target, and no more than the per route
+     *     maximum are opened. Warm-up is best effort: hosts that cannot be reached are skipped. Clients created
+     *     from a custom {@link HttpClientBuilder} do not manage their pool and open nothing.
+     * </p>
+     *
+     * @param urls base URLs of the hosts, e.g. {@code https://api.twilio.com}
+     * @param connectionsPerHost number of connections to have open to each host
+     * @return future that resolves to the number of connections opened
+     */
+    public ListenableFuture<Integer> warmUp(final Collection<String> urls, final int connectionsPerHost) {
+        if (connectionManager == null || connectionsPerHost <= 0) {
+            return Futures.immediateFuture(0);
+        }
+
+        List<ListenableFuture<Integer>> futures = new ArrayList<>();
+        for (final String url : urls) {
+            final HttpRoute route = routeOf(url);
+            futures.add(Twilio.getExecutorService().submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws InterruptedException {
+                    return connect(route, connectionsPerHost);
                 }
+            }));
+        }
+
+        return Futures.transform(Futures.allAsList(futures), new Function<List<Integer>, Integer>() {
+            @Override
+            public Integer apply(final List<Integer> opened) {
+                int total = 0;
+                for (Integer count : opened) {
+                    total += count;
+                }
+                return total;
             }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Keep at least the given number of connections open to each host, topping the pool up on a background
+     * thread whenever connections have been closed by the server, evicted or expired.
+     *
+     * <p>
+     *     Connections in use count towards the minimum. The keep-warm thread stops when the client is closed.
+     * </p>
+     *
+     * @param urls base URLs of the hosts, e.g. {@code https://api.twilio.com}
+     * @param minConnections number of connections to keep open to each host
+     * @param interval time between checks
+     * @param unit unit of interval
+     */
+    public synchronized void keepWarm(final Collection<String> urls, final int minConnections,
+                                      final long interval, final TimeUnit unit) {
+        if (connectionManager == null || minConnections <= 0) {
+            return;
         }
 
-        try {
-            HttpResponse response = client.execute(builder.build());
-            return new Response(
-                response.getEntity() == null ? null : response.getEntity().getContent(),
-                response.getStatusLine().getStatusCode()
+        if (keepWarmScheduler == null) {
+            keepWarmScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("twilio-keep-warm").setDaemon(true).build()
             );
-        } catch (IOException e) {
-            throw new ApiException(e.getMessage());
         }
 
+        final List<HttpRoute> routes = new ArrayList<>();
+        for (String url : urls) {
+            routes.add(routeOf(url));
+        }
+
+        keepWarmScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (HttpRoute route : routes) {
+                        PoolStats stats = connectionManager.getStats(route);
+                        if (stats.getLeased() + stats.getAvailable() < minConnections) {
+                            connect(route, minConnections - stats.getLeased());
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (final RuntimeException e) {
+                    // Keep the schedule running, an exception would cancel it
+                }
+            }
+        }, 0, interval, unit);
+    }
+
+    /**
+     * Lease connections for the route until the given number are held, opening any that are not yet
+     * connected, then release them all back to the pool.
+     *
+     * @param route route to connect
+     * @param count number of connections to hold
+     * @return number of connections opened
+     * @throws InterruptedException if interrupted while waiting for the pool
+     */
+    private int connect(final HttpRoute route, final int count) throws InterruptedException {
+        int target = Math.min(count, connectionManager.getMaxPerRoute(route));
+        List<HttpClientConnection> leased = new ArrayList<>(target);
+        int opened = 0;
+        try {
+            for (int i = 0; i < target; i++) {
+                HttpClientConnection connection = connectionManager.requestConnection(route, null)
+                    .get(connectTimeout, TimeUnit.MILLISECONDS);
+                leased.add(connection);
+
+                if (!connection.isOpen()) {
+                    HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(connection, route, connectTimeout, context);
+                    connectionManager.routeComplete(connection, route, context);
+                    opened++;
+                }
+            }
+        } catch (final ExecutionException | IOException e) {
+            // Best effort: the first request to the host will connect and report the failure
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * Get the route that requests to a URL take, so warmed connections are the ones those requests lease.
+     */
+    private static HttpRoute routeOf(final String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+    }
+
+    /**
+     * Close the client, its idle connection evictor, keep-warm thread and all pooled connections.
+     *
+     * @throws IOException if the underlying client fails to close
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (keepWarmScheduler != null) {
+                keepWarmScheduler.shutdownNow();
+            }
+        }
+        if (client instanceof Closeable) {
+            ((Closeable) client).close();
+        }
+    }
+
+    /**
+     * Connection manager that reports how long each connection lease waited for the pool.
+     */
+    private static class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+        private final RequestMetrics metrics;
+
+        MeteredConnectionManager(final long timeToLive, final RequestMetrics metrics) {
+            super(timeToLive, TimeUnit.MILLISECONDS);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+            final ConnectionRequest request = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(final long timeout, final TimeUnit unit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return request.get(timeout, unit);
+                    } finally {
+                        metrics.onPoolWait(route.getTargetHost().getHostName(), System.nanoTime() - start);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+    }
+
+    public static class Builder {
+        private int connectTimeout = CONNECTION_TIMEOUT;
+        private int socketTimeout = SOCKET_TIMEOUT;
+        private int maxConnectionsPerRoute = MAX_CONNECTIONS_PER_ROUTE;
+        private int maxConnectionsTotal = MAX_CONNECTIONS_TOTAL;
+        private long timeToLive = -1;
+        private long maxIdleTime = 0;
+        private boolean evictExpiredConnections;
+        private boolean contentCompression = true;
+        private RequestMetrics metrics;
+        private Integer validateAfterInactivity;
+        private ConnectionKeepAliveStrategy keepAliveStrategy;
+        private SocketConfig socketConfig;
+
+        public Builder connectTimeout(final int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder socketTimeout(final int socketTimeout) {
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        public Builder maxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public Builder maxConnectionsTotal(final int maxConnectionsTotal) {
+            this.maxConnectionsTotal = maxConnectionsTotal;
+            return this;
+        }
+
+        /**
+         * Set the maximum lifetime of a pooled connection, regardless of keep-alive.
+         *
+         * @param timeToLive maximum lifetime
+         * @param unit unit of timeToLive
+         * @return this builder
+         */
+        public Builder connectionTimeToLive(final long timeToLive, final TimeUnit unit) {
+            this.timeToLive = unit.toMillis(timeToLive);
+            return this;
+        }
+
+        /**
+         * Cap how long an idle connection is kept alive when the server does not send a Keep-Alive timeout.
+         *
+         * @param duration maximum keep-alive duration
+         * @param unit unit of duration
+         * @return this builder
+         */
+        public Builder keepAlive(final long duration, final TimeUnit unit) {
+            final long maxKeepAlive = unit.toMillis(duration);
+            this.keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+                @Override
+                public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+                    long keepAlive = super.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, maxKeepAlive) : maxKeepAlive;
+                }
+            };
+            return this;
+        }
+
+        public Builder keepAliveStrategy(final ConnectionKeepAliveStrategy keepAliveStrategy) {
+            this.keepAliveStrategy = keepAliveStrategy;
+            return this;
+        }
+
+        /**
+         * Run a background evictor that closes connections idle for longer than the given time.
+         *
+         * @param maxIdleTime maximum idle time
+         * @param unit unit of maxIdleTime
+         * @return this builder
+         */
+        public Builder evictIdleConnections(final long maxIdleTime, final TimeUnit unit) {
+            this.maxIdleTime = unit.toMillis(maxIdleTime);
+            return this;
+        }
+
+        /**
+         * Run a background evictor that closes connections past their keep-alive or time to live.
+         *
+         * @return this builder
+         */
+        public Builder evictExpiredConnections() {
+            this.evictExpiredConnections = true;
+            return this;
+        }
+
+        /**
+         * Revalidate pooled connections that have been inactive for longer than the given period before reuse.
+         *
+         * @param validateAfterInactivity inactivity period in milliseconds
+         * @return this builder
+         */
+        public Builder validateAfterInactivity(final int validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        public Builder socketConfig(final SocketConfig socketConfig) {
+            this.socketConfig = socketConfig;
+            return this;
+        }
+
+        /**
+         * Ask for gzip or deflate compressed responses and decompress them as they are read. Enabled by default.
+         *
+         * @param contentCompression whether to negotiate response compression
+         * @return this builder
+         */
+        public Builder contentCompression(final boolean contentCompression) {
+            this.contentCompression = contentCompression;
+            return this;
+        }
+
+        /**
+         * Report the time spent waiting for pooled connections.
+         *
+         * @param metrics metrics to report to
+         * @return this builder
+         */
+        public Builder metrics(final RequestMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public NetworkHttpClient build() {
+            return new NetworkHttpClient(this);
+        }
     }
 }
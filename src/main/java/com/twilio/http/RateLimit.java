@@ -0,0 +1,214 @@
+package com.twilio.http;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A client-side rate limit: one {@link TokenBucket} per distinct value of a {@link Key}.
+ *
+ * <p>
+ *     Buckets that have refilled are dropped at most once a minute when a new key is seen, since a full bucket
+ *     behaves exactly like a new one; keys with many distinct values therefore do not grow the limit forever.
+ * </p>
+ */
+public class RateLimit {
+
+    /**
+     * Derives the bucket a request is charged to.
+     */
+    public interface Key {
+
+        /**
+         * Get the bucket key for a request.
+         *
+         * @param request request being made
+         * @return the key, or null if this limit does not apply to the request
+         */
+        String of(final Request request);
+    }
+
+    /**
+     * Account the request is made for: the account SID in the path, or the authenticating account.
+     */
+    public static final Key ACCOUNT = new Key() {
+        @Override
+        public String of(final Request request) {
+            String url = request.getUrl();
+            int start = url.indexOf("/Accounts/");
+            if (start < 0) {
+                return request.getUsername();
+            }
+
+            start += "/Accounts/".length();
+            int end = start;
+            while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '.' && url.charAt(end) != '?') {
+                end++;
+            }
+            return url.substring(start, end);
+        }
+    };
+
+    /**
+     * Twilio host of the request, e.g. {@code api.twilio.com}.
+     */
+    public static final Key DOMAIN = new Key() {
+        @Override
+        public String of(final Request request) {
+            return CircuitBreakerRegistry.hostOf(request.getUrl());
+        }
+    };
+
+    /**
+     * HTTP method and path template of the request, e.g. {@code POST /2010-04-01/Accounts/{Sid}/Messages.json}.
+     */
+    public static final Key ENDPOINT = new Key() {
+        @Override
+        public String of(final Request request) {
+            return request.getMethod() + " " + pathTemplate(request.getUrl());
+        }
+    };
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Key key;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * Create a new rate limit.
+     *
+     * @param key key used to pick the bucket for each request
+     * @param permitsPerSecond sustained rate per key
+     * @param burst permits available at once per key
+     */
+    public RateLimit(final Key key, final double permitsPerSecond, final int burst) {
+        this.key = key;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+    }
+
+    /**
+     * Key requests by the value of a form parameter, e.g. {@code From} to limit throughput per sending number.
+     *
+     * @param name name of the POST parameter
+     * @return key on the first value of the parameter
+     */
+    public static Key postParam(final String name) {
+        return new Key() {
+            @Override
+            public String of(final Request request) {
+                List<String> values = request.getPostParams().get(name);
+                return values == null || values.isEmpty() ? null : name + "=" + values.get(0);
+            }
+        };
+    }
+
+    /**
+     * Get the bucket a request is charged to.
+     *
+     * @param request request being made
+     * @return the bucket, or null if this limit does not apply
+     */
+    TokenBucket bucketFor(final Request request) {
+        String value = key.of(request);
+        if (value == null) {
+            return null;
+        }
+
+        TokenBucket bucket = buckets.get(value);
+        if (bucket == null) {
+            sweepIfDue();
+            TokenBucket created = new TokenBucket(permitsPerSecond, burst);
+            bucket = buckets.putIfAbsent(value, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        return bucket;
+    }
+
+    private void sweepIfDue() {
+        long last = lastSweep.get();
+        long now = System.nanoTime();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            sweep();
+        }
+    }
+
+    /**
+     * Drop the buckets that have refilled.
+     */
+    void sweep() {
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            if (entry.getValue().isFull()) {
+                buckets.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    String keyFor(final Request request) {
+        return key.of(request);
+    }
+
+    /**
+     * Strip the host and query from a URL and replace resource SIDs with {@code {Sid}}.
+     *
+     * @param url absolute request URL
+     * @return path template
+     */
+    static String pathTemplate(final String url) {
+        int start = url.indexOf("://");
+        start = url.indexOf('/', start < 0 ? 0 : start + 3);
+        if (start < 0) {
+            return "/";
+        }
+
+        StringBuilder template = new StringBuilder(url.length() - start);
+        int i = start;
+        while (i < url.length() && url.charAt(i) != '?') {
+            int end = i + 1;
+            while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+                end++;
+            }
+
+            // Segments include their leading slash; SIDs may carry a .json suffix
+            int sidEnd = url.indexOf('.', i + 1);
+            sidEnd = sidEnd < 0 || sidEnd > end ? end : sidEnd;
+            if (isSid(url, i + 1, sidEnd)) {
+                template.append("/{Sid}").append(url, sidEnd, end);
+            } else {
+                template.append(url, i, end);
+            }
+            i = end;
+        }
+        return template.toString();
+    }
+
+    private static boolean isSid(final String s, final int start, final int end) {
+        if (end - start != 34) {
+            return false;
+        }
+
+        if (!Character.isUpperCase(s.charAt(start)) || !Character.isUpperCase(s.charAt(start + 1))) {
+            return false;
+        }
+
+        for (int i = start + 2; i < end; i++) {
+            char c = s.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,227 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.twilio.exception.ApiException;
+import com.twilio.exception.RateLimitExceededException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HttpClient decorator that applies client-side rate limits before each request attempt.
+ *
+ * <p>
+ *     A request must take a permit from every {@link RateLimit} that applies to it. When a permit is not
+ *     immediately available the client either fails fast, waits up to a bounded time, or waits as long as
+ *     needed. Asynchronous requests never block the caller: delayed requests are dispatched from a timer.
+ *     Permits are only returned when the request was never handed to the delegate: the wait was interrupted,
+ *     a delayed request was cancelled before it was dispatched, or the delegate refused it synchronously. A
+ *     request that failed after being handed over may still have reached Twilio, so it keeps its permits.
+ * </p>
+ */
+public class RateLimitingHttpClient extends HttpClient {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("twilio-rate-limiter").setDaemon(true).build()
+    );
+
+    private final HttpClient delegate;
+    private final List<RateLimit> limits;
+    private final long maxWaitNanos;
+
+    private RateLimitingHttpClient(final Builder b) {
+        this.delegate = b.delegate;
+        this.limits = new ArrayList<>(b.limits);
+        this.maxWaitNanos = b.maxWaitNanos;
+    }
+
+    @Override
+    public Response makeRequest(final Request request) {
+        List<TokenBucket> reserved = new ArrayList<>(limits.size());
+        long wait = acquire(request, reserved);
+        if (wait > 0) {
+            long deadline = System.nanoTime() + wait;
+            while (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                if (Thread.interrupted()) {
+                    release(reserved);
+                    Thread.currentThread().interrupt();
+                    throw new ApiException("Interrupted while waiting for rate limit");
+                }
+                wait = deadline - System.nanoTime();
+            }
+        }
+
+        return delegate.makeRequest(request);
+    }
+
+    @Override
+    public ListenableFuture<Response> makeRequestAsync(final Request request) {
+        final List<TokenBucket> reserved = new ArrayList<>(limits.size());
+        long wait;
+        try {
+            wait = acquire(request, reserved);
+        } catch (final RateLimitExceededException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+
+        final SettableFuture<Response> result = SettableFuture.create();
+        if (wait == 0) {
+            dispatch(request, reserved, result);
+            return result;
+        }
+
+        SCHEDULER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (result.isCancelled()) {
+                    release(reserved);
+                    return;
+                }
+                dispatch(request, reserved, result);
+            }
+        }, wait, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Send a request holding permits, returning the permits only if the delegate refuses it before sending.
+     */
+    private void dispatch(final Request request, final List<TokenBucket> reserved,
+                          final SettableFuture<Response> result) {
+        final ListenableFuture<Response> future;
+        try {
+            future = delegate.makeRequestAsync(request);
+        } catch (final RuntimeException e) {
+            release(reserved);
+            result.setException(e);
+            return;
+        }
+
+        Futures.addCallback(future, new FutureCallback<Response>() {
+            @Override
+            public void onSuccess(final Response response) {
+                result.set(response);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                result.setException(t);
+            }
+        }, MoreExecutors.directExecutor());
+        result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (result.isCancelled()) {
+                    future.cancel(true);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Reserve a permit from every applicable limit.
+     *
+     * @param request request being made
+     * @param reserved list the buckets permits were taken from are added to
+     * @return nanoseconds to wait before the request may be sent
+     * @throws RateLimitExceededException if any limit has no permit within the allowed wait
+     */
+    private long acquire(final Request request, final List<TokenBucket> reserved) {
+        long wait = 0;
+        for (RateLimit limit : limits) {
+            TokenBucket bucket = limit.bucketFor(request);
+            if (bucket == null) {
+                continue;
+            }
+
+            long reservation = bucket.reserve(maxWaitNanos);
+            if (reservation < 0) {
+                release(reserved);
+                throw new RateLimitExceededException(
+                    "Client-side rate limit exceeded for " + limit.keyFor(request),
+                    limit.keyFor(request)
+                );
+            }
+            reserved.add(bucket);
+            wait = Math.max(wait, reservation);
+        }
+        return wait;
+    }
+
+    private static void release(final List<TokenBucket> reserved) {
+        for (TokenBucket bucket : reserved) {
+            bucket.release();
+        }
+        reserved.clear();
+    }
+
+    public HttpClient getDelegate() {
+        return delegate;
+    }
+
+    public static class Builder {
+        private final HttpClient delegate;
+        private final List<RateLimit> limits = new ArrayList<>();
+        private long maxWaitNanos = Long.MAX_VALUE;
+
+        /**
+         * Create a builder for a rate limited client.
+         *
+         * @param delegate client that makes the requests
+         */
+        public Builder(final HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        public Builder limit(final RateLimit limit) {
+            this.limits.add(limit);
+            return this;
+        }
+
+        /**
+         * Wait as long as needed for a permit.
+         *
+         * @return this builder
+         */
+        public Builder block() {
+            this.maxWaitNanos = Long.MAX_VALUE;
+            return this;
+        }
+
+        /**
+         * Wait up to the given time for a permit, then fail.
+         *
+         * @param maxWait longest wait for a permit
+         * @param unit unit of maxWait
+         * @return this builder
+         */
+        public Builder queue(final long maxWait, final TimeUnit unit) {
+            this.maxWaitNanos = unit.toNanos(maxWait);
+            return this;
+        }
+
+        /**
+         * Fail with RateLimitExceededException when no permit is available.
+         *
+         * @return this builder
+         */
+        public Builder failFast() {
+            this.maxWaitNanos = 0;
+            return this;
+        }
+
+        public RateLimitingHttpClient build() {
+            return new RateLimitingHttpClient(this);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.twilio.http;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.twilio.exception.ApiConnectionException;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HttpClient decorator that records every request and response to a log file for {@link ReplayHttpClient}.
+ *
+ * <p>
+ *     Each record holds the method, URL, encoded query and form parameters, status, latency and body of an
+ *     exchange, length-prefixed in a compact binary form. Requests that fail without a response are not
+ *     recorded. Close the client to flush the log. Writes are serialized with a lock rather than a monitor,
+ *     so recording from virtual threads does not pin their carrier threads.
+ * </p>
+ */
+public class RecordingHttpClient extends HttpClient implements Closeable {
+
+    static final int MAGIC = 0x54575252;
+    static final int VERSION = 1;
+
+    private final HttpClient delegate;
+    private final DataOutputStream out;
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Create a new recording client, replacing any existing log.
+     *
+     * @param delegate client that makes the requests
+     * @param file log file to record to
+     * @throws IOException if the log file cannot be created
+     */
+    public RecordingHttpClient(final HttpClient delegate, final File file) throws IOException {
+        this.delegate = delegate;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    @Override
+    public Response makeRequest(final Request request) {
+        long start = System.nanoTime();
+        Response response = delegate.makeRequest(request);
+        return record(request, response, System.nanoTime() - start);
+    }
+
+    @Override
+    public ListenableFuture<Response> makeRequestAsync(final Request request) {
+        final long start = System.nanoTime();
+        return Futures.transform(delegate.makeRequestAsync(request), new Function<Response, Response>() {
+            @Override
+            public Response apply(final Response response) {
+                return record(request, response, System.nanoTime() - start);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Write an exchange to the log.
+     *
+     * @return a response equivalent to the one recorded, as the original may have been consumed
+     */
+    private Response record(final Request request, final Response response, final long latencyNanos) {
+        byte[] body = response.getContent().getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            out.writeByte(request.getMethod().ordinal());
+            writeBytes(request.getUrl().getBytes(StandardCharsets.UTF_8));
+            writeBytes(FormEncoder.encode(request.getQueryParams()));
+            writeBytes(FormEncoder.encode(request.getPostParams()));
+            out.writeShort(response.getStatusCode());
+            out.writeLong(latencyNanos);
+            writeBytes(body);
+        } catch (final IOException e) {
+            throw new ApiConnectionException("Unable to record response: " + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+        return new Response(body, response.getStatusCode(), response.getHeaders());
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public HttpClient getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Flush and close the log.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            out.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package com.twilio.http;
+
+import com.google.common.base.Joiner;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.CircuitBreakerOpenException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor that routes requests over an ordered list of Twilio regions and edges.
+ *
+ * <p>
+ *     Requests to {@code {domain}[.{region}].twilio.com} are sent to the first healthy endpoint in the list,
+ *     unless another healthy endpoint has been faster by more than the latency margin. Connection errors, 5xx
+ *     responses and open circuit breakers count as failures, tracked per endpoint as an exponentially weighted
+ *     error rate; an endpoint whose error rate reaches the threshold is ejected for a while, and ejected again by
+ *     its first failure after that. When every endpoint is ejected, all of them are tried in order.
+ * </p>
+ *
+ * <p>
+ *     Latency is only measured on endpoints that get traffic, so an idempotent request is sent to a healthy
+ *     endpoint first whenever its latency has not been measured for the probe interval. An endpoint that was
+ *     slow once can therefore win traffic back when it recovers.
+ * </p>
+ *
+ * <p>
+ *     Idempotent requests that fail are retried on the next healthy endpoint. Other requests only fail over
+ *     when nothing was sent because the circuit breaker for the endpoint was open.
+ * </p>
+ *
+ * <p>
+ *     Install it with {@link TwilioRestClient.Builder#router(RegionRouter)}, which runs it before any other
+ *     interceptor so that signatures cover the host the request is finally sent to.
+ * </p>
+ */
+public class RegionRouter implements Interceptor {
+
+    private static final String TWILIO_HOST_SUFFIX = ".twilio.com";
+    private static final double ALPHA = 0.25;
+    private static final Set<HttpMethod> IDEMPOTENT = EnumSet.of(
+        HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE
+    );
+
+    private final List<Endpoint> endpoints;
+    private final double latencyMargin;
+    private final long probeNanos;
+    private final AtomicLong failovers = new AtomicLong();
+    private final AtomicLong probes = new AtomicLong();
+
+    private RegionRouter(final Builder b) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String[] location : b.locations) {
+            endpoints.add(new Endpoint(location[0], location[1], b.maxErrorRate, b.ejectNanos));
+        }
+        this.endpoints = Collections.unmodifiableList(endpoints);
+        this.latencyMargin = b.latencyMargin;
+        this.probeNanos = b.probeNanos;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) {
+        Request request = chain.request();
+        String domain = domainOf(request.getUrl());
+        if (domain == null) {
+            return chain.proceed(request);
+        }
+
+        List<Endpoint> plan = plan(request);
+        for (int i = 0; ; i++) {
+            Endpoint endpoint = plan.get(i);
+            boolean last = i == plan.size() - 1;
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = chain.proceed(route(request, domain, endpoint));
+            } catch (final ApiConnectionException | CircuitBreakerOpenException e) {
+                endpoint.onFailure();
+                if (last || !canFailOver(request, e)) {
+                    throw e;
+                }
+                failovers.incrementAndGet();
+                continue;
+            }
+
+            if (response.getStatusCode() < 500) {
+                endpoint.onSuccess(System.nanoTime() - start);
+                return response;
+            }
+
+            endpoint.onFailure();
+            if (last || !canFailOver(request, null)) {
+                return response;
+            }
+            failovers.incrementAndGet();
+        }
+    }
+
+    @Override
+    public ListenableFuture<Response> interceptAsync(final Chain chain) {
+        Request request = chain.request();
+        String domain = domainOf(request.getUrl());
+        if (domain == null) {
+            return chain.proceedAsync(request);
+        }
+
+        SettableFuture<Response> result = SettableFuture.create();
+        attemptAsync(chain, request, domain, plan(request), 0, result);
+        return result;
+    }
+
+    private void attemptAsync(final Chain chain, final Request request, final String domain,
+                              final List<Endpoint> plan, final int index, final SettableFuture<Response> result) {
+        final Endpoint endpoint = plan.get(index);
+        final boolean last = index == plan.size() - 1;
+        final long start = System.nanoTime();
+
+        ListenableFuture<Response> future;
+        try {
+            future = chain.proceedAsync(route(request, domain, endpoint));
+        } catch (final RuntimeException e) {
+            future = Futures.immediateFailedFuture(e);
+        }
+
+        Futures.addCallback(future, new FutureCallback<Response>() {
+            @Override
+            public void onSuccess(final Response response) {
+                if (response.getStatusCode() < 500) {
+                    endpoint.onSuccess(System.nanoTime() - start);
+                    result.set(response);
+                    return;
+                }
+
+                endpoint.onFailure();
+                if (last || !canFailOver(request, null)) {
+                    result.set(response);
+                    return;
+                }
+                failovers.incrementAndGet();
+                attemptAsync(chain, request, domain, plan, index + 1, result);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                if (!(t instanceof ApiConnectionException || t instanceof CircuitBreakerOpenException)) {
+                    result.setException(t);
+                    return;
+                }
+
+                endpoint.onFailure();
+                if (last || !canFailOver(request, t)) {
+                    result.setException(t);
+                    return;
+                }
+                failovers.incrementAndGet();
+                attemptAsync(chain, request, domain, plan, index + 1, result);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Order the endpoints to try: the best healthy endpoint first, or a healthy endpoint due for a probe if the
+     * request can fail over from it, then the other healthy ones in list order; or every endpoint in list order
+     * if none is healthy.
+     */
+    private List<Endpoint> plan(final Request request) {
+        long now = System.nanoTime();
+        List<Endpoint> healthy = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isHealthy(now)) {
+                healthy.add(endpoint);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return endpoints;
+        }
+
+        Endpoint best = healthy.get(0);
+        long primaryLatency = best.getLatencyNanos();
+        long bestLatency = primaryLatency;
+        if (primaryLatency > 0) {
+            for (Endpoint endpoint : healthy) {
+                long latency = endpoint.getLatencyNanos();
+                if (latency > 0 && latency * latencyMargin < primaryLatency && latency < bestLatency) {
+                    best = endpoint;
+                    bestLatency = latency;
+                }
+            }
+        }
+
+        if (IDEMPOTENT.contains(request.getMethod())) {
+            for (Endpoint endpoint : healthy) {
+                if (endpoint != best && endpoint.tryProbe(now, probeNanos)) {
+                    best = endpoint;
+                    probes.incrementAndGet();
+                    break;
+                }
+            }
+        }
+
+        if (best != healthy.get(0)) {
+            healthy.remove(best);
+            healthy.add(0, best);
+        }
+        return healthy;
+    }
+
+    private static boolean canFailOver(final Request request, final Throwable error) {
+        return error instanceof CircuitBreakerOpenException || IDEMPOTENT.contains(request.getMethod());
+    }
+
+    private static Request route(final Request request, final String domain, final Endpoint endpoint) {
+        String url = request.getUrl();
+        int hostStart = url.indexOf("://") + 3;
+        int hostEnd = hostEnd(url, hostStart);
+        String host = Joiner.on(".").skipNulls()
+            .join(domain, endpoint.getEdge(), endpoint.getRegion(), "twilio", "com");
+        endpoint.requests.incrementAndGet();
+        return request.withUrl(url.substring(0, hostStart) + host + url.substring(hostEnd));
+    }
+
+    /**
+     * Get the Twilio domain of a URL, e.g. {@code api} for {@code https://api.us1.twilio.com/...}.
+     *
+     * @return the domain, or null if the URL is not for a Twilio host
+     */
+    private static String domainOf(final String url) {
+        int hostStart = url.indexOf("://");
+        if (hostStart < 0) {
+            return null;
+        }
+        hostStart += 3;
+
+        String host = url.substring(hostStart, hostEnd(url, hostStart));
+        if (!host.endsWith(TWILIO_HOST_SUFFIX)) {
+            return null;
+        }
+
+        int dot = host.indexOf('.');
+        return dot <= host.length() - TWILIO_HOST_SUFFIX.length() ? host.substring(0, dot) : null;
+    }
+
+    private static int hostEnd(final String url, final int hostStart) {
+        for (int i = hostStart; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return url.length();
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Get the number of times a request was sent to another endpoint after a failure.
+     *
+     * @return number of failovers
+     */
+    public long getFailovers() {
+        return failovers.get();
+    }
+
+    /**
+     * Get the number of requests sent to an endpoint to refresh its latency.
+     *
+     * @return number of probes
+     */
+    public long getProbes() {
+        return probes.get();
+    }
+
+    /**
+     * A region, optionally through an edge location, and what the router has measured about it.
+     */
+    public static class Endpoint {
+        private final String region;
+        private final String edge;
+        private final double maxErrorRate;
+        private final long ejectNanos;
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong ejections = new AtomicLong();
+
+        private double latencyNanos;
+        private double errorRate;
+        private long ejectedAt;
+        private boolean ejected;
+        private long measuredAt = System.nanoTime();
+
+        Endpoint(final String region, final String edge, final double maxErrorRate, final long ejectNanos) {
+            this.region = region;
+            this.edge = edge;
+            this.maxErrorRate = maxErrorRate;
+            this.ejectNanos = ejectNanos;
+        }
+
+        synchronized void onSuccess(final long nanos) {
+            latencyNanos = latencyNanos == 0 ? nanos : latencyNanos + ALPHA * (nanos - latencyNanos);
+            errorRate -= ALPHA * errorRate;
+            measuredAt = System.nanoTime();
+        }
+
+        /**
+         * Claim a probe if the latency has not been measured, nor a probe sent, for the probe interval.
+         */
+        synchronized boolean tryProbe(final long now, final long probeNanos) {
+            if (now - measuredAt < probeNanos) {
+                return false;
+            }
+            measuredAt = now;
+            return true;
+        }
+
+        synchronized void onFailure() {
+            failures.incrementAndGet();
+            errorRate += ALPHA * (1 - errorRate);
+
+            long now = System.nanoTime();
+            if (errorRate >= maxErrorRate && !isEjected(now)) {
+                ejected = true;
+                ejectedAt = now;
+                ejections.incrementAndGet();
+            }
+        }
+
+        private boolean isEjected(final long now) {
+            return ejected && now - ejectedAt < ejectNanos;
+        }
+
+        synchronized boolean isHealthy(final long now) {
+            return !isEjected(now);
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public String getEdge() {
+            return edge;
+        }
+
+        /**
+         * Check whether the endpoint is currently receiving traffic.
+         *
+         * @return false while the endpoint is ejected
+         */
+        public boolean isHealthy() {
+            return isHealthy(System.nanoTime());
+        }
+
+        /**
+         * Get the number of requests routed to this endpoint, including failovers.
+         *
+         * @return number of requests
+         */
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        public long getEjections() {
+            return ejections.get();
+        }
+
+        /**
+         * Get the exponentially weighted average latency of successful requests.
+         *
+         * @return latency in nanoseconds, 0 until a request succeeds
+         */
+        public synchronized long getLatencyNanos() {
+            return (long) latencyNanos;
+        }
+
+        /**
+         * Get the exponentially weighted rate of failed requests.
+         *
+         * @return error rate between 0 and 1
+         */
+        public synchronized double getErrorRate() {
+            return errorRate;
+        }
+
+        @Override
+        public String toString() {
+            return edge == null ? region : edge + "." + region;
+        }
+    }
+
+    public static class Builder {
+        private final List<String[]> locations = new ArrayList<>();
+        private double maxErrorRate = 0.5;
+        private long ejectNanos = TimeUnit.SECONDS.toNanos(30);
+        private double latencyMargin = 2.0;
+        private long probeNanos = TimeUnit.SECONDS.toNanos(10);
+
+        /**
+         * Add a region, e.g. {@code us1} or {@code ie1}. Endpoints are preferred in the order they are added.
+         *
+         * @param region region to route to
+         * @return this builder
+         */
+        public Builder region(final String region) {
+            this.locations.add(new String[]{region, null});
+            return this;
+        }
+
+        /**
+         * Add a region reached through an edge location, e.g. {@code ashburn} and {@code us1}.
+         *
+         * @param edge edge location to connect to
+         * @param region region the edge forwards to
+         * @return this builder
+         */
+        public Builder edge(final String edge, final String region) {
+            this.locations.add(new String[]{region, edge});
+            return this;
+        }
+
+        /**
+         * Set the error rate at which an endpoint is ejected. Defaults to 0.5, three failures in a row.
+         *
+         * @param maxErrorRate error rate between 0 and 1
+         * @return this builder
+         */
+        public Builder maxErrorRate(final double maxErrorRate) {
+            this.maxErrorRate = maxErrorRate;
+            return this;
+        }
+
+        /**
+         * Set how long an ejected endpoint gets no traffic. Defaults to 30 seconds.
+         *
+         * @param duration time to eject for
+         * @param unit unit of duration
+         * @return this builder
+         */
+        public Builder ejectFor(final long duration, final TimeUnit unit) {
+            this.ejectNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Set how many times faster another endpoint has to be than the first healthy one to be preferred over
+         * it. Defaults to 2.
+         *
+         * @param latencyMargin latency ratio, at least 1
+         * @return this builder
+         */
+        public Builder latencyMargin(final double latencyMargin) {
+            this.latencyMargin = latencyMargin;
+            return this;
+        }
+
+        /**
+         * Set how long an endpoint may go without a latency measurement before an idempotent request is sent to
+         * it as a probe. Defaults to 10 seconds.
+         *
+         * @param interval probe interval
+         * @param unit unit of interval
+         * @return this builder
+         */
+        public Builder probeEvery(final long interval, final TimeUnit unit) {
+            this.probeNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        public RegionRouter build() {
+            if (locations.isEmpty()) {
+                throw new IllegalArgumentException("At least one region is required");
+            }
+            if (maxErrorRate <= 0 || maxErrorRate > 1) {
+                throw new IllegalArgumentException("maxErrorRate must be between 0 and 1");
+            }
+            if (latencyMargin < 1) {
+                throw new IllegalArgumentException("latencyMargin must be at least 1");
+            }
+            if (probeNanos <= 0) {
+                throw new IllegalArgumentException("Probe interval must be positive");
+            }
+            return new RegionRouter(this);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.twilio.exception.ApiConnectionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HttpClient that answers requests from a log written by {@link RecordingHttpClient}, without network access.
+ *
+ * <p>
+ *     The log is memory-mapped and indexed once, by method, URL and encoded query and form parameters;
+ *     response bodies stay in the mapped file and are only copied out when they are replayed. A log cut short
+ *     by a crash is read up to its last complete record.
+ *     A request is answered with the responses recorded for it in turn, starting over after the last one;
+ *     requests that were never recorded fail with an {@link ApiConnectionException}. Responses are returned
+ *     immediately, or after their recorded latency multiplied by the time scale.
+ * </p>
+ */
+public class ReplayHttpClient extends HttpClient {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("twilio-replay").setDaemon(true).build()
+    );
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private final ByteBuffer log;
+    private final Map<String, Recorded> recordings;
+    private final double timeScale;
+    private final int exchanges;
+
+    /**
+     * A recorded response, with the position of its body in the log.
+     */
+    private static class Exchange {
+        private final int statusCode;
+        private final long latencyNanos;
+        private final int bodyOffset;
+        private final int bodyLength;
+
+        Exchange(final int statusCode, final long latencyNanos, final int bodyOffset, final int bodyLength) {
+            this.statusCode = statusCode;
+            this.latencyNanos = latencyNanos;
+            this.bodyOffset = bodyOffset;
+            this.bodyLength = bodyLength;
+        }
+    }
+
+    /**
+     * The responses recorded for one request, and which to replay next.
+     */
+    private static class Recorded {
+        private final Exchange[] exchanges;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Recorded(final List<Exchange> exchanges) {
+            this.exchanges = exchanges.toArray(new Exchange[exchanges.size()]);
+        }
+
+        Exchange next() {
+            if (exchanges.length == 1) {
+                return exchanges[0];
+            }
+            return exchanges[(next.getAndIncrement() & Integer.MAX_VALUE) % exchanges.length];
+        }
+    }
+
+    /**
+     * Create a client that replays responses without delay.
+     *
+     * @param file log written by a {@link RecordingHttpClient}
+     * @throws IOException if the log cannot be read
+     */
+    public ReplayHttpClient(final File file) throws IOException {
+        this(file, 0);
+    }
+
+    /**
+     * Create a client that replays responses after their scaled recorded latency.
+     *
+     * @param file log written by a {@link RecordingHttpClient}
+     * @param timeScale factor applied to recorded latencies: 1 for the original timing, 0 for none
+     * @throws IOException if the log cannot be read
+     */
+    public ReplayHttpClient(final File file, final double timeScale) throws IOException {
+        if (timeScale < 0) {
+            throw new IllegalArgumentException("Time scale must not be negative");
+        }
+
+        // The mapping stays valid after the channel is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            this.log = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        ByteBuffer buffer = log.duplicate();
+        if (buffer.remaining() < 8 || buffer.getInt() != RecordingHttpClient.MAGIC) {
+            throw new IOException(file + " is not a recording");
+        }
+        if (buffer.getInt() != RecordingHttpClient.VERSION) {
+            throw new IOException(file + " was recorded in an unsupported format");
+        }
+
+        Map<String, List<Exchange>> byKey = new LinkedHashMap<>();
+        int count = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                HttpMethod method = METHODS[buffer.get()];
+                String url = readString(buffer);
+                String query = readString(buffer);
+                String form = readString(buffer);
+                int statusCode = buffer.getShort();
+                long latencyNanos = buffer.getLong();
+                int bodyLength = readLength(buffer);
+                int bodyOffset = buffer.position();
+                buffer.position(bodyOffset + bodyLength);
+
+                String key = key(method, url, query, form);
+                List<Exchange> recorded = byKey.get(key);
+                if (recorded == null) {
+                    recorded = new ArrayList<>(1);
+                    byKey.put(key, recorded);
+                }
+                recorded.add(new Exchange(statusCode, latencyNanos, bodyOffset, bodyLength));
+                count++;
+            }
+        } catch (final BufferUnderflowException e) {
+            // A record cut short by a crash: the log ends at the previous one
+        }
+
+        this.recordings = new HashMap<>(byKey.size() * 2);
+        for (Map.Entry<String, List<Exchange>> entry : byKey.entrySet()) {
+            this.recordings.put(entry.getKey(), new Recorded(entry.getValue()));
+        }
+        this.timeScale = timeScale;
+        this.exchanges = count;
+    }
+
+    /**
+     * Read the length of a field, checking that the field is all there.
+     */
+    private static int readLength(final ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        byte[] bytes = new byte[readLength(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Response respond(final Exchange exchange) {
+        byte[] body = new byte[exchange.bodyLength];
+        ByteBuffer buffer = log.duplicate();
+        buffer.position(exchange.bodyOffset);
+        buffer.get(body);
+        return new Response(body, exchange.statusCode);
+    }
+
+    private static String key(final HttpMethod method, final String url, final String query, final String form) {
+        return method + " " + url + " " + query + " " + form;
+    }
+
+    private Exchange find(final Request request) {
+        Recorded recorded = recordings.get(
+            key(request.getMethod(), request.getUrl(), request.encodeQueryParams(), request.encodeFormBody())
+        );
+        if (recorded == null) {
+            throw new ApiConnectionException(
+                "No recorded response for " + request.getMethod() + " " + request.getUrl()
+            );
+        }
+        return recorded.next();
+    }
+
+    @Override
+    public Response makeRequest(final Request request) {
+        Exchange exchange = find(request);
+
+        long delayNanos = (long) (exchange.latencyNanos * timeScale);
+        if (delayNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ApiConnectionException("Interrupted while replaying response", e);
+            }
+        }
+        return respond(exchange);
+    }
+
+    @Override
+    public ListenableFuture<Response> makeRequestAsync(final Request request) {
+        final Exchange exchange;
+        try {
+            exchange = find(request);
+        } catch (final ApiConnectionException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+
+        long delayNanos = (long) (exchange.latencyNanos * timeScale);
+        if (delayNanos <= 0) {
+            return Futures.immediateFuture(respond(exchange));
+        }
+
+        final SettableFuture<Response> future = SettableFuture.create();
+        SCHEDULER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                future.set(respond(exchange));
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    /**
+     * Get the number of exchanges in the log.
+     *
+     * @return number of recorded responses
+     */
+    public int getExchanges() {
+        return exchanges;
+    }
+
+    public double getTimeScale() {
+        return timeScale;
+    }
+}
@@ -3,17 +3,15 @@ package com.twilio.http;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Range;
 import com.twilio.exception.ApiException;
-import com.twilio.exception.InvalidRequestException;
 import org.apache.commons.codec.binary.Base64;
 import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 
-import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -29,9 +27,11 @@ public class Request {
     private final String url;
     private final Map<String, List<String>> queryParams;
     private final Map<String, List<String>> postParams;
+    private final Map<String, List<String>> headers;
 
     private String username;
     private String password;
+    private String authString;
 
     /**
      * Create a new API request.
@@ -44,6 +44,7 @@ public class Request {
         this.url = url;
         this.queryParams = new HashMap<>();
         this.postParams = new HashMap<>();
+        this.headers = new HashMap<>();
     }
 
     /**
@@ -74,6 +75,28 @@ public class Request {
         this.url = "https://" + Joiner.on(".").skipNulls().join(domain, region, "twilio", "com") + uri;
         this.queryParams = new HashMap<>();
         this.postParams = new HashMap<>();
+        this.headers = new HashMap<>();
+    }
+
+    /**
+     * Copy the request, with its parameters, headers and credentials, to a different URL.
+     *
+     * @param url url of the copy
+     * @return copy of this request
+     */
+    Request withUrl(final String url) {
+        Request copy = new Request(method, url);
+        copyParams(queryParams, copy.queryParams);
+        copyParams(postParams, copy.postParams);
+        copyParams(headers, copy.headers);
+        copy.setAuth(username, password, authString);
+        return copy;
+    }
+
+    private static void copyParams(final Map<String, List<String>> from, final Map<String, List<String>> to) {
+        for (Map.Entry<String, List<String>> entry : from.entrySet()) {
+            to.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
     }
 
     public HttpMethod getMethod() {
@@ -87,6 +110,20 @@ public class Request {
     public void setAuth(final String username, final String password) {
         this.username = username;
         this.password = password;
+        this.authString = null;
+    }
+
+    /**
+     * Set credentials along with their precomputed authorization header.
+     *
+     * @param username username
+     * @param password password
+     * @param authString value of {@link #basicAuth(String, String)} for the credentials
+     */
+    void setAuth(final String username, final String password, final String authString) {
+        this.username = username;
+        this.password = password;
+        this.authString = authString;
     }
 
     /**
@@ -95,17 +132,22 @@ public class Request {
      * @return basic authentication string
      */
     public String getAuthString() {
-        String credentials = this.username + ":" + this.password;
-        try {
-
-            String encoded = new Base64().encodeAsString(credentials.getBytes("ascii"));
-            return "Basic " + encoded;
-
-        } catch (final UnsupportedEncodingException e) {
-
-            throw new InvalidRequestException("It must be possible to encode credentials as ascii", credentials, e);
-
+        if (authString == null) {
+            authString = basicAuth(username, password);
         }
+        return authString;
+    }
+
+    /**
+     * Build a Basic authorization header value.
+     *
+     * @param username username
+     * @param password password
+     * @return basic authentication string
+     */
+    static String basicAuth(final String username, final String password) {
+        String credentials = username + ":" + password;
+        return "Basic " + Base64.encodeBase64String(credentials.getBytes(StandardCharsets.US_ASCII));
     }
 
     public String getUsername() {
@@ -127,20 +169,33 @@ public class Request {
      */
     @SuppressWarnings("checkstyle:abbreviationaswordinname")
     public URL constructURL() {
-        String params = encodeQueryParams();
-        String stringUri = url;
+        URI uri = constructURI();
+        try {
+            return uri.toURL();
+        } catch (final MalformedURLException e) {
+            throw new ApiException("Bad URL: " + uri, e);
+        }
+    }
 
-        if (params.length() > 0) {
-            stringUri += "?" + params;
+    /**
+     * Build the URI for the request, parsing it only once.
+     *
+     * @return URI for the request
+     */
+    @SuppressWarnings("checkstyle:abbreviationaswordinname")
+    public URI constructURI() {
+        String stringUri = url;
+        if (!queryParams.isEmpty()) {
+            String params = encodeQueryParams();
+            if (params.length() > 0) {
+                stringUri = url + "?" + params;
+            }
         }
 
         try {
-            URI uri = new URI(stringUri);
-            return uri.toURL();
+            return new URI(stringUri);
         } catch (final URISyntaxException e) {
             throw new ApiException("Bad URI: " + stringUri, e);
-        } catch (final MalformedURLException e) {
-            throw new ApiException("Bad URL: " + stringUri, e);
         }
     }
 
@@ -200,6 +255,27 @@ public class Request {
         addParam(postParams, name, value);
     }
 
+    /**
+     * Add a header, in addition to any existing values.
+     *
+     * @param name name of header
+     * @param value value of header
+     */
+    public void addHeader(final String name, final String value) {
+        addParam(headers, name, value);
+    }
+
+    /**
+     * Set a header, replacing any existing values.
+     *
+     * @param name name of header
+     * @param value value of header
+     */
+    public void setHeader(final String name, final String value) {
+        headers.remove(name);
+        addParam(headers, name, value);
+    }
+
     private void addParam(final Map<String, List<String>> params, final String name, final String value) {
         if (!params.containsKey(name)) {
             params.put(name, new ArrayList<String>());
@@ -214,7 +290,16 @@ public class Request {
      * @return url encoded form body
      */
     public String encodeFormBody() {
-        return encodeParameters(postParams);
+        return FormEncoder.encodeToString(postParams);
+    }
+
+    /**
+     * Encode the form body as the bytes sent on the wire.
+     *
+     * @return url encoded form body
+     */
+    public byte[] encodeFormBodyBytes() {
+        return FormEncoder.encode(postParams);
     }
 
     /**
@@ -223,28 +308,7 @@ public class Request {
      * @return url encoded query parameters
      */
     public String encodeQueryParams() {
-        return encodeParameters(queryParams);
-    }
-
-    private static String encodeParameters(final Map<String, List<String>> params) {
-        List<String> parameters = new ArrayList<>();
-
-        for (final Map.Entry<String, List<String>> entry : params.entrySet()) {
-            try {
-                String encodedName = URLEncoder.encode(entry.getKey(), "UTF-8");
-                for (final String value : entry.getValue()) {
-                    if (value == null) {
-                        continue;
-                    }
-
-                    String encodedValue = URLEncoder.encode(value, "UTF-8");
-                    parameters.add(encodedName + "=" + encodedValue);
-                }
-            } catch (final UnsupportedEncodingException e) {
-                throw new InvalidRequestException("Couldn't encode params", entry.getKey(), e);
-            }
-        }
-        return Joiner.on("&").join(parameters);
+        return FormEncoder.encodeToString(queryParams);
     }
 
     public Map<String, List<String>> getQueryParams() {
@@ -255,6 +319,10 @@ public class Request {
         return postParams;
     }
 
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -271,6 +339,7 @@ public class Request {
                Objects.equals(this.username, other.username) &&
                Objects.equals(this.password, other.password) &&
                Objects.equals(this.queryParams, other.queryParams) &&
-               Objects.equals(this.postParams, other.postParams);
+               Objects.equals(this.postParams, other.postParams) &&
+               Objects.equals(this.headers, other.headers);
     }
 }
@@ -0,0 +1,30 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Base class for interceptors that only modify the request, e.g. to add headers.
+ */
+public abstract class RequestInterceptor implements Interceptor {
+
+    /**
+     * Modify a request before it is passed on.
+     *
+     * @param request request being made
+     */
+    protected abstract void process(final Request request);
+
+    @Override
+    public Response intercept(final Chain chain) {
+        Request request = chain.request();
+        process(request);
+        return chain.proceed(request);
+    }
+
+    @Override
+    public ListenableFuture<Response> interceptAsync(final Chain chain) {
+        Request request = chain.request();
+        process(request);
+        return chain.proceedAsync(request);
+    }
+}
@@ -0,0 +1,54 @@
+package com.twilio.http;
+
+/**
+ * Instrumentation hooks called on the request path.
+ *
+ * <p>
+ *     Implementations are called synchronously from request threads, and for asynchronous requests from I/O
+ *     threads, so they must be thread safe and must not block. {@link DefaultRequestMetrics} is the built-in
+ *     implementation.
+ * </p>
+ */
+public interface RequestMetrics {
+
+    /**
+     * Called before a request is sent, including any retries.
+     *
+     * @param request request being made
+     */
+    void onStart(final Request request);
+
+    /**
+     * Called when a request has produced its final response.
+     *
+     * @param request request that was made
+     * @param response final response
+     * @param durationNanos time since {@link #onStart(Request)}, including retries
+     */
+    void onResponse(final Request request, final Response response, final long durationNanos);
+
+    /**
+     * Called when a request failed without a response.
+     *
+     * @param request request that was made
+     * @param error cause of the failure
+     * @param durationNanos time since {@link #onStart(Request)}, including retries
+     */
+    void onError(final Request request, final Throwable error, final long durationNanos);
+
+    /**
+     * Called before a request is retried.
+     *
+     * @param request request being retried
+     * @param attempt number of attempts made so far, starting at 1
+     */
+    void onRetry(final Request request, final int attempt);
+
+    /**
+     * Called when a connection has been leased from a pool.
+     *
+     * @param host host the connection is for
+     * @param waitNanos time spent waiting for the connection
+     */
+    void onPoolWait(final String host, final long waitNanos);
+}
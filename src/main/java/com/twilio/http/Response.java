@@ -1,19 +1,45 @@
 package com.twilio.http;
 
 import com.twilio.exception.ApiConnectionException;
-import com.twilio.exception.ApiException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.util.EntityUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
-import java.util.Scanner;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
 
-public class Response {
+public class Response implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    // Content-Length comes from the server, so at most this much is allocated up front on its word alone
+    private static final int MAX_PREALLOCATED = 64 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[BUFFER_SIZE];
+        }
+    };
 
     private final InputStream stream;
     private final String content;
+    private final byte[] body;
     private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private boolean closed;
 
     /**
      * Create a Response from content string and status code.
@@ -24,19 +50,71 @@ public class Response {
     public Response(final String content, final int statusCode) {
         this.stream = null;
         this.content = content;
+        this.body = null;
         this.statusCode = statusCode;
+        this.headers = Collections.emptyMap();
     }
 
     /**
      * Create a Response from input stream and status code.
      *
+     * <p>
+     *     The Response takes ownership of the stream; it is drained and closed by {@link #getContent()}
+     *     or released by {@link #close()}.
+     * </p>
+     *
      * @param stream input stream
      * @param statusCode status code
      */
     public Response(final InputStream stream, final int statusCode) {
         this.stream = stream;
         this.content = null;
+        this.body = null;
+        this.statusCode = statusCode;
+        this.headers = Collections.emptyMap();
+    }
+
+    /**
+     * Create a Response from a fully buffered body and status code.
+     *
+     * @param body response body
+     * @param statusCode status code
+     */
+    public Response(final byte[] body, final int statusCode) {
+        this(body, statusCode, Collections.<String, List<String>>emptyMap());
+    }
+
+    /**
+     * Create a Response from a fully buffered body, status code and headers.
+     *
+     * @param body response body
+     * @param statusCode status code
+     * @param headers response headers with every value in the order received; names are matched
+     *                case-insensitively
+     */
+    public Response(final byte[] body, final int statusCode, final Map<String, List<String>> headers) {
+        this.stream = null;
+        this.content = null;
+        this.body = body == null ? EMPTY : body;
         this.statusCode = statusCode;
+
+        if (headers.isEmpty()) {
+            this.headers = Collections.emptyMap();
+        } else {
+            Map<String, List<String>> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                List<String> values = copy.get(header.getKey());
+                if (values == null) {
+                    values = new ArrayList<>();
+                    copy.put(header.getKey(), values);
+                }
+                values.addAll(header.getValue());
+            }
+            for (Map.Entry<String, List<String>> header : copy.entrySet()) {
+                header.setValue(Collections.unmodifiableList(header.getValue()));
+            }
+            this.headers = Collections.unmodifiableMap(copy);
+        }
     }
 
     /**
@@ -44,7 +122,7 @@ public class Response {
      *
      * <p>
      *     If there is a content string, that will be returned.
-     *     Otherwise, will get content from input stream
+     *     Otherwise, will get content from the buffered body or drain the input stream
      * </p>
      *
      * @return the content string
@@ -53,21 +131,22 @@ public class Response {
         if (content != null) {
             return content;
         }
-        // XXX we probably don't need this and should convert strings into
-        // streams in the mock scaffolding
+
+        if (body != null) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        if (stream == null) {
+            return "";
+        }
+
         try {
-            if (stream.available() == 0) {
-                return "";
-            }
+            return new String(readFully(stream, -1), StandardCharsets.UTF_8);
         } catch (final IOException e) {
             throw new ApiConnectionException("IOException during API request to Twilio", e);
+        } finally {
+            close();
         }
-
-        Scanner scanner = new Scanner(stream, "UTF-8").useDelimiter("\\A");
-        String data = scanner.next();
-        scanner.close();
-
-        return data;
     }
 
     /**
@@ -79,14 +158,170 @@ public class Response {
         if (stream != null) {
             return stream;
         }
-        try {
-            return new ByteArrayInputStream(content.getBytes("utf-8"));
-        } catch (final UnsupportedEncodingException e) {
-            throw new ApiException("UTF-8 encoding not supported", e);
+
+        if (body != null) {
+            return new ByteArrayInputStream(body);
         }
+
+        return new ByteArrayInputStream(content == null ? EMPTY : content.getBytes(StandardCharsets.UTF_8));
     }
 
     public int getStatusCode() {
         return statusCode;
     }
+
+    /**
+     * Get the first value of a response header.
+     *
+     * @param name header name, case-insensitive
+     * @return the first header value, or null if the header was not returned
+     */
+    public String getHeader(final String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Get every value of a response header, such as repeated {@code Set-Cookie} or {@code Link} headers.
+     *
+     * @param name header name, case-insensitive
+     * @return the header values in the order received, empty if the header was not returned
+     */
+    public List<String> getHeaders(final String name) {
+        List<String> values = headers.get(name);
+        return values == null ? Collections.<String>emptyList() : values;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Release the underlying stream, if any. Buffered responses hold no connection resources.
+     */
+    @Override
+    public void close() {
+        if (stream == null || closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            stream.close();
+        } catch (final IOException e) {
+            throw new ApiConnectionException("IOException while releasing API response", e);
+        }
+    }
+
+    /**
+     * Buffer an HTTP response body and release its connection back to the pool.
+     *
+     * @param response HTTP response to buffer
+     * @return a Response holding the full body
+     * @throws IOException if reading the body fails
+     */
+    static Response buffer(final HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        try {
+            HttpEntity decoded = decode(entity);
+            byte[] data = decoded == null ? EMPTY : readFully(decoded.getContent(), decoded.getContentLength());
+
+            Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (Header header : response.getAllHeaders()) {
+                List<String> values = headers.get(header.getName());
+                if (values == null) {
+                    values = new ArrayList<>();
+                    headers.put(header.getName(), values);
+                }
+                values.add(header.getValue());
+            }
+
+            return new Response(data, response.getStatusLine().getStatusCode(), headers);
+        } finally {
+            EntityUtils.consumeQuietly(entity);
+        }
+    }
+
+    /**
+     * Wrap an entity that is still content-encoded so that it is decompressed as it is read.
+     *
+     * <p>
+     *     The blocking client decodes responses itself and clears the encoding; the non-blocking client
+     *     leaves it to us.
+     * </p>
+     *
+     * @param entity response entity, may be null
+     * @return entity yielding the decoded body
+     */
+    private static HttpEntity decode(final HttpEntity entity) {
+        if (entity == null || entity.getContentEncoding() == null) {
+            return entity;
+        }
+
+        String encoding = entity.getContentEncoding().getValue().trim().toLowerCase(Locale.ROOT);
+        if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+            return new GzipDecompressingEntity(entity);
+        }
+        if ("deflate".equals(encoding)) {
+            return new DeflateDecompressingEntity(entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Read a stream to its end, copying through a per-thread scratch buffer.
+     *
+     * @param stream stream to read; not closed by this method
+     * @param sizeHint expected number of bytes, or a negative number if unknown; a large hint only sizes the
+     *                 first 64 KiB, and the buffer grows as data arrives
+     * @return the bytes read
+     * @throws IOException if reading fails
+     */
+    static byte[] readFully(final InputStream stream, final long sizeHint) throws IOException {
+        if (stream == null || sizeHint == 0) {
+            return EMPTY;
+        }
+
+        if (sizeHint > 0 && sizeHint <= MAX_PREALLOCATED) {
+            byte[] result = new byte[(int) sizeHint];
+            int offset = 0;
+            while (offset < result.length) {
+                int read = stream.read(result, offset, result.length - offset);
+                if (read < 0) {
+                    break;
+                }
+                offset += read;
+            }
+
+            if (offset < result.length) {
+                byte[] truncated = new byte[offset];
+                System.arraycopy(result, 0, truncated, 0, offset);
+                return truncated;
+            }
+
+            int next = stream.read();
+            if (next < 0) {
+                return result;
+            }
+
+            // Content-Length understated the body; copy the remainder through the unsized path
+            ByteArrayOutputStream out = new ByteArrayOutputStream(offset + BUFFER_SIZE);
+            out.write(result, 0, offset);
+            out.write(next);
+            copy(stream, out);
+            return out.toByteArray();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint > 0 ? MAX_PREALLOCATED : BUFFER_SIZE);
+        copy(stream, out);
+        return out.toByteArray();
+    }
+
+    private static void copy(final InputStream stream, final ByteArrayOutputStream out) throws IOException {
+        byte[] buffer = BUFFERS.get();
+        int read;
+        while ((read = stream.read(buffer, 0, buffer.length)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+    }
 }
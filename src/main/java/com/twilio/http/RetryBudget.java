@@ -0,0 +1,79 @@
+package com.twilio.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries to a fraction of request traffic.
+ *
+ * <p>
+ *     Every request deposits {@code ratio} of a retry into the budget and every retry withdraws a whole one,
+ *     so over time retries cannot exceed {@code ratio} times the number of requests. A reserve of
+ *     {@code minRetries} lets low-traffic clients retry at all; the balance never grows beyond
+ *     {@code maxRetries} so a long quiet period cannot bank an unbounded burst of retries.
+ * </p>
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000L;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * Create a new retry budget.
+     *
+     * @param ratio fraction of requests that may be retried, between 0 and 1
+     * @param minRetries retries available before any traffic has been seen
+     * @param maxRetries largest number of retries the budget can accumulate
+     */
+    public RetryBudget(final double ratio, final int minRetries, final int maxRetries) {
+        if (ratio < 0 || ratio > 1) {
+            throw new IllegalArgumentException("Retry ratio must be between 0 and 1");
+        }
+        if (minRetries < 0 || maxRetries < minRetries) {
+            throw new IllegalArgumentException("Retry reserve must be between 0 and maxRetries");
+        }
+
+        this.deposit = (long) (ratio * SCALE);
+        this.capacity = maxRetries * SCALE;
+        this.balance = new AtomicLong(minRetries * SCALE);
+    }
+
+    /**
+     * Record a new (non-retry) request.
+     */
+    public void recordRequest() {
+        long current;
+        long next;
+        do {
+            current = balance.get();
+            next = Math.min(capacity, current + deposit);
+        } while (current != next && !balance.compareAndSet(current, next));
+    }
+
+    /**
+     * Withdraw a retry from the budget.
+     *
+     * @return true if a retry is allowed
+     */
+    public boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Get the number of whole retries currently available.
+     *
+     * @return available retries
+     */
+    public long getAvailableRetries() {
+        return balance.get() / SCALE;
+    }
+}
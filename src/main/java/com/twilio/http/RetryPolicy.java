@@ -0,0 +1,244 @@
+package com.twilio.http;
+
+import com.twilio.exception.ApiConnectionException;
+import org.apache.http.client.utils.DateUtils;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether and when a failed request is retried.
+ *
+ * <p>
+ *     Delays use exponential backoff with full jitter, so that clients throttled at the same moment do not
+ *     retry in lockstep. A {@code Retry-After} header on the response takes precedence over the computed
+ *     delay; if it asks for a longer wait than {@code maxDelay}, the response is returned instead.
+ * </p>
+ *
+ * <p>
+ *     Requests that are not safe to repeat, such as creates, are only retried when throttled, since any other
+ *     failure may come after the request took effect. Creates with an idempotency key are only treated as safe
+ *     when {@link Builder#retryKeyedCreates(boolean)} says the API de-duplicates on the key.
+ * </p>
+ */
+public class RetryPolicy {
+
+    public static final int TOO_MANY_REQUESTS = 429;
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = EnumSet.of(
+        HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE
+    );
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int[] retryCodes;
+    private final boolean retryConnectionFailures;
+    private final boolean retryKeyedCreates;
+    private final RetryBudget budget;
+
+    private RetryPolicy(final Builder b) {
+        this.maxAttempts = b.maxAttempts;
+        this.baseDelayMillis = b.baseDelayMillis;
+        this.maxDelayMillis = b.maxDelayMillis;
+        this.retryCodes = b.retryCodes;
+        this.retryConnectionFailures = b.retryConnectionFailures;
+        this.retryKeyedCreates = b.retryKeyedCreates;
+        this.budget = b.budget;
+    }
+
+    /**
+     * Decide what to do after an attempt.
+     *
+     * @param request request that was made
+     * @param response response to the attempt, or null if there was none
+     * @param failure connection failure of the attempt, or null if the attempt completed
+     * @param attempt number of attempts made so far, starting at 1
+     * @return milliseconds to wait before the next attempt, or a negative number to stop retrying
+     */
+    public long nextDelay(final Request request, final Response response, final ApiConnectionException failure,
+                          final int attempt) {
+        if (attempt == 1 && budget != null) {
+            budget.recordRequest();
+        }
+
+        if (attempt >= maxAttempts || !isRetryable(request, response, failure)) {
+            return -1;
+        }
+
+        long delay = backoff(attempt);
+        long retryAfter = retryAfter(response);
+        if (retryAfter > maxDelayMillis) {
+            return -1;
+        }
+        delay = Math.max(delay, retryAfter);
+
+        if (budget != null && !budget.tryAcquireRetry()) {
+            return -1;
+        }
+
+        return delay;
+    }
+
+    protected boolean isRetryable(final Request request, final Response response,
+                                  final ApiConnectionException failure) {
+        if (failure != null) {
+            return retryConnectionFailures && isSafeToRepeat(request);
+        }
+        if (response == null) {
+            return true;
+        }
+
+        int statusCode = response.getStatusCode();
+        if (!isSafeToRepeat(request) && statusCode != TOO_MANY_REQUESTS) {
+            // The request may have taken effect; only a throttled request is known not to have
+            return false;
+        }
+        return HttpClient.matchesStatus(statusCode, retryCodes);
+    }
+
+    /**
+     * Check whether sending a request again cannot repeat its effect: its method is idempotent, or it carries
+     * an idempotency key and keyed creates are known to be de-duplicated.
+     *
+     * @param request request to check
+     * @return true if the request may be repeated
+     */
+    protected boolean isSafeToRepeat(final Request request) {
+        return IDEMPOTENT_METHODS.contains(request.getMethod())
+            || retryKeyedCreates && request.getHeaders().containsKey(IdempotencyLedger.HEADER);
+    }
+
+    /**
+     * Compute a full-jitter exponential backoff delay.
+     *
+     * @param attempt number of attempts made so far
+     * @return delay in milliseconds, uniformly distributed between 0 and the capped exponential delay
+     */
+    protected long backoff(final int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << shift);
+        if (ceiling <= 0) {
+            return 0;
+        }
+
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static long retryAfter(final Response response) {
+        if (response == null) {
+            return 0;
+        }
+
+        String value = response.getHeader("Retry-After");
+        if (value == null) {
+            return 0;
+        }
+
+        value = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000L);
+        } catch (final NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date == null ? 0 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    public static class Builder {
+        private int maxAttempts = HttpClient.RETRIES;
+        private long baseDelayMillis = HttpClient.DELAY_MILLIS;
+        private long maxDelayMillis = 5000L;
+        private int[] retryCodes = new int[]{HttpClient.ANY_500, TOO_MANY_REQUESTS};
+        private boolean retryConnectionFailures = true;
+        private boolean retryKeyedCreates = false;
+        private RetryBudget budget = new RetryBudget(0.2, 10, 100);
+
+        /**
+         * Set the total number of attempts, including the first.
+         *
+         * @param maxAttempts max number of attempts
+         * @return this builder
+         */
+        public Builder maxAttempts(final int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder baseDelayMillis(final long baseDelayMillis) {
+            this.baseDelayMillis = baseDelayMillis;
+            return this;
+        }
+
+        /**
+         * Set the cap on backoff delays and on honored Retry-After values.
+         *
+         * @param maxDelayMillis max delay in milliseconds
+         * @return this builder
+         */
+        public Builder maxDelayMillis(final long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * Set the status codes that are retried; the HttpClient.ANY_* constants match a whole class.
+         *
+         * @param retryCodes codes used for retries
+         * @return this builder
+         */
+        public Builder retryCodes(final int... retryCodes) {
+            this.retryCodes = Arrays.copyOf(retryCodes, retryCodes.length);
+            return this;
+        }
+
+        /**
+         * Retry idempotent requests that failed to connect or lost their connection.
+         *
+         * @param retryConnectionFailures whether to retry connection failures
+         * @return this builder
+         */
+        public Builder retryConnectionFailures(final boolean retryConnectionFailures) {
+            this.retryConnectionFailures = retryConnectionFailures;
+            return this;
+        }
+
+        /**
+         * Retry creates carrying an {@link IdempotencyLedger#HEADER} key after server errors and connection
+         * failures, like idempotent requests. Only enable this for APIs known to de-duplicate creates on the key;
+         * otherwise a create that took effect before failing is sent again. Defaults to false.
+         *
+         * @param retryKeyedCreates whether keyed creates are safe to repeat
+         * @return this builder
+         */
+        public Builder retryKeyedCreates(final boolean retryKeyedCreates) {
+            this.retryKeyedCreates = retryKeyedCreates;
+            return this;
+        }
+
+        /**
+         * Set the retry budget; null disables the budget.
+         *
+         * @param budget budget shared by all requests using this policy
+         * @return this builder
+         */
+        public Builder budget(final RetryBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
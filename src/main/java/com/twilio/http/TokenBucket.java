@@ -0,0 +1,83 @@
+package com.twilio.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * <p>
+ *     Implemented as a generic cell rate algorithm: the only state is the theoretical arrival time of the next
+ *     permit, updated with a single compare-and-set, so acquiring a permit never takes a lock.
+ * </p>
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Create a new token bucket.
+     *
+     * @param permitsPerSecond sustained rate
+     * @param burst number of permits that may be taken at once from a full bucket
+     */
+    public TokenBucket(final double permitsPerSecond, final int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Take a permit if one is available now.
+     *
+     * @return true if a permit was taken
+     */
+    public boolean tryAcquire() {
+        return reserve(0) == 0;
+    }
+
+    /**
+     * Reserve a permit that becomes available within the given wait.
+     *
+     * @param maxWaitNanos longest acceptable wait
+     * @return nanoseconds until the reserved permit may be used, or -1 if none is available within maxWaitNanos
+     */
+    public long reserve(final long maxWaitNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long now = System.nanoTime();
+            long start = tat - now > 0 ? tat : now;
+            long wait = start - toleranceNanos - now;
+
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+
+            if (theoreticalArrival.compareAndSet(tat, start + intervalNanos)) {
+                return wait > 0 ? wait : 0;
+            }
+        }
+    }
+
+    /**
+     * Return a reserved permit that was not used.
+     */
+    public void release() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * Check whether the bucket is full, in which case it holds no state a new bucket would not.
+     *
+     * @return true if a full burst is available
+     */
+    boolean isFull() {
+        return theoreticalArrival.get() - System.nanoTime() <= 0;
+    }
+}
@@ -1,7 +1,20 @@
 package com.twilio.http;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.twilio.exception.CircuitBreakerOpenException;
+import com.twilio.rest.Domains;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class TwilioRestClient {
 
@@ -18,17 +31,67 @@ public class TwilioRestClient {
     private final ObjectMapper objectMapper;
     private final String username;
     private final String password;
+    private final String authString;
     private final String accountSid;
     private final String region;
     private final HttpClient httpClient;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final RequestMetrics metrics;
+    private final List<Interceptor> interceptors;
+    private final ListenableFuture<Integer> warmUp;
+    private final HttpClient pipeline = new HttpClient() {
+        @Override
+        public Response makeRequest(final Request request) {
+            return execute(request);
+        }
+
+        @Override
+        public ListenableFuture<Response> makeRequestAsync(final Request request) {
+            return executeAsync(request);
+        }
+    };
 
     private TwilioRestClient(Builder b) {
         this.username = b.username;
         this.password = b.password;
+        this.authString = Request.basicAuth(b.username, b.password);
         this.accountSid = b.accountSid;
         this.region = b.region;
-        this.httpClient = b.httpClient;
+        this.httpClient = b.hedgeDelayNanos < 0
+            ? b.httpClient
+            : new HedgingHttpClient(b.httpClient, b.hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        this.retryPolicy = b.retryPolicy;
+        this.circuitBreakers = b.circuitBreakers;
+        this.metrics = b.metrics;
+        List<Interceptor> interceptors = new ArrayList<>();
+        if (b.idempotency != null) {
+            interceptors.add(new IdempotencyInterceptor(b.idempotency));
+        }
+        if (b.router != null) {
+            interceptors.add(b.router);
+        }
+        interceptors.addAll(b.interceptors);
+        this.interceptors = Collections.unmodifiableList(interceptors);
         this.objectMapper = new ObjectMapper();
+        this.warmUp = warmUp(b);
+    }
+
+    private static ListenableFuture<Integer> warmUp(final Builder b) {
+        if (b.warmUpDomains.isEmpty() || !(b.httpClient instanceof NetworkHttpClient)) {
+            return Futures.immediateFuture(0);
+        }
+
+        List<String> urls = new ArrayList<>();
+        for (Domains domain : b.warmUpDomains) {
+            urls.add("https://" + Joiner.on(".").skipNulls().join(domain, b.region, "twilio", "com"));
+        }
+
+        NetworkHttpClient client = (NetworkHttpClient) b.httpClient;
+        if (b.keepWarmIntervalNanos > 0) {
+            client.keepWarm(urls, b.warmUpConnections, b.keepWarmIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+        return client.warmUp(urls, b.warmUpConnections);
     }
 
     /**
@@ -36,12 +99,156 @@ public class TwilioRestClient {
      *
      * @param request request to make
      * @return Response object
+     * @throws CircuitBreakerOpenException if circuit breakers are enabled and the one for the host is open
      */
     public Response request(final Request request) {
-        request.setAuth(username, password);
+        request.setAuth(username, password, authString);
+        if (interceptors.isEmpty()) {
+            return execute(request);
+        }
+        return InterceptorChain.execute(interceptors, request, pipeline);
+    }
+
+    private Response execute(final Request request) {
+        if (metrics == null) {
+            return guard(request);
+        }
+
+        metrics.onStart(request);
+        long start = System.nanoTime();
+        try {
+            Response response = guard(request);
+            metrics.onResponse(request, response, System.nanoTime() - start);
+            return response;
+        } catch (final RuntimeException e) {
+            metrics.onError(request, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private Response guard(final Request request) {
+        if (circuitBreakers == null) {
+            return send(request);
+        }
+
+        CircuitBreaker breaker = acquireCircuitBreaker(request);
+        long start = System.nanoTime();
+        try {
+            Response response = send(request);
+            breaker.onResponse(response, System.nanoTime() - start);
+            return response;
+        } catch (final RuntimeException e) {
+            breaker.onError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private Response send(final Request request) {
+        if (metrics != null) {
+            RetryPolicy policy = retryPolicy == null ? httpClient.getRetryPolicy() : retryPolicy;
+            return httpClient.reliableRequest(request, policy, metrics);
+        }
+        if (retryPolicy != null) {
+            return httpClient.reliableRequest(request, retryPolicy);
+        }
         return httpClient.reliableRequest(request);
     }
 
+    private ListenableFuture<Response> sendAsync(final Request request) {
+        RetryPolicy policy = retryPolicy == null ? httpClient.getRetryPolicy() : retryPolicy;
+        return httpClient.reliableRequestAsync(request, policy, metrics);
+    }
+
+    private CircuitBreaker acquireCircuitBreaker(final Request request) {
+        CircuitBreaker breaker = circuitBreakers.forUrl(request.getUrl());
+        if (!breaker.tryAcquirePermission()) {
+            throw new CircuitBreakerOpenException(
+                "Circuit breaker for " + breaker.getHost() + " is open, request not sent",
+                breaker.getHost()
+            );
+        }
+        return breaker;
+    }
+
+    /**
+     * Make an asynchronous request to Twilio. With an {@link AsyncNetworkHttpClient}, no thread is held while
+     * the request is in flight.
+     *
+     * @param request request to make
+     * @return future that resolves to the Response object
+     */
+    public ListenableFuture<Response> requestAsync(final Request request) {
+        request.setAuth(username, password, authString);
+        if (interceptors.isEmpty()) {
+            return executeAsync(request);
+        }
+        return InterceptorChain.executeAsync(interceptors, request, pipeline);
+    }
+
+    private ListenableFuture<Response> executeAsync(final Request request) {
+        if (metrics == null) {
+            return guardAsync(request);
+        }
+
+        metrics.onStart(request);
+        final long start = System.nanoTime();
+        ListenableFuture<Response> future;
+        try {
+            future = guardAsync(request);
+        } catch (final RuntimeException e) {
+            metrics.onError(request, e, System.nanoTime() - start);
+            throw e;
+        }
+
+        Futures.addCallback(future, new FutureCallback<Response>() {
+            @Override
+            public void onSuccess(final Response response) {
+                metrics.onResponse(request, response, System.nanoTime() - start);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                metrics.onError(request, t, System.nanoTime() - start);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    private ListenableFuture<Response> guardAsync(final Request request) {
+        if (circuitBreakers == null) {
+            return sendAsync(request);
+        }
+
+        final CircuitBreaker breaker;
+        try {
+            breaker = acquireCircuitBreaker(request);
+        } catch (final CircuitBreakerOpenException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+
+        final long start = System.nanoTime();
+        ListenableFuture<Response> future;
+        try {
+            future = sendAsync(request);
+        } catch (final RuntimeException e) {
+            breaker.onError(System.nanoTime() - start);
+            throw e;
+        }
+
+        Futures.addCallback(future, new FutureCallback<Response>() {
+            @Override
+            public void onSuccess(final Response response) {
+                breaker.onResponse(response, System.nanoTime() - start);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                breaker.onError(System.nanoTime() - start);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
     public String getAccountSid() {
         return accountSid;
     }
@@ -58,12 +265,47 @@ public class TwilioRestClient {
         return httpClient;
     }
 
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    public RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    public List<Interceptor> getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * Get the connection warm-up started when the client was built.
+     *
+     * @return future that resolves to the number of connections opened, 0 if warm-up was not configured
+     */
+    public ListenableFuture<Integer> getWarmUp() {
+        return warmUp;
+    }
+
     public static class Builder {
         private String username;
         private String password;
         private String accountSid;
         private String region;
         private HttpClient httpClient;
+        private RetryPolicy retryPolicy;
+        private CircuitBreakerRegistry circuitBreakers;
+        private long hedgeDelayNanos = -1;
+        private RequestMetrics metrics;
+        private List<Interceptor> interceptors = new ArrayList<>();
+        private RegionRouter router;
+        private IdempotencyLedger idempotency;
+        private List<Domains> warmUpDomains = new ArrayList<>();
+        private int warmUpConnections;
+        private long keepWarmIntervalNanos;
 
         /**
          * Create a new Twilio Rest Client.
@@ -92,9 +334,123 @@ public class TwilioRestClient {
             return this;
         }
 
+        /**
+         * Use a custom retry policy instead of the HttpClient's default.
+         *
+         * @param retryPolicy policy deciding whether and when to retry
+         * @return this builder
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Guard requests with per-host circuit breakers.
+         *
+         * @param circuitBreakers registry holding the circuit breakers
+         * @return this builder
+         */
+        public Builder circuitBreakers(CircuitBreakerRegistry circuitBreakers) {
+            this.circuitBreakers = circuitBreakers;
+            return this;
+        }
+
+        /**
+         * Hedge GET requests: if no response has arrived after the delay, send a second request and use
+         * whichever answers first. The HttpClient is wrapped in a {@link HedgingHttpClient}, which exposes
+         * the hedge counters.
+         *
+         * @param delay time to wait before hedging, e.g. the observed p95 latency
+         * @param unit unit of delay
+         * @return this builder
+         */
+        public Builder hedgeAfter(long delay, TimeUnit unit) {
+            this.hedgeDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        /**
+         * Report latencies, status codes, retries and errors of every request. The default HttpClient also
+         * reports the time spent waiting for pooled connections.
+         *
+         * @param metrics metrics to report to, e.g. a {@link DefaultRequestMetrics}
+         * @return this builder
+         */
+        public Builder metrics(RequestMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Add an interceptor to the request pipeline. Interceptors run in the order they are added, the first
+         * one outermost, and wrap metrics, circuit breakers, retries and the HttpClient.
+         *
+         * @param interceptor interceptor to add
+         * @return this builder
+         */
+        public Builder interceptor(Interceptor interceptor) {
+            this.interceptors.add(interceptor);
+            return this;
+        }
+
+        /**
+         * Route requests over several regions and edges, failing over when one is unhealthy. The router runs
+         * before any other interceptor except the idempotency keys.
+         *
+         * @param router router choosing the region and edge of each request
+         * @return this builder
+         */
+        public Builder router(RegionRouter router) {
+            this.router = router;
+            return this;
+        }
+
+        /**
+         * Remember creates sent with an idempotency key, so a create that already succeeded is not sent again
+         * and one that may have taken effect is not resent until it is resolved in the ledger. Runs before the
+         * router and any other interceptor.
+         *
+         * @param ledger ledger remembering the keys of recent creates
+         * @return this builder
+         */
+        public Builder idempotency(IdempotencyLedger ledger) {
+            this.idempotency = ledger;
+            return this;
+        }
+
+        /**
+         * Open connections to the given domains, in the configured region, in the background as soon as the
+         * client is built, so the first requests skip the DNS lookup and the TCP and TLS handshakes. Only
+         * applies when the HttpClient is a {@link NetworkHttpClient}.
+         *
+         * @param connectionsPerHost number of connections to open to each domain
+         * @param domains domains the client will call
+         * @return this builder
+         */
+        public Builder warmUp(int connectionsPerHost, Domains... domains) {
+            this.warmUpConnections = connectionsPerHost;
+            this.warmUpDomains = Arrays.asList(domains);
+            return this;
+        }
+
+        /**
+         * Keep the connections opened by {@link #warmUp(int, Domains...)} open, checking at the given interval
+         * and reconnecting any that were closed. The interval should be shorter than the idle timeout of the
+         * connections.
+         *
+         * @param interval time between checks
+         * @param unit unit of interval
+         * @return this builder
+         */
+        public Builder keepWarm(long interval, TimeUnit unit) {
+            this.keepWarmIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
         public TwilioRestClient build() {
             if (this.httpClient == null) {
-                 this.httpClient = new NetworkHttpClient();
+                 this.httpClient = new NetworkHttpClient.Builder().metrics(this.metrics).build();
             }
             return new TwilioRestClient(this);
         }
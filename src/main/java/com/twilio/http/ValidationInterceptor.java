@@ -1,19 +1,34 @@
 package com.twilio.http;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.twilio.jwt.Jwt;
 import com.twilio.jwt.validation.ValidationToken;
+import org.apache.http.Header;
 import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.message.BasicHeader;
 import org.apache.http.protocol.HttpContext;
 
 import java.io.IOException;
+import java.net.URI;
 import java.security.PrivateKey;
+import java.util.ArrayList;
 import java.util.List;
 
-public class ValidationInterceptor implements HttpRequestInterceptor {
+/**
+ * Signs requests for Public Key Client Validation.
+ *
+ * <p>
+ *     Add it to a {@link TwilioRestClient.Builder} with {@code interceptor(...)} to sign requests made through
+ *     any HttpClient, or register it with an Apache HttpClientBuilder to sign at the transport level.
+ * </p>
+ */
+public class ValidationInterceptor implements HttpRequestInterceptor, Interceptor {
 
+    private static final String VALIDATION_HEADER = "Twilio-Client-Validation";
     private static final List<String> HEADERS = Lists.newArrayList("authorization", "host");
 
     private final String accountSid;
@@ -31,6 +46,53 @@ public class ValidationInterceptor implements HttpRequestInterceptor {
     @Override
     public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
         Jwt jwt = ValidationToken.fromHttpRequest(accountSid, credentialSid, signingKeySid, privateKey, request, HEADERS);
-        request.addHeader("Twilio-Client-Validation", jwt.toJwt());
+        request.addHeader(VALIDATION_HEADER, jwt.toJwt());
+    }
+
+    @Override
+    public Response intercept(final Chain chain) {
+        Request request = chain.request();
+        sign(request);
+        return chain.proceed(request);
+    }
+
+    @Override
+    public ListenableFuture<Response> interceptAsync(final Chain chain) {
+        Request request = chain.request();
+        sign(request);
+        return chain.proceedAsync(request);
+    }
+
+    /**
+     * Sign the request as the HttpClients send it: form bodies are sent as {@link Request#encodeFormBodyBytes()}.
+     *
+     * @param request request to sign
+     */
+    private void sign(final Request request) {
+        URI uri = request.constructURI();
+        String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+
+        List<Header> headers = new ArrayList<>();
+        headers.add(new BasicHeader(HttpHeaders.HOST, host));
+        if (request.requiresAuthentication()) {
+            headers.add(new BasicHeader(HttpHeaders.AUTHORIZATION, request.getAuthString()));
+        }
+
+        ValidationToken.Builder builder =
+            new ValidationToken.Builder(accountSid, credentialSid, signingKeySid, privateKey)
+            .method(request.getMethod().toString())
+            .uri(uri.getRawPath())
+            .headers(headers.toArray(new Header[headers.size()]))
+            .signedHeaders(HEADERS);
+
+        if (uri.getRawQuery() != null) {
+            builder.queryString(uri.getRawQuery());
+        }
+
+        if (request.getMethod() == HttpMethod.POST) {
+            builder.requestBody(request.encodeFormBody());
+        }
+
+        request.setHeader(VALIDATION_HEADER, builder.build().toJwt());
     }
 }
@@ -0,0 +1,145 @@
+package com.twilio.base;
+
+import com.twilio.exception.ApiException;
+import com.twilio.http.TwilioRestClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CompletablesTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN").build();
+
+    private static class Named extends Resource {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        Named(final String name) {
+            this.name = name;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCompletesOnExecutorThread() throws Exception {
+        Creator<Named> creator = new Creator<Named>() {
+            @Override
+            public Named create(final TwilioRestClient client) {
+                return new Named(Thread.currentThread().getName());
+            }
+        };
+        String executorThread = executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return Thread.currentThread().getName();
+            }
+        }).get();
+
+        CompletableFuture<String> name = Completables.create(creator, client, executor).thenApply(
+            new Function<Named, String>() {
+                @Override
+                public String apply(final Named named) {
+                    return named.name;
+                }
+            }
+        );
+
+        assertEquals(executorThread, name.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCompletesExceptionally() throws Exception {
+        final ApiException failure = new ApiException("Not found");
+        Deleter<Named> deleter = new Deleter<Named>() {
+            @Override
+            public boolean delete(final TwilioRestClient client) {
+                throw failure;
+            }
+        };
+
+        CompletableFuture<Boolean> deleted = Completables.delete(deleter, client, executor);
+
+        try {
+            deleted.get(5, TimeUnit.SECONDS);
+            fail("ExecutionException was expected");
+        } catch (final ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+        assertTrue(deleted.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testCompletesExceptionallyOnError() throws Exception {
+        final NoClassDefFoundError failure = new NoClassDefFoundError("java/time/ZonedDateTime");
+        Fetcher<Named> fetcher = new Fetcher<Named>() {
+            @Override
+            public Named fetch(final TwilioRestClient client) {
+                throw failure;
+            }
+        };
+
+        CompletableFuture<Named> fetched = Completables.fetch(fetcher, client, executor);
+
+        try {
+            fetched.get(5, TimeUnit.SECONDS);
+            fail("ExecutionException was expected");
+        } catch (final ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void testCancelledBeforeStartNotRun() throws Exception {
+        final boolean[] ran = new boolean[1];
+        Fetcher<Named> fetcher = new Fetcher<Named>() {
+            @Override
+            public Named fetch(final TwilioRestClient client) {
+                ran[0] = true;
+                return new Named("fetched");
+            }
+        };
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        started.await();
+
+        CompletableFuture<Named> fetched = Completables.fetch(fetcher, client, executor);
+        fetched.cancel(false);
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertTrue(fetched.isCancelled());
+        assertFalse(ran[0]);
+    }
+}
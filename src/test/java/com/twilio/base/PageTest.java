@@ -0,0 +1,73 @@
+package com.twilio.base;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.rest.api.v2010.account.Message;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PageTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testParsesV2010Page() {
+        String json = "{\"end\": 1, \"first_page_uri\": \"/Messages.json?Page=0\", "
+            + "\"next_page_uri\": \"/Messages.json?Page=1\", \"page\": 0, \"page_size\": 2, "
+            + "\"previous_page_uri\": null, \"start\": 0, \"uri\": \"/Messages.json?Page=0\", "
+            + "\"messages\": [{\"sid\": \"SM1\", \"num_media\": \"0\"}, {\"sid\": \"SM2\", \"subresource_uris\": "
+            + "{\"media\": \"/Media.json\"}}]}";
+
+        Page<Message> page = Page.fromJson("messages", json, Message.class, mapper);
+
+        assertEquals(2, page.getRecords().size());
+        assertEquals("SM1", page.getRecords().get(0).getSid());
+        assertEquals("SM2", page.getRecords().get(1).getSid());
+        assertEquals(2, page.getPageSize());
+        assertTrue(page.hasNextPage());
+        assertEquals("https://api.twilio.com/Messages.json?Page=1", page.getNextPageUrl("api", null));
+        assertEquals("https://api.twilio.com/Messages.json?Page=0", page.getFirstPageUrl("api", null));
+    }
+
+    @Test
+    public void testParsesNextGenPageWithRecordsFirst() {
+        String json = "{\"messages\": [{\"sid\": \"SM1\"}], \"meta\": {\"first_page_url\": "
+            + "\"https://chat.twilio.com/v1/Messages?Page=0\", \"key\": \"messages\", \"next_page_url\": null, "
+            + "\"page\": 0, \"page_size\": 50, \"previous_page_url\": null, "
+            + "\"url\": \"https://chat.twilio.com/v1/Messages?Page=0\"}}";
+
+        Page<Message> page = Page.fromJson("messages", json, Message.class, mapper);
+
+        assertEquals(1, page.getRecords().size());
+        assertEquals(50, page.getPageSize());
+        assertFalse(page.hasNextPage());
+        assertEquals("https://chat.twilio.com/v1/Messages?Page=0", page.getUrl("chat", null));
+    }
+
+    @Test
+    public void testParsesStreamAndDefaultsPageSize() {
+        String json = "{\"uri\": \"/Messages.json\", \"messages\": [{\"sid\": \"SM1\"}, {\"sid\": \"SM2\"}]}";
+
+        Page<Message> page = Page.fromJson(
+            "messages",
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+            Message.class,
+            mapper
+        );
+
+        assertEquals(2, page.getRecords().size());
+        assertEquals(2, page.getPageSize());
+        assertFalse(page.hasNextPage());
+    }
+
+    @Test(expected = ApiConnectionException.class)
+    public void testTruncatedPageFails() {
+        Page.fromJson("messages", "{\"uri\": \"/Messages.json\", \"messages\": [{\"sid\": ", Message.class, mapper);
+    }
+}
@@ -0,0 +1,143 @@
+package com.twilio.base;
+
+import com.twilio.fake.FakeTwilioServer;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Call;
+import com.twilio.rest.api.v2010.account.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResourceCursorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeTwilioServer server;
+    private NetworkHttpClient httpClient;
+    private TwilioRestClient client;
+    private List<String> expected;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeTwilioServer.Builder().records(120).build();
+        httpClient = new NetworkHttpClient();
+        client = new TwilioRestClient.Builder(server.getAccountSid(), "AUTH TOKEN")
+            .httpClient(httpClient)
+            .interceptor(server.interceptor())
+            .build();
+        expected = sids(Message.reader(client.getAccountSid()).pageSize(10).read(client).iterator(), -1);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    private static List<String> sids(final Iterator<Message> messages, final int count) {
+        List<String> sids = new ArrayList<>();
+        while ((count < 0 || sids.size() < count) && messages.hasNext()) {
+            sids.add(messages.next().getSid());
+        }
+        return sids;
+    }
+
+    @Test
+    public void testResumesAtNextRecord() {
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).read(client);
+        List<String> read = sids(messages.iterator(), 25);
+        ResourceCursor cursor = messages.getCursor();
+        long before = server.getRequests();
+
+        read.addAll(sids(Message.reader(client.getAccountSid()).resume(cursor, client).iterator(), -1));
+
+        assertEquals(expected, read);
+        assertEquals(25, cursor.getProcessed());
+        assertEquals(5, cursor.getOffset());
+        // Pages 2 to 11 only
+        assertEquals(10, server.getRequests() - before);
+    }
+
+    @Test
+    public void testResumesFromCheckpointFile() throws IOException {
+        File file = new File(folder.getRoot(), "messages.cursor");
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).read(client)
+            .setCheckpointFile(file);
+        // Stops while processing the 38th record, after the checkpoint of its page
+        sids(messages.iterator(), 38);
+
+        ResourceCursor cursor = ResourceCursor.load(file);
+        List<String> resumed = sids(Message.reader(client.getAccountSid()).resume(cursor, client).iterator(), -1);
+
+        assertEquals(30, cursor.getProcessed());
+        assertEquals(expected.subList(30, 120), resumed);
+    }
+
+    @Test
+    public void testLimitAppliesAcrossResume() throws IOException {
+        File file = new File(folder.getRoot(), "messages.cursor");
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).limit(50).read(client);
+        sids(messages.iterator(), 20);
+        messages.getCursor().save(file);
+
+        ResourceSet<Message> resumed = Message.reader(client.getAccountSid()).resume(ResourceCursor.load(file), client);
+
+        assertEquals(expected.subList(20, 50), sids(resumed.iterator(), -1));
+    }
+
+    @Test
+    public void testFinishedCursorResumesNothing() throws IOException {
+        File file = new File(folder.getRoot(), "messages.cursor");
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(50).read(client)
+            .setCheckpointFile(file);
+        sids(messages.iterator(), -1);
+
+        ResourceSet<Message> resumed = Message.reader(client.getAccountSid()).resume(ResourceCursor.load(file), client);
+
+        assertTrue(sids(resumed.iterator(), -1).isEmpty());
+    }
+
+    @Test
+    public void testMissingFileHasNoCursor() throws IOException {
+        assertNull(ResourceCursor.load(new File(folder.getRoot(), "missing.cursor")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCursorOfAnotherReaderRejected() {
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).read(client);
+
+        Call.reader(client.getAccountSid()).resume(messages.getCursor(), client);
+    }
+
+    @Test
+    public void testPreviousCheckpointSurvivesFailedMove() throws IOException {
+        File file = new File(folder.getRoot(), "messages.cursor");
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).read(client);
+        sids(messages.iterator(), 25);
+        messages.getCursor().save(file);
+
+        try {
+            ResourceCursor.replace(new File(folder.getRoot(), "missing.cursor.tmp"), file);
+            fail("Move of a missing file should fail");
+        } catch (final IOException e) {
+            // Expected
+        }
+
+        assertEquals(25, ResourceCursor.load(file).getProcessed());
+    }
+}
@@ -0,0 +1,225 @@
+package com.twilio.base;
+
+import com.twilio.fake.FakeTwilioServer;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourcePublisherTest {
+
+    private FakeTwilioServer server;
+    private NetworkHttpClient httpClient;
+    private TwilioRestClient client;
+
+    /**
+     * Subscriber that records what it receives and requests a fixed number of records up front.
+     */
+    private static class RecordingSubscriber implements ResourcePublisher.Subscriber<Message> {
+        private final long initialRequest;
+        private final List<Message> received = Collections.synchronizedList(new ArrayList<Message>());
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile ResourcePublisher.Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        RecordingSubscriber(final long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(final ResourcePublisher.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(final Message item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return terminated.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeTwilioServer.Builder().records(120).build();
+        httpClient = new NetworkHttpClient();
+        client = new TwilioRestClient.Builder(server.getAccountSid(), "AUTH TOKEN")
+            .httpClient(httpClient)
+            .interceptor(server.interceptor())
+            .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    private static void awaitRequests(final FakeTwilioServer server, final long requests)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getRequests() < requests && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testPublishesAllPages() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        Message.reader(client.getAccountSid()).pageSize(50).publisher(client, 1).subscribe(subscriber);
+
+        assertTrue(subscriber.await());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+        assertEquals(120, subscriber.received.size());
+        HashSet<String> sids = new HashSet<>();
+        for (Message message : subscriber.received) {
+            sids.add(message.getSid());
+        }
+        assertEquals(120, sids.size());
+        assertEquals(3, server.getRequests());
+    }
+
+    @Test
+    public void testFetchesAccordingToDemand() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber(10);
+
+        Message.reader(client.getAccountSid()).pageSize(50).publisher(client, 1).subscribe(subscriber);
+        awaitRequests(server, 2);
+        Thread.sleep(50);
+
+        // The first page, and one page prefetched ahead of the subscriber
+        assertEquals(10, subscriber.received.size());
+        assertEquals(2, server.getRequests());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.await());
+        assertEquals(120, subscriber.received.size());
+    }
+
+    @Test
+    public void testCancelStopsFetching() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber(20);
+
+        Message.reader(client.getAccountSid()).pageSize(10).publisher(client, 0).subscribe(subscriber);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscriber.received.size() < 20 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(100);
+        Thread.sleep(50);
+
+        assertEquals(20, subscriber.received.size());
+        assertEquals(2, server.getRequests());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testHonorsLimit() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        Message.reader(client.getAccountSid()).pageSize(50).limit(70).publisher(client, 4).subscribe(subscriber);
+
+        assertTrue(subscriber.await());
+        assertTrue(subscriber.completed);
+        assertEquals(70, subscriber.received.size());
+        assertEquals(2, server.getRequests());
+    }
+
+    @Test
+    public void testInvalidRequestFails() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+
+        Message.reader(client.getAccountSid()).publisher(client, 1).subscribe(subscriber);
+
+        assertTrue(subscriber.await());
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(0, server.getRequests());
+    }
+
+    @Test
+    public void testAdaptsToFlow() throws Exception {
+        final Class<?> subscriberType;
+        final Class<?> subscriptionType;
+        try {
+            subscriberType = Class.forName("java.util.concurrent.Flow$Subscriber");
+            subscriptionType = Class.forName("java.util.concurrent.Flow$Subscription");
+        } catch (final ClassNotFoundException e) {
+            Assume.assumeNoException("Flow requires Java 9", e);
+            return;
+        }
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        Object subscriber = Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] {subscriberType},
+            new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) throws Exception {
+                    switch (method.getName()) {
+                        case "onSubscribe":
+                            subscriptionType.getMethod("request", long.class).invoke(args[0], Long.MAX_VALUE);
+                            break;
+                        case "onNext":
+                            received.add(args[0]);
+                            break;
+                        case "onComplete":
+                            completed.countDown();
+                            break;
+                        default:
+                            break;
+                    }
+                    return null;
+                }
+            }
+        );
+
+        Object publisher = ResourceFlows.publisher(
+            Message.reader(client.getAccountSid()).pageSize(50).publisher(client, 1)
+        );
+        publisher.getClass().getMethod("subscribe", subscriberType).invoke(publisher, subscriber);
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(120, received.size());
+        assertTrue(received.get(0) instanceof Message);
+    }
+}
@@ -0,0 +1,233 @@
+package com.twilio.base;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.fake.FakeTwilioServer;
+import com.twilio.http.Interceptor;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.Response;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResourceSetTest {
+
+    private FakeTwilioServer server;
+    private NetworkHttpClient httpClient;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeTwilioServer.Builder().records(120).build();
+        httpClient = new NetworkHttpClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    private TwilioRestClient client(final Interceptor... interceptors) {
+        TwilioRestClient.Builder builder = new TwilioRestClient.Builder(server.getAccountSid(), "AUTH TOKEN")
+            .httpClient(httpClient);
+        for (Interceptor interceptor : interceptors) {
+            builder.interceptor(interceptor);
+        }
+        return builder.interceptor(server.interceptor()).build();
+    }
+
+    /**
+     * Interceptor failing requests for one page of a v2010 list.
+     */
+    private static Interceptor failPage(final int pageNumber) {
+        return new Interceptor() {
+            @Override
+            public Response intercept(final Chain chain) {
+                if (chain.request().getUrl().endsWith("&Page=" + pageNumber)) {
+                    throw new ApiConnectionException("Connection reset");
+                }
+                return chain.proceed(chain.request());
+            }
+
+            @Override
+            public ListenableFuture<Response> interceptAsync(final Chain chain) {
+                return chain.proceedAsync(chain.request());
+            }
+        };
+    }
+
+    private static List<String> sids(final Iterable<Message> messages) {
+        List<String> sids = new ArrayList<>();
+        for (Message message : messages) {
+            sids.add(message.getSid());
+        }
+        return sids;
+    }
+
+    @Test
+    public void testPrefetchReturnsSameRecordsInOrder() {
+        TwilioRestClient client = client();
+        List<String> expected = sids(Message.reader(client.getAccountSid()).pageSize(10).read(client));
+
+        ResourceSet<Message> prefetching = Message.reader(client.getAccountSid()).pageSize(10).read(client)
+            .setPrefetchPages(3);
+
+        assertEquals(expected, sids(prefetching));
+        assertEquals(120, expected.size());
+        assertEquals(24, server.getRequests());
+    }
+
+    @Test
+    public void testPrefetchStopsAtLimit() throws InterruptedException {
+        TwilioRestClient client = client();
+
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).limit(25).read(client)
+            .setPrefetchPages(5);
+
+        assertEquals(25, sids(messages).size());
+        Thread.sleep(50);
+        assertEquals(3, server.getRequests());
+    }
+
+    @Test
+    public void testFailedPrefetchThrowsAfterPrecedingRecords() {
+        TwilioRestClient client = client(failPage(3));
+
+        Iterator<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).read(client)
+            .setPrefetchPages(2)
+            .iterator();
+
+        int received = 0;
+        try {
+            while (messages.hasNext()) {
+                messages.next();
+                received++;
+            }
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            // Pages 0 to 2 were returned in full
+            assertEquals(30, received);
+        }
+        assertFalse(messages.hasNext());
+    }
+
+    @Test
+    public void testCancelPrefetchEndsWithCurrentPage() throws IOException, InterruptedException {
+        server.close();
+        server = new FakeTwilioServer.Builder().records(120).latency(200, TimeUnit.MILLISECONDS).build();
+        TwilioRestClient client = client();
+
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).read(client)
+            .setPrefetchPages(2);
+        Iterator<Message> iterator = messages.iterator();
+        iterator.next();
+        messages.cancelPrefetch();
+
+        int received = 1;
+        while (iterator.hasNext()) {
+            iterator.next();
+            received++;
+        }
+
+        assertEquals(10, received);
+    }
+
+    private static final Function<Message, String> SID = new Function<Message, String>() {
+        @Override
+        public String apply(final Message message) {
+            return message.getSid();
+        }
+    };
+
+    @Test
+    public void testStreamReturnsSameRecordsInOrder() {
+        TwilioRestClient client = client();
+        List<String> expected = sids(Message.reader(client.getAccountSid()).pageSize(10).read(client));
+
+        List<String> streamed = ResourceStreams.stream(Message.reader(client.getAccountSid()).pageSize(10).read(client))
+            .map(SID)
+            .collect(Collectors.<String>toList());
+
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    public void testParallelStreamKeepsEncounterOrder() {
+        TwilioRestClient client = client();
+        List<String> expected = sids(Message.reader(client.getAccountSid()).pageSize(10).read(client));
+
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).read(client)
+            .setPrefetchPages(2);
+
+        List<String> streamed = ResourceStreams.parallelStream(messages)
+            .map(SID)
+            .collect(Collectors.<String>toList());
+
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    public void testParallelStreamStopsAtLimit() {
+        TwilioRestClient client = client();
+
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).limit(25).read(client);
+
+        assertEquals(25, ResourceStreams.stream(messages).spliterator().estimateSize());
+        assertEquals(25, ResourceStreams.parallelStream(messages).map(SID).collect(Collectors.<String>toSet()).size());
+        assertEquals(3, server.getRequests());
+    }
+
+    @Test
+    public void testEstimateFollowsPageSizeAndLimit() {
+        TwilioRestClient client = client();
+
+        ResourceSet<Message> limited = Message.reader(client.getAccountSid()).pageSize(10).limit(45).read(client);
+        Iterator<Message> iterator = limited.iterator();
+        for (int i = 0; i < 12; i++) {
+            iterator.next();
+        }
+        ResourceSet<Message> unlimited = Message.reader(client.getAccountSid()).pageSize(10).read(client);
+
+        // 8 left on the second page and 3 pages of 10, capped by the limit
+        assertEquals(33, ResourceStreams.stream(limited).spliterator().estimateSize());
+        assertEquals(Long.MAX_VALUE, ResourceStreams.stream(unlimited).spliterator().estimateSize());
+    }
+
+    @Test
+    public void testSplitNeverWaitsForPage() {
+        TwilioRestClient client = client();
+        ResourceSet<Message> messages = Message.reader(client.getAccountSid()).pageSize(10).read(client);
+        Spliterator<Message> spliterator = ResourceStreams.stream(messages).spliterator();
+        long before = server.getRequests();
+
+        Spliterator<Message> firstPage = spliterator.trySplit();
+
+        assertEquals(10, firstPage.estimateSize());
+        assertNull(spliterator.trySplit());
+        assertEquals(before, server.getRequests());
+        assertTrue(spliterator.tryAdvance(new Consumer<Message>() {
+            @Override
+            public void accept(final Message message) {
+            }
+        }));
+        assertEquals(before + 1, server.getRequests());
+    }
+}
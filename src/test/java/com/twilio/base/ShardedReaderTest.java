@@ -0,0 +1,234 @@
+package com.twilio.base;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Range;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.http.TwilioRestClient;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShardedReaderTest {
+
+    private static final DateTime START = new DateTime(2016, 1, 1, 0, 0, DateTimeZone.UTC);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN").build();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private static class Event extends Resource {
+        private static final long serialVersionUID = 1L;
+
+        private final String sid;
+        private final long time;
+
+        @JsonCreator
+        Event(@JsonProperty("sid") final String sid, @JsonProperty("time") final long time) {
+            this.sid = sid;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Reader over events in memory, listed from the latest to the earliest like the API, filtered by a range of
+     * seconds with both ends inclusive.
+     */
+    private class EventReader extends Reader<Event> {
+        private final List<Event> events = new ArrayList<>();
+        private final String failing;
+
+        EventReader(final List<Event> all, final Range<DateTime> range, final String failing) {
+            for (Event event : all) {
+                if (range.contains(new DateTime(event.time * 1000, DateTimeZone.UTC))) {
+                    events.add(event);
+                }
+            }
+            this.failing = failing;
+        }
+
+        @Override
+        public ResourceSet<Event> read(final TwilioRestClient client) {
+            return new ResourceSet<>(this, client, firstPage(client));
+        }
+
+        @Override
+        public Page<Event> firstPage(final TwilioRestClient client) {
+            return page(0);
+        }
+
+        @Override
+        public Page<Event> nextPage(final Page<Event> page, final TwilioRestClient client) {
+            String url = page.getNextPageUrl("api", null);
+            return page(Integer.parseInt(url.substring(url.indexOf("Page=") + 5)));
+        }
+
+        private Page<Event> page(final int number) {
+            requests.incrementAndGet();
+            int pageSize = getPageSize();
+            int start = number * pageSize;
+            int end = Math.min(start + pageSize, events.size());
+
+            StringBuilder json = new StringBuilder("{\"uri\": \"/Events\", \"page_size\": " + pageSize + ", ");
+            String next = end < events.size() ? "\"/Events?Page=" + (number + 1) + "\"" : "null";
+            json.append("\"next_page_uri\": ").append(next);
+            json.append(", \"events\": [");
+            for (int i = start; i < end; i++) {
+                Event event = events.get(i);
+                if (event.sid.equals(failing)) {
+                    throw new ApiConnectionException("Connection reset");
+                }
+                json.append(i == start ? "" : ", ")
+                    .append("{\"sid\": \"").append(event.sid).append("\", \"time\": ").append(event.time).append("}");
+            }
+            json.append("]}");
+            return Page.fromJson("events", json.toString(), Event.class, MAPPER);
+        }
+    }
+
+    /**
+     * Events over the given number of seconds, from START, listed from the latest to the earliest.
+     */
+    private static List<Event> events(final int seconds, final int perSecond) {
+        List<Event> events = new ArrayList<>();
+        long start = START.getMillis() / 1000;
+        for (int second = 0; second < seconds; second++) {
+            for (int i = 0; i < perSecond; i++) {
+                events.add(new Event(String.format("EV%06d%03d", second, i), start + second));
+            }
+        }
+        Collections.sort(events, new Comparator<Event>() {
+            @Override
+            public int compare(final Event a, final Event b) {
+                int byTime = Long.compare(b.time, a.time);
+                return byTime != 0 ? byTime : b.sid.compareTo(a.sid);
+            }
+        });
+        return events;
+    }
+
+    private ShardedReader.Builder<Event> builder(final List<Event> events, final int seconds, final String failing) {
+        Range<DateTime> range = Range.closed(START, START.plusSeconds(seconds - 1));
+        return new ShardedReader.Builder<>(range, new ShardedReader.ReaderFactory<Event>() {
+            @Override
+            public Reader<Event> create(final Range<DateTime> shard) {
+                return new EventReader(events, shard, failing).pageSize(10);
+            }
+        });
+    }
+
+    private static List<String> sids(final Iterable<Event> events) {
+        List<String> sids = new ArrayList<>();
+        for (Event event : events) {
+            sids.add(event.sid);
+        }
+        return sids;
+    }
+
+    @Test
+    public void testSplitCoversRangeWithoutOverlap() {
+        List<Range<DateTime>> shards = ShardedReader.split(
+            Range.closed(START, START.plusSeconds(9)), 3, TimeUnit.SECONDS.toMillis(1)
+        );
+
+        assertEquals(3, shards.size());
+        assertEquals(Range.closed(START.plusSeconds(8), START.plusSeconds(9)), shards.get(0));
+        assertEquals(Range.closed(START.plusSeconds(4), START.plusSeconds(7)), shards.get(1));
+        assertEquals(Range.closed(START, START.plusSeconds(3)), shards.get(2));
+    }
+
+    @Test
+    public void testSplitDoesNotCutUnits() {
+        List<Range<DateTime>> shards = ShardedReader.split(
+            Range.closed(START, START.plusDays(1)), 8, TimeUnit.DAYS.toMillis(1)
+        );
+
+        assertEquals(2, shards.size());
+        assertEquals(Range.closed(START.plusDays(1), START.plusDays(1)), shards.get(0));
+        assertEquals(Range.closed(START, START), shards.get(1));
+    }
+
+    @Test
+    public void testUnorderedReadsEveryRecordOnce() throws InterruptedException {
+        List<Event> events = events(100, 2);
+
+        ShardedReader.Records<Event> records = builder(events, 100, null).shards(4).build().read(client);
+        List<String> sids = sids(records);
+
+        assertEquals(200, sids.size());
+        assertEquals(200, new HashSet<>(sids).size());
+        assertTrue(records.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testOrderedMatchesSequentialOrder() {
+        List<Event> events = events(100, 2);
+
+        ShardedReader.Records<Event> records = builder(events, 100, null).shards(4).ordered(true).build().read(client);
+
+        assertEquals(sids(events), sids(records));
+        assertTrue(records.getSplits() > 0);
+    }
+
+    @Test
+    public void testDenseShardsAreSplit() {
+        List<Event> events = events(64, 5);
+
+        ShardedReader.Records<Event> split = builder(events, 64, null).shards(2).build().read(client);
+        assertEquals(320, sids(split).size());
+        assertEquals(8, split.getShards());
+        assertEquals(6, split.getSplits());
+
+        requests.set(0);
+        ShardedReader.Records<Event> fixed = builder(events, 64, null).shards(2).maxShards(2).build().read(client);
+        assertEquals(320, sids(fixed).size());
+        assertEquals(2, fixed.getShards());
+        assertEquals(0, fixed.getSplits());
+        assertEquals(32, requests.get());
+    }
+
+    @Test
+    public void testFailedShardThrows() {
+        List<Event> events = events(100, 2);
+
+        Iterator<Event> records = builder(events, 100, "EV000050001").shards(4).build().read(client).iterator();
+
+        try {
+            while (records.hasNext()) {
+                records.next();
+            }
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            assertFalse(records.hasNext());
+        }
+    }
+
+    @Test
+    public void testCancelEndsIteration() throws InterruptedException {
+        List<Event> events = events(100, 2);
+
+        ShardedReader.Records<Event> records = builder(events, 100, null).shards(2).bufferedRecords(5).build()
+            .read(client);
+        Iterator<Event> iterator = records.iterator();
+        iterator.next();
+        records.cancel();
+
+        assertFalse(iterator.hasNext());
+        assertTrue(records.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
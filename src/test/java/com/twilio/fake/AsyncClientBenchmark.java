@@ -0,0 +1,155 @@
+package com.twilio.fake;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.twilio.Twilio;
+import com.twilio.http.AsyncNetworkHttpClient;
+import com.twilio.http.BoundedExecutorService;
+import com.twilio.http.HttpClient;
+import com.twilio.http.HttpMethod;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+import com.twilio.http.TwilioRestClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link AsyncNetworkHttpClient} with {@link NetworkHttpClient} for many concurrent asynchronous requests
+ * against a {@link FakeTwilioServer}.
+ *
+ * <p>
+ *     For each concurrency, every client sends that many message fetches at once with
+ *     {@link TwilioRestClient#requestAsync(Request)}: {@link NetworkHttpClient} on an executor with a thread per
+ *     request, {@link AsyncNetworkHttpClient} from its I/O callbacks. Each client gets a connection per request.
+ *     The run reports the rate at which requests complete, the peak number of live threads other than the
+ *     server's, and the peak heap in use, which includes the server's. Arguments are a comma separated list of
+ *     concurrencies and the injected server latency in milliseconds, defaulting to 1000,10000 and 100.
+ * </p>
+ */
+public class AsyncClientBenchmark {
+
+    private static final String SERVER_THREADS = "fake-twilio-";
+
+    public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException {
+        String[] concurrencies = (args.length > 0 ? args[0] : "1000,10000").split(",");
+        int latencyMillis = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        try (FakeTwilioServer server = new FakeTwilioServer.Builder()
+                .latency(latencyMillis, TimeUnit.MILLISECONDS)
+                .build()) {
+            System.out.println(latencyMillis + "ms latency");
+            for (String value : concurrencies) {
+                int concurrency = Integer.parseInt(value.trim());
+                System.out.println(concurrency + " concurrent requests");
+
+                BoundedExecutorService executor = new BoundedExecutorService.Builder()
+                    .threads(concurrency)
+                    .queueCapacity(concurrency)
+                    .build();
+                Twilio.setExecutorService(executor);
+                try (NetworkHttpClient blocking = new NetworkHttpClient.Builder()
+                        .maxConnectionsPerRoute(concurrency)
+                        .maxConnectionsTotal(concurrency)
+                        .build()) {
+                    run("NetworkHttpClient", blocking, server, concurrency);
+                }
+                executor.shutdown();
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+
+                try (AsyncNetworkHttpClient async = new AsyncNetworkHttpClient(
+                        HttpAsyncClientBuilder.create().setMaxConnPerRoute(concurrency).setMaxConnTotal(concurrency))) {
+                    run("AsyncNetworkHttpClient", async, server, concurrency);
+                }
+            }
+        }
+    }
+
+    private static void run(final String name, final HttpClient httpClient, final FakeTwilioServer server,
+                            final int concurrency) throws InterruptedException, ExecutionException {
+        TwilioRestClient client = new TwilioRestClient.Builder(server.getAccountSid(), "AUTH TOKEN")
+            .httpClient(httpClient)
+            .interceptor(server.interceptor())
+            .build();
+
+        // Warm up the JIT and open the connections before measuring
+        fetch(client, concurrency);
+        System.gc();
+
+        Sampler sampler = new Sampler();
+        sampler.start();
+        long start = System.nanoTime();
+        fetch(client, concurrency);
+        long elapsed = System.nanoTime() - start;
+        sampler.interrupt();
+        sampler.join();
+
+        System.out.println(String.format(
+            "  %-24s %10.0f requests/s   %6d peak threads   %8.1f MiB peak heap",
+            name,
+            concurrency * (double) TimeUnit.SECONDS.toNanos(1) / elapsed,
+            sampler.peakThreads,
+            sampler.peakHeap / 1024.0 / 1024.0
+        ));
+    }
+
+    private static void fetch(final TwilioRestClient client, final int concurrency)
+        throws InterruptedException, ExecutionException {
+        String url = "https://api.twilio.com/2010-04-01/Accounts/" + client.getAccountSid()
+            + "/Messages/SM00000000000000000000000000000001.json";
+        List<ListenableFuture<Response>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(client.requestAsync(new Request(HttpMethod.GET, url)));
+        }
+        for (Response response : Futures.allAsList(futures).get()) {
+            response.close();
+        }
+    }
+
+    /**
+     * Samples the live threads outside the server and the heap in use until interrupted.
+     */
+    private static class Sampler extends Thread {
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private volatile int peakThreads;
+        private volatile long peakHeap;
+
+        Sampler() {
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                sample();
+                try {
+                    Thread.sleep(20);
+                } catch (final InterruptedException e) {
+                    break;
+                }
+            }
+            sample();
+        }
+
+        private void sample() {
+            int live = 0;
+            for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+                if (info != null && !info.getThreadName().startsWith(SERVER_THREADS)) {
+                    live++;
+                }
+            }
+            peakThreads = Math.max(peakThreads, live);
+            peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+        }
+    }
+}
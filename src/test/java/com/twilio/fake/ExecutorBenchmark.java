@@ -0,0 +1,96 @@
+package com.twilio.fake;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.twilio.Twilio;
+import com.twilio.http.BoundedExecutorService;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the async throughput of platform and virtual thread executors against a {@link FakeTwilioServer}.
+ *
+ * <p>
+ *     Each executor fetches a message asynchronously the given number of times, all submitted at once, and
+ *     reports the rate at which they complete and the peak number of live threads. Arguments are the number
+ *     of threads of the sized executors, the number of calls and the injected server latency in milliseconds,
+ *     defaulting to 1000, 10000 and 100. Virtual threads are only measured on Java 21 and later.
+ * </p>
+ */
+public class ExecutorBenchmark {
+
+    public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int latencyMillis = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        try (FakeTwilioServer server = new FakeTwilioServer.Builder()
+                .latency(latencyMillis, TimeUnit.MILLISECONDS)
+                .build();
+             NetworkHttpClient httpClient = new NetworkHttpClient.Builder()
+                .maxConnectionsPerRoute(threads)
+                .maxConnectionsTotal(threads)
+                .build()) {
+            TwilioRestClient client = new TwilioRestClient.Builder(server.getAccountSid(), "AUTH TOKEN")
+                .httpClient(httpClient)
+                .interceptor(server.interceptor())
+                .build();
+
+            System.out.println(calls + " calls, " + latencyMillis + "ms latency");
+            run("platform, default", new BoundedExecutorService.Builder().queueCapacity(calls), client, calls);
+            run("platform, " + threads + " threads",
+                new BoundedExecutorService.Builder().threads(threads).queueCapacity(calls), client, calls);
+            if (BoundedExecutorService.supportsVirtualThreads()) {
+                run("virtual, " + threads + " threads",
+                    new BoundedExecutorService.Builder().threads(threads).queueCapacity(calls).virtualThreads(),
+                    client, calls);
+            }
+        }
+    }
+
+    private static void run(final String name, final BoundedExecutorService.Builder builder,
+                            final TwilioRestClient client, final int calls)
+        throws InterruptedException, ExecutionException {
+        BoundedExecutorService executor = builder.build();
+        Twilio.setExecutorService(executor);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        // Warm up the JIT and the connection pool before measuring
+        fetch(client, Math.min(calls, 1000));
+        threads.resetPeakThreadCount();
+
+        long start = System.nanoTime();
+        fetch(client, calls);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(String.format(
+            "%-28s %10.0f calls/s   %6d peak threads   p99 queue wait %8.3f ms",
+            name,
+            calls * (double) TimeUnit.SECONDS.toNanos(1) / elapsed,
+            threads.getPeakThreadCount(),
+            executor.getWaitTime().getPercentileNanos(0.99) / 1e6
+        ));
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static void fetch(final TwilioRestClient client, final int calls)
+        throws InterruptedException, ExecutionException {
+        List<ListenableFuture<Message>> futures = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            futures.add(Message.fetcher(client.getAccountSid(), "SM00000000000000000000000000000001")
+                .fetchAsync(client));
+        }
+        Futures.allAsList(futures).get();
+    }
+}
@@ -0,0 +1,456 @@
+package com.twilio.fake;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.twilio.http.Interceptor;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process HTTP server that stands in for the Twilio API.
+ *
+ * <p>
+ *     Serves list and instance endpoints for Accounts, Messages, Calls and Recordings in {@code api/v2010}, and
+ *     for TaskRouter Workspaces and Chat Services, with payloads taken from the API documentation. Lists are
+ *     paged with {@code PageSize} and {@code Page}: v2010 lists carry {@code next_page_uri}, newer APIs the
+ *     {@code meta} object. Pages are rendered once and cached, so the server costs little next to the client.
+ * </p>
+ *
+ * <p>
+ *     Latency, 429 and 503 responses can be injected. Point a {@code TwilioRestClient} at the server by adding
+ *     {@link #interceptor()}, which sends requests for any {@code *.twilio.com} URL here instead.
+ * </p>
+ */
+public class FakeTwilioServer implements Closeable {
+
+    private static final String ACCOUNT_SID = "ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+    private static final String SID_PATTERN = "([A-Z]{2}[0-9a-f]{32})";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String baseUrl;
+    private final List<ResourceList> collections = new ArrayList<>();
+    private final Map<String, byte[]> pages = new ConcurrentHashMap<>();
+    private final int records;
+    private final long latencyMillis;
+    private final double throttleRate;
+    private final double errorRate;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * A resource collection and the template its records are rendered from.
+     */
+    private static class ResourceList {
+        private final Pattern list;
+        private final Pattern instance;
+        private final String key;
+        private final String sidPrefix;
+        private final String template;
+        private final String templateSid;
+        private final String nextGenUrl;
+        private final boolean creatable;
+
+        ResourceList(final String path, final String suffix, final String key, final String template,
+                     final String nextGenUrl, final boolean creatable) {
+            this.list = Pattern.compile(path + suffix);
+            this.instance = Pattern.compile(path + "/" + SID_PATTERN + suffix);
+            this.key = key;
+            this.template = template;
+            this.templateSid = sidOf(template);
+            this.sidPrefix = templateSid.substring(0, 2);
+            this.nextGenUrl = nextGenUrl;
+            this.creatable = creatable;
+        }
+
+        String render(final long index) {
+            return template.replace(templateSid, sid(sidPrefix, index));
+        }
+
+        private static String sidOf(final String template) {
+            Matcher matcher = Pattern.compile("\"sid\":\"" + SID_PATTERN + "\"").matcher(template);
+            if (!matcher.find()) {
+                throw new IllegalArgumentException("Template has no sid");
+            }
+            return matcher.group(1);
+        }
+    }
+
+    static {
+        // The JDK server flushes headers and body separately; without TCP_NODELAY every response waits out a
+        // delayed ACK. Only read when the first server is created, so this must run before any is.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private FakeTwilioServer(final Builder b) throws IOException {
+        this.records = b.records;
+        this.latencyMillis = b.latencyMillis;
+        this.throttleRate = b.throttleRate;
+        this.errorRate = b.errorRate;
+
+        String v2010 = "/2010-04-01/Accounts/AC[0-9a-f]{32}";
+        String suffix = "\\.json";
+        collections.add(new ResourceList("/2010-04-01/Accounts", suffix, "accounts", load("account"), null, false));
+        collections.add(new ResourceList(v2010 + "/Messages", suffix, "messages", load("message"), null, true));
+        collections.add(new ResourceList(v2010 + "/Calls", suffix, "calls", load("call"), null, true));
+        collections.add(new ResourceList(v2010 + "/Recordings", suffix, "recordings", load("recording"), null, false));
+        collections.add(new ResourceList("/v1/Workspaces", "", "workspaces", load("workspace"),
+            "https://taskrouter.twilio.com/v1/Workspaces", true));
+        collections.add(new ResourceList("/v1/Services", "", "services", load("service"),
+            "https://ip-messaging.twilio.com/v1/Services", true));
+
+        executor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("fake-twilio-%d").setDaemon(true).build()
+        );
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", b.port), b.backlog);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    serve(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static String load(final String name) throws IOException {
+        String json = Resources.toString(
+            Resources.getResource(FakeTwilioServer.class, name + ".json"), StandardCharsets.UTF_8
+        );
+        // Compact the fixture so payload sizes match what the API sends
+        return new ObjectMapper().readTree(json).toString();
+    }
+
+    private static String sid(final String prefix, final long index) {
+        String hex = Long.toHexString(index);
+        StringBuilder sid = new StringBuilder(34).append(prefix);
+        for (int i = hex.length(); i < 32; i++) {
+            sid.append('0');
+        }
+        return sid.append(hex).toString();
+    }
+
+    private void serve(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        drain(exchange.getRequestBody());
+
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (throttleRate > 0 && random.nextDouble() < throttleRate) {
+            throttled.incrementAndGet();
+            send(exchange, 429, error(20429, "Too Many Requests", 429));
+            return;
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            errors.incrementAndGet();
+            send(exchange, 503, error(20503, "Service Unavailable", 503));
+            return;
+        }
+
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        for (ResourceList collection : collections) {
+            if (collection.list.matcher(path).matches()) {
+                if ("GET".equals(method)) {
+                    send(exchange, 200, page(collection, path, exchange.getRequestURI().getRawQuery()));
+                    return;
+                }
+                if ("POST".equals(method) && collection.creatable) {
+                    long index = records + created.incrementAndGet();
+                    send(exchange, 201, collection.render(index).getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+            }
+
+            Matcher instance = collection.instance.matcher(path);
+            if (instance.matches() && ("GET".equals(method) || "POST".equals(method))) {
+                String sid = instance.group(1);
+                send(exchange, 200, collection.template.replace(collection.templateSid, sid)
+                    .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+
+        send(exchange, 404, error(20404, "The requested resource " + path + " was not found", 404));
+    }
+
+    private byte[] page(final ResourceList collection, final String path, final String query) {
+        int pageSize = DEFAULT_PAGE_SIZE;
+        int pageNumber = 0;
+        if (query != null) {
+            for (String param : query.split("&")) {
+                int eq = param.indexOf('=');
+                if (eq < 0) {
+                    continue;
+                }
+                String name = param.substring(0, eq);
+                if ("PageSize".equals(name)) {
+                    pageSize = Integer.parseInt(param.substring(eq + 1));
+                } else if ("Page".equals(name)) {
+                    pageNumber = Integer.parseInt(param.substring(eq + 1));
+                }
+            }
+        }
+
+        String cacheKey = path + "?" + pageSize + "&" + pageNumber;
+        byte[] page = pages.get(cacheKey);
+        if (page == null) {
+            page = renderPage(collection, path, pageSize, pageNumber).getBytes(StandardCharsets.UTF_8);
+            pages.put(cacheKey, page);
+        }
+        return page;
+    }
+
+    private String renderPage(final ResourceList collection, final String path, final int pageSize,
+                              final int pageNumber) {
+        long start = (long) pageNumber * pageSize;
+        long end = Math.min(start + pageSize, records);
+        boolean hasNext = end < records;
+
+        StringBuilder json = new StringBuilder();
+        json.append('[');
+        for (long i = start; i < end; i++) {
+            if (i > start) {
+                json.append(',');
+            }
+            json.append(collection.render(i));
+        }
+        json.append(']');
+        String items = json.toString();
+
+        if (collection.nextGenUrl == null) {
+            String uri = path + "?PageSize=" + pageSize + "&Page=";
+            return "{\"end\": " + Math.max(start, end - 1)
+                + ",\"first_page_uri\": \"" + uri + 0 + "\""
+                + ",\"next_page_uri\": " + (hasNext ? "\"" + uri + (pageNumber + 1) + "\"" : "null")
+                + ",\"page\": " + pageNumber
+                + ",\"page_size\": " + pageSize
+                + ",\"previous_page_uri\": " + (pageNumber > 0 ? "\"" + uri + (pageNumber - 1) + "\"" : "null")
+                + ",\"start\": " + start
+                + ",\"uri\": \"" + uri + pageNumber + "\""
+                + ",\"" + collection.key + "\": " + items + "}";
+        }
+
+        String url = collection.nextGenUrl + "?PageSize=" + pageSize + "&Page=";
+        return "{\"meta\": {\"first_page_url\": \"" + url + 0 + "\""
+            + ",\"key\": \"" + collection.key + "\""
+            + ",\"next_page_url\": " + (hasNext ? "\"" + url + (pageNumber + 1) + "\"" : "null")
+            + ",\"page\": " + pageNumber
+            + ",\"page_size\": " + pageSize
+            + ",\"previous_page_url\": " + (pageNumber > 0 ? "\"" + url + (pageNumber - 1) + "\"" : "null")
+            + ",\"url\": \"" + url + pageNumber + "\"}"
+            + ",\"" + collection.key + "\": " + items + "}";
+    }
+
+    private static byte[] error(final int code, final String message, final int status) {
+        return ("{\"code\": " + code + ",\"message\": \"" + message + "\",\"more_info\": "
+            + "\"https://www.twilio.com/docs/errors/" + code + "\",\"status\": " + status + "}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(final HttpExchange exchange, final int status, final byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    private static void drain(final InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        while (in.read(buffer) != -1) {
+            // Read the body so the connection can be reused
+        }
+    }
+
+    /**
+     * Get an interceptor that sends requests for {@code *.twilio.com} to this server, keeping the path, query,
+     * parameters, headers and credentials.
+     *
+     * @return redirecting interceptor
+     */
+    public Interceptor interceptor() {
+        return new Interceptor() {
+            @Override
+            public Response intercept(final Chain chain) {
+                return chain.proceed(redirect(chain.request()));
+            }
+
+            @Override
+            public ListenableFuture<Response> interceptAsync(final Chain chain) {
+                return chain.proceedAsync(redirect(chain.request()));
+            }
+        };
+    }
+
+    /**
+     * Copy a request for a {@code *.twilio.com} URL to one for this server.
+     *
+     * @param request request to redirect
+     * @return the redirected request, or the request itself if it is not for Twilio
+     */
+    public Request redirect(final Request request) {
+        String url = request.getUrl();
+        if (!url.startsWith("https://")) {
+            return request;
+        }
+        int hostEnd = url.indexOf('/', "https://".length());
+        if (hostEnd < 0) {
+            hostEnd = url.length();
+        }
+        if (!url.substring("https://".length(), hostEnd).endsWith(".twilio.com")) {
+            return request;
+        }
+
+        Request redirected = new Request(request.getMethod(), baseUrl + url.substring(hostEnd));
+        copy(request.getQueryParams(), redirected, false);
+        copy(request.getPostParams(), redirected, true);
+        for (Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                redirected.addHeader(header.getKey(), value);
+            }
+        }
+        redirected.setAuth(request.getUsername(), request.getPassword());
+        return redirected;
+    }
+
+    private static void copy(final Map<String, List<String>> params, final Request to, final boolean post) {
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            for (String value : param.getValue()) {
+                if (post) {
+                    to.addPostParam(param.getKey(), value);
+                } else {
+                    to.addQueryParam(param.getKey(), value);
+                }
+            }
+        }
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getAccountSid() {
+        return ACCOUNT_SID;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static class Builder {
+        private int port;
+        private int backlog = 1024;
+        private int records = 1000;
+        private long latencyMillis;
+        private double throttleRate;
+        private double errorRate;
+
+        public Builder port(final int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Set the number of records in every list. Defaults to 1000.
+         *
+         * @param records number of records
+         * @return this builder
+         */
+        public Builder records(final int records) {
+            this.records = records;
+            return this;
+        }
+
+        /**
+         * Delay every response, to stand in for network and API latency.
+         *
+         * @param latency delay before responding
+         * @param unit unit of latency
+         * @return this builder
+         */
+        public Builder latency(final long latency, final TimeUnit unit) {
+            this.latencyMillis = unit.toMillis(latency);
+            return this;
+        }
+
+        /**
+         * Answer the given fraction of requests with 429 Too Many Requests.
+         *
+         * @param throttleRate fraction between 0 and 1
+         * @return this builder
+         */
+        public Builder throttleRate(final double throttleRate) {
+            this.throttleRate = throttleRate;
+            return this;
+        }
+
+        /**
+         * Answer the given fraction of requests with 503 Service Unavailable.
+         *
+         * @param errorRate fraction between 0 and 1
+         * @return this builder
+         */
+        public Builder errorRate(final double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public FakeTwilioServer build() throws IOException {
+            return new FakeTwilioServer(this);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.twilio.fake;
+
+import com.twilio.exception.ApiException;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.RetryPolicy;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Call;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.chat.v1.Service;
+import com.twilio.rest.taskrouter.v1.Workspace;
+import com.twilio.type.PhoneNumber;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FakeTwilioServerTest {
+
+    private FakeTwilioServer server;
+    private NetworkHttpClient httpClient;
+
+    @After
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.close();
+    }
+
+    private TwilioRestClient client(final FakeTwilioServer server, final RetryPolicy retryPolicy) {
+        this.server = server;
+        this.httpClient = new NetworkHttpClient();
+        return new TwilioRestClient.Builder(server.getAccountSid(), "AUTH TOKEN")
+            .httpClient(httpClient)
+            .retryPolicy(retryPolicy)
+            .interceptor(server.interceptor())
+            .build();
+    }
+
+    private TwilioRestClient client(final FakeTwilioServer server) {
+        return client(server, null);
+    }
+
+    @Test
+    public void testReadsV2010PagesWithNextPageUri() throws IOException {
+        TwilioRestClient client = client(new FakeTwilioServer.Builder().records(120).build());
+
+        Set<String> sids = new HashSet<>();
+        for (Message message : Message.reader(client.getAccountSid()).pageSize(50).read(client)) {
+            sids.add(message.getSid());
+        }
+
+        assertEquals(120, sids.size());
+        assertEquals(3, server.getRequests());
+    }
+
+    @Test
+    public void testReadsNextGenPagesWithMeta() throws IOException {
+        TwilioRestClient client = client(new FakeTwilioServer.Builder().records(75).build());
+
+        int workspaces = 0;
+        for (Workspace workspace : Workspace.reader().pageSize(50).read(client)) {
+            workspaces++;
+        }
+        int services = 0;
+        for (Service service : Service.reader().pageSize(50).read(client)) {
+            services++;
+        }
+
+        assertEquals(75, workspaces);
+        assertEquals(75, services);
+        assertEquals(4, server.getRequests());
+    }
+
+    @Test
+    public void testFetchAndCreate() throws IOException {
+        TwilioRestClient client = client(new FakeTwilioServer.Builder().build());
+
+        Call call = Call.fetcher(client.getAccountSid(), "CA00000000000000000000000000000007").fetch(client);
+        Message message = Message.creator(
+            client.getAccountSid(),
+            new PhoneNumber("+14155552345"),
+            new PhoneNumber("+14155552346"),
+            "Hello"
+        ).create(client);
+
+        assertEquals("CA00000000000000000000000000000007", call.getSid());
+        assertTrue(message.getSid().startsWith("SM"));
+    }
+
+    @Test
+    public void testInjectedThrottling() throws IOException {
+        TwilioRestClient client = client(
+            new FakeTwilioServer.Builder().throttleRate(1.0).build(),
+            new RetryPolicy.Builder().maxAttempts(2).baseDelayMillis(1).build()
+        );
+
+        try {
+            Message.fetcher(client.getAccountSid(), "SM00000000000000000000000000000001").fetch(client);
+            fail("ApiException was expected");
+        } catch (final ApiException e) {
+            assertEquals(Integer.valueOf(429), e.getStatusCode());
+            assertEquals(2, server.getThrottled());
+        }
+    }
+
+    @Test
+    public void testHarness() throws Exception {
+        TwilioRestClient client = client(new FakeTwilioServer.Builder().records(200).build());
+
+        ThroughputHarness.Result result = new ThroughputHarness(client, 2)
+            .run("read", ThroughputHarness.Scenario.READ_ALL_MESSAGES, 200, TimeUnit.MILLISECONDS);
+
+        assertTrue(result.getOperations() > 0);
+        assertEquals(0, result.getErrors());
+        assertEquals(result.getOperations(), result.getLatency().getCount());
+    }
+}
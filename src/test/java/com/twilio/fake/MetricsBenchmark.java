@@ -0,0 +1,120 @@
+package com.twilio.fake;
+
+import com.twilio.http.DefaultRequestMetrics;
+import com.twilio.http.HttpClient;
+import com.twilio.http.HttpMethod;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+import com.twilio.http.TwilioRestClient;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures what {@link DefaultRequestMetrics} adds to a request.
+ *
+ * <p>
+ *     Every thread sends requests in a loop for the given time through a {@link TwilioRestClient} in front of a
+ *     client that answers at once, first without metrics and then with a {@link DefaultRequestMetrics} shared by
+ *     all threads. Half of the requests fetch a message and half create one, so two endpoints are recorded. The
+ *     difference between the two cases is the cost of recording, against a network round trip of tens of
+ *     milliseconds. With more threads than cores, the time per operation includes waiting for a core; run it on
+ *     at least as many cores as threads. Arguments are the number of threads and the seconds to measure each
+ *     case, defaulting to 8 and 3.
+ * </p>
+ */
+public class MetricsBenchmark {
+
+    private static final String MESSAGES =
+        "https://api.twilio.com/2010-04-01/Accounts/ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa/Messages";
+
+    public static void main(final String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        HttpClient httpClient = new HttpClient() {
+            private final Response response = new Response("", 200);
+
+            @Override
+            public Response makeRequest(final Request request) {
+                return response;
+            }
+        };
+
+        System.out.println(threads + " threads on " + Runtime.getRuntime().availableProcessors() + " cores");
+        run("no metrics", new TwilioRestClient.Builder("ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .build(), threads, seconds);
+
+        DefaultRequestMetrics metrics = new DefaultRequestMetrics();
+        run("DefaultRequestMetrics", new TwilioRestClient.Builder("ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .metrics(metrics)
+            .build(), threads, seconds);
+        System.out.println("  recorded " + metrics.getRequests() + " requests, "
+            + metrics.getEndpoints().size() + " endpoints");
+    }
+
+    private static void run(final String name, final TwilioRestClient client, final int threads, final int seconds)
+        throws InterruptedException {
+        // Warm up the JIT before measuring
+        measure(client, threads, Math.max(1, seconds / 2));
+        long[] result = measure(client, threads, seconds);
+
+        System.out.println(String.format(
+            "  %-22s %10.1f ns/request per thread   %12.0f requests/s",
+            name,
+            result[1] / (double) result[0],
+            result[0] * (double) TimeUnit.SECONDS.toNanos(1) * threads / result[1]
+        ));
+    }
+
+    /**
+     * @return requests made, and nanoseconds spent summed over the threads
+     */
+    private static long[] measure(final TwilioRestClient client, final int threads, final int seconds)
+        throws InterruptedException {
+        final AtomicLong operations = new AtomicLong();
+        final AtomicLong nanos = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long duration = TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int i = 0; i < threads; i++) {
+            final Request fetch = new Request(HttpMethod.GET, MESSAGES + "/SM" + String.format("%032d", i) + ".json");
+            final Request create = new Request(HttpMethod.POST, MESSAGES + ".json");
+            create.addPostParam("To", "+15558675310");
+            create.addPostParam("Body", "Hello");
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                    long count = 0;
+                    long begin = System.nanoTime();
+                    long now;
+                    do {
+                        // Check the clock every 1024 requests so it does not dominate
+                        for (int j = 0; j < 512; j++) {
+                            client.request(fetch);
+                            client.request(create);
+                        }
+                        count += 1024;
+                        now = System.nanoTime();
+                    } while (now - begin < duration);
+                    operations.addAndGet(count);
+                    nanos.addAndGet(now - begin);
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        start.countDown();
+        done.await();
+        return new long[] {operations.get(), nanos.get()};
+    }
+}
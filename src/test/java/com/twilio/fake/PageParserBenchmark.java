@@ -0,0 +1,130 @@
+package com.twilio.fake;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import com.twilio.base.Page;
+import com.twilio.rest.api.v2010.account.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and allocation of parsing pages of messages.
+ *
+ * <p>
+ *     Compares the tree parse that {@link Page#fromJson} used to do, which read the page into a tree and then
+ *     re-serialized and re-parsed every record, with the single-pass parse from a string and from a stream.
+ *     Pages hold 50, 500 and 1000 copies of the message fixture. Allocation is read from the JVM's per-thread
+ *     counter, so it is only reported on JVMs that have one. The argument is the number of seconds to measure
+ *     each case, defaulting to 3.
+ * </p>
+ */
+public class PageParserBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private interface Parser {
+        Page<Message> parse(final String json, final byte[] bytes) throws IOException;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        String message = MAPPER.readTree(Resources.toString(
+            Resources.getResource(PageParserBenchmark.class, "message.json"), StandardCharsets.UTF_8
+        )).toString();
+
+        Parser tree = new Parser() {
+            @Override
+            public Page<Message> parse(final String json, final byte[] bytes) throws IOException {
+                JsonNode root = MAPPER.readTree(json);
+                List<Message> results = new ArrayList<>();
+                for (JsonNode record : root.get("messages")) {
+                    results.add(MAPPER.readValue(record.toString(), Message.class));
+                }
+                // The paging fields are read from the tree; the page itself is built from the records
+                root.get("next_page_uri");
+                root.get("page_size");
+                return null;
+            }
+        };
+        Parser string = new Parser() {
+            @Override
+            public Page<Message> parse(final String json, final byte[] bytes) {
+                return Page.fromJson("messages", json, Message.class, MAPPER);
+            }
+        };
+        Parser stream = new Parser() {
+            @Override
+            public Page<Message> parse(final String json, final byte[] bytes) {
+                return Page.fromJson("messages", new ByteArrayInputStream(bytes), Message.class, MAPPER);
+            }
+        };
+
+        for (int records : new int[] {50, 500, 1000}) {
+            String json = page(message, records);
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            System.out.println(records + " records, " + bytes.length / 1024 + " KiB");
+            run("tree", tree, json, bytes, seconds);
+            run("single pass, string", string, json, bytes, seconds);
+            run("single pass, stream", stream, json, bytes, seconds);
+        }
+    }
+
+    private static String page(final String message, final int records) {
+        StringBuilder json = new StringBuilder("{\"first_page_uri\": \"/Messages.json?Page=0\"")
+            .append(",\"next_page_uri\": \"/Messages.json?Page=1\",\"page\": 0,\"page_size\": ").append(records)
+            .append(",\"uri\": \"/Messages.json?Page=0\",\"messages\": [");
+        for (int i = 0; i < records; i++) {
+            json.append(i == 0 ? "" : ",").append(message);
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void run(final String name, final Parser parser, final String json, final byte[] bytes,
+                            final int seconds) throws IOException {
+        // Warm up the JIT before measuring
+        measure(parser, json, bytes, Math.max(1, seconds / 2));
+        long[] result = measure(parser, json, bytes, seconds);
+
+        System.out.println(String.format(
+            "  %-22s %10.1f pages/s   %s",
+            name,
+            result[0] * (double) TimeUnit.SECONDS.toNanos(1) / result[1],
+            result[2] < 0 ? "allocation unknown" : String.format("%10.1f KiB/page", result[2] / 1024.0 / result[0])
+        ));
+    }
+
+    /**
+     * @return pages parsed, nanoseconds elapsed, and bytes allocated or -1 if unknown
+     */
+    private static long[] measure(final Parser parser, final String json, final byte[] bytes, final int seconds)
+        throws IOException {
+        long allocatedBefore = allocated();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        long pages = 0;
+        long now;
+        do {
+            parser.parse(json, bytes);
+            pages++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        long allocatedAfter = allocated();
+
+        return new long[] {pages, now - start, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore};
+    }
+
+    private static long allocated() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
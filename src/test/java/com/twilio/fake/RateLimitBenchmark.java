@@ -0,0 +1,139 @@
+package com.twilio.fake;
+
+import com.twilio.http.HttpClient;
+import com.twilio.http.HttpMethod;
+import com.twilio.http.RateLimit;
+import com.twilio.http.RateLimitingHttpClient;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+import com.twilio.http.TokenBucket;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the cost of taking rate limit permits under contention.
+ *
+ * <p>
+ *     Every thread takes permits in a loop for the given time: from one bucket shared by all threads, from a
+ *     bucket of its own, and through a {@link RateLimitingHttpClient} with an account and a per-sender limit
+ *     in front of a client that answers at once. The rates are high enough that no permit is ever waited
+ *     for, so the figures are the overhead of acquisition alone. With more threads than cores, the time per
+ *     operation includes waiting for a core; run it on at least as many cores as threads. Arguments are the
+ *     number of threads and the seconds to measure each case, defaulting to 32 and 3.
+ * </p>
+ */
+public class RateLimitBenchmark {
+
+    private static final String MESSAGES =
+        "https://api.twilio.com/2010-04-01/Accounts/ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa/Messages.json";
+
+    private interface Acquirer {
+        void acquire(final int thread);
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        final TokenBucket shared = new TokenBucket(1e12, Integer.MAX_VALUE / 2);
+        final TokenBucket[] own = new TokenBucket[threads];
+        final Request[] requests = new Request[threads];
+        for (int i = 0; i < threads; i++) {
+            own[i] = new TokenBucket(1e12, Integer.MAX_VALUE / 2);
+            requests[i] = new Request(HttpMethod.POST, MESSAGES);
+            requests[i].addPostParam("From", "+1501712" + String.format("%04d", i));
+        }
+        final HttpClient client = new RateLimitingHttpClient.Builder(new HttpClient() {
+            private final Response response = new Response("", 201);
+
+            @Override
+            public Response makeRequest(final Request request) {
+                return response;
+            }
+        })
+            .limit(new RateLimit(RateLimit.ACCOUNT, 1e12, Integer.MAX_VALUE / 2))
+            .limit(new RateLimit(RateLimit.postParam("From"), 1e12, Integer.MAX_VALUE / 2))
+            .failFast()
+            .build();
+
+        System.out.println(threads + " threads on " + Runtime.getRuntime().availableProcessors() + " cores");
+        run("shared bucket", new Acquirer() {
+            @Override
+            public void acquire(final int thread) {
+                shared.tryAcquire();
+            }
+        }, threads, seconds);
+        run("bucket per thread", new Acquirer() {
+            @Override
+            public void acquire(final int thread) {
+                own[thread].tryAcquire();
+            }
+        }, threads, seconds);
+        run("rate limiting client", new Acquirer() {
+            @Override
+            public void acquire(final int thread) {
+                client.makeRequest(requests[thread]);
+            }
+        }, threads, seconds);
+    }
+
+    private static void run(final String name, final Acquirer acquirer, final int threads, final int seconds)
+        throws InterruptedException {
+        // Warm up the JIT before measuring
+        measure(acquirer, threads, Math.max(1, seconds / 2));
+        long[] result = measure(acquirer, threads, seconds);
+
+        System.out.println(String.format(
+            "  %-22s %10.1f ns/op per thread   %12.0f ops/s",
+            name,
+            result[1] / (double) result[0],
+            result[0] * (double) TimeUnit.SECONDS.toNanos(1) * threads / result[1]
+        ));
+    }
+
+    /**
+     * @return acquisitions made, and nanoseconds spent summed over the threads
+     */
+    private static long[] measure(final Acquirer acquirer, final int threads, final int seconds)
+        throws InterruptedException {
+        final AtomicLong operations = new AtomicLong();
+        final AtomicLong nanos = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long duration = TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int i = 0; i < threads; i++) {
+            final int thread = i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                    long count = 0;
+                    long begin = System.nanoTime();
+                    long now;
+                    do {
+                        // Check the clock every 1024 operations so it does not dominate
+                        for (int j = 0; j < 1024; j++) {
+                            acquirer.acquire(thread);
+                        }
+                        count += 1024;
+                        now = System.nanoTime();
+                    } while (now - begin < duration);
+                    operations.addAndGet(count);
+                    nanos.addAndGet(now - begin);
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        start.countDown();
+        done.await();
+        return new long[] {operations.get(), nanos.get()};
+    }
+}
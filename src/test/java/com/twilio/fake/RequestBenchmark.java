@@ -0,0 +1,152 @@
+package com.twilio.fake;
+
+import com.google.common.base.Joiner;
+import com.twilio.http.HttpClient;
+import com.twilio.http.HttpMethod;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+import com.twilio.http.TwilioRestClient;
+import org.apache.commons.codec.binary.Base64;
+
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and allocation of building and serializing message creation requests.
+ *
+ * <p>
+ *     Every request is built the way {@code MessageCreator} builds one, with To, From, Body and StatusCallback,
+ *     and sent through a {@link TwilioRestClient} to a client that serializes it and answers at once. Compares
+ *     the serialization {@link Request} used to do, which encoded the credentials, re-parsed the URL through
+ *     {@link URI} and {@link java.net.URL} and joined a list of encoded parameters for every request, with the
+ *     current one, which reuses the client's auth header and encodes the form straight to bytes. Allocation is
+ *     read from the JVM's per-thread counter, so it is only reported on JVMs that have one. The argument is
+ *     the number of seconds to measure each case, defaulting to 3.
+ * </p>
+ */
+public class RequestBenchmark {
+
+    private static final String ACCOUNT_SID = "ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+    private static final String MESSAGES = "/2010-04-01/Accounts/" + ACCOUNT_SID + "/Messages.json";
+
+    private static int sink;
+
+    /**
+     * Serializes a request the way a transport does, returning something derived from the result so that the
+     * work is kept.
+     */
+    private interface Serializer {
+        int serialize(final Request request);
+    }
+
+    public static void main(final String[] args) {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+
+        Serializer legacy = new Serializer() {
+            @Override
+            public int serialize(final Request request) {
+                String auth = "Basic " + new Base64().encodeAsString(
+                    (request.getUsername() + ":" + request.getPassword()).getBytes(StandardCharsets.US_ASCII)
+                );
+                URI uri;
+                try {
+                    uri = new URI(request.getUrl()).toURL().toURI();
+                } catch (final URISyntaxException | MalformedURLException e) {
+                    throw new IllegalStateException(e);
+                }
+                byte[] body = encodeParameters(request.getPostParams()).getBytes(StandardCharsets.UTF_8);
+                return auth.length() + uri.hashCode() + body.length;
+            }
+        };
+        Serializer current = new Serializer() {
+            @Override
+            public int serialize(final Request request) {
+                return request.getAuthString().length() + request.constructURI().hashCode()
+                    + request.encodeFormBodyBytes().length;
+            }
+        };
+
+        run("per request", legacy, seconds);
+        run("precomputed", current, seconds);
+    }
+
+    private static String encodeParameters(final Map<String, List<String>> params) {
+        List<String> parameters = new ArrayList<>();
+        try {
+            for (Map.Entry<String, List<String>> entry : params.entrySet()) {
+                String encodedName = URLEncoder.encode(entry.getKey(), "UTF-8");
+                for (String value : entry.getValue()) {
+                    parameters.add(encodedName + "=" + URLEncoder.encode(value, "UTF-8"));
+                }
+            }
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return Joiner.on("&").join(parameters);
+    }
+
+    private static void run(final String name, final Serializer serializer, final int seconds) {
+        final Response response = new Response("", 201);
+        TwilioRestClient client = new TwilioRestClient.Builder(ACCOUNT_SID, "AUTH TOKEN")
+            .httpClient(new HttpClient() {
+                @Override
+                public Response makeRequest(final Request request) {
+                    sink += serializer.serialize(request);
+                    return response;
+                }
+            })
+            .build();
+
+        // Warm up the JIT before measuring
+        measure(client, Math.max(1, seconds / 2));
+        long[] result = measure(client, seconds);
+
+        System.out.println(String.format(
+            "  %-12s %12.1f requests/s   %s",
+            name,
+            result[0] * (double) TimeUnit.SECONDS.toNanos(1) / result[1],
+            result[2] < 0 ? "allocation unknown" : String.format("%8.0f bytes/request", result[2] / (double) result[0])
+        ));
+    }
+
+    /**
+     * @return requests made, nanoseconds elapsed, and bytes allocated or -1 if unknown
+     */
+    private static long[] measure(final TwilioRestClient client, final int seconds) {
+        long allocatedBefore = allocated();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        long requests = 0;
+        long now;
+        do {
+            Request request = new Request(HttpMethod.POST, "api", MESSAGES);
+            request.addPostParam("To", "+15558675310");
+            request.addPostParam("From", "+15017122661");
+            request.addPostParam("Body", "Hi there! Your order #" + requests + " has shipped.");
+            request.addPostParam("StatusCallback", "https://example.com/status?order=" + requests);
+            client.request(request);
+            requests++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        long allocatedAfter = allocated();
+
+        return new long[] {requests, now - start, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore};
+    }
+
+    private static long allocated() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
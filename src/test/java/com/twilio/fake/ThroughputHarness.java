@@ -0,0 +1,222 @@
+package com.twilio.fake;
+
+import com.twilio.http.LatencyHistogram;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.taskrouter.v1.Workspace;
+import com.twilio.type.PhoneNumber;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a {@link TwilioRestClient} from several threads and reports throughput and latency.
+ *
+ * <p>
+ *     {@link #main(String[])} starts a {@link FakeTwilioServer} and runs fetch, create and paged read scenarios
+ *     end to end through a {@link NetworkHttpClient}: request building, pooling, the HTTP exchange, buffering
+ *     and deserialization. Arguments are the number of threads, the seconds per scenario and the injected
+ *     server latency in milliseconds, defaulting to 16, 10 and 0.
+ * </p>
+ */
+public class ThroughputHarness {
+
+    /**
+     * An operation to measure, run repeatedly on every thread.
+     */
+    public interface Operation {
+        void run(final TwilioRestClient client);
+    }
+
+    /**
+     * Outcome of a run.
+     */
+    public static class Result {
+        private final String name;
+        private final long operations;
+        private final long errors;
+        private final long elapsedNanos;
+        private final LatencyHistogram.Snapshot latency;
+
+        Result(final String name, final long operations, final long errors, final long elapsedNanos,
+               final LatencyHistogram.Snapshot latency) {
+            this.name = name;
+            this.operations = operations;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getThroughput() {
+            return operations * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%-24s %10.0f ops/s %8d errors   p50 %8.3f ms   p99 %8.3f ms   max %8.3f ms",
+                name,
+                getThroughput(),
+                errors,
+                latency.getPercentileNanos(0.5) / 1e6,
+                latency.getPercentileNanos(0.99) / 1e6,
+                latency.getMaxNanos() / 1e6
+            );
+        }
+    }
+
+    private final TwilioRestClient client;
+    private final int threads;
+
+    public ThroughputHarness(final TwilioRestClient client, final int threads) {
+        this.client = client;
+        this.threads = threads;
+    }
+
+    /**
+     * Run an operation on every thread for the given time.
+     *
+     * @param name name of the run, for reporting
+     * @param operation operation to run
+     * @param duration how long to run for
+     * @param unit unit of duration
+     * @return throughput, errors and latency of the run
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public Result run(final String name, final Operation operation, final long duration, final TimeUnit unit)
+        throws InterruptedException {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong operations = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final long deadline = System.nanoTime() + unit.toNanos(duration);
+
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        try {
+                            operation.run(client);
+                            latency.record(System.nanoTime() - begin);
+                            operations.incrementAndGet();
+                        } catch (final RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }, "harness-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new Result(name, operations.get(), errors.get(), System.nanoTime() - begin, latency.snapshot());
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int latencyMillis = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        try (FakeTwilioServer server = new FakeTwilioServer.Builder()
+                .latency(latencyMillis, TimeUnit.MILLISECONDS)
+                .build();
+             NetworkHttpClient httpClient = new NetworkHttpClient.Builder()
+                .maxConnectionsPerRoute(threads)
+                .maxConnectionsTotal(threads)
+                .build()) {
+            TwilioRestClient client = new TwilioRestClient.Builder(server.getAccountSid(), "AUTH TOKEN")
+                .httpClient(httpClient)
+                .interceptor(server.interceptor())
+                .build();
+            ThroughputHarness harness = new ThroughputHarness(client, threads);
+
+            List<Result> results = new ArrayList<>();
+            for (Scenario scenario : Scenario.values()) {
+                // Warm up the JIT and the connection pool before measuring
+                harness.run(scenario.name(), scenario, Math.max(1, seconds / 5), TimeUnit.SECONDS);
+                results.add(harness.run(scenario.name(), scenario, seconds, TimeUnit.SECONDS));
+            }
+
+            System.out.println(threads + " threads, " + seconds + "s per scenario, " + latencyMillis + "ms latency");
+            for (Result result : results) {
+                System.out.println(result);
+            }
+        }
+    }
+
+    /**
+     * Scenarios run by {@link #main(String[])}.
+     */
+    enum Scenario implements Operation {
+        FETCH_MESSAGE {
+            @Override
+            public void run(final TwilioRestClient client) {
+                Message.fetcher(client.getAccountSid(), "SM00000000000000000000000000000001").fetch(client);
+            }
+        },
+        CREATE_MESSAGE {
+            @Override
+            public void run(final TwilioRestClient client) {
+                Message.creator(
+                    client.getAccountSid(),
+                    new PhoneNumber("+14155552345"),
+                    new PhoneNumber("+14155552346"),
+                    "Your login code is 123456"
+                ).create(client);
+            }
+        },
+        READ_MESSAGES_PAGE {
+            @Override
+            public void run(final TwilioRestClient client) {
+                Message.reader(client.getAccountSid()).pageSize(50).firstPage(client);
+            }
+        },
+        READ_ALL_MESSAGES {
+            @Override
+            public void run(final TwilioRestClient client) {
+                for (Message message : Message.reader(client.getAccountSid()).pageSize(100).read(client)) {
+                    message.getSid();
+                }
+            }
+        },
+        READ_ALL_WORKSPACES {
+            @Override
+            public void run(final TwilioRestClient client) {
+                for (Workspace workspace : Workspace.reader().pageSize(100).read(client)) {
+                    workspace.getSid();
+                }
+            }
+        }
+    }
+}
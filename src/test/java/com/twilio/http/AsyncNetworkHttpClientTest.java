@@ -0,0 +1,95 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.twilio.exception.ApiConnectionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.Assert.assertEquals;
+
+public class AsyncNetworkHttpClientTest {
+
+    private HttpServer server;
+    private AsyncNetworkHttpClient client;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                InputStream body = exchange.getRequestBody();
+                Scanner scanner = new Scanner(body, "UTF-8").useDelimiter("\\A");
+                String content = exchange.getRequestMethod() + (scanner.hasNext() ? " " + scanner.next() : "");
+                byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(bytes);
+                out.close();
+            }
+        });
+        server.start();
+
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        client = new AsyncNetworkHttpClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testGet() {
+        Response response = client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/echo"));
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("GET", response.getContent());
+    }
+
+    @Test
+    public void testPost() {
+        Request request = new Request(HttpMethod.POST, baseUrl + "/echo");
+        request.addPostParam("Body", "hello");
+
+        Response response = client.makeRequest(request);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("POST Body=hello", response.getContent());
+    }
+
+    @Test
+    public void testConcurrentRequestsAsync() throws Exception {
+        List<ListenableFuture<Response>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(client.makeRequestAsync(new Request(HttpMethod.GET, baseUrl + "/echo")));
+        }
+
+        for (ListenableFuture<Response> future : futures) {
+            Response response = future.get();
+            assertEquals(200, response.getStatusCode());
+            assertEquals("GET", response.getContent());
+        }
+    }
+
+    @Test(expected = ApiConnectionException.class)
+    public void testConnectionFailure() throws IOException {
+        server.stop(0);
+        client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/echo"));
+    }
+}
@@ -0,0 +1,243 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.twilio.rest.Domains;
+import com.twilio.rest.api.v2010.account.MessageCreator;
+import com.twilio.rest.chat.v1.ServiceReader;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BoundedExecutorServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedExecutorService executor;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private Callable<Thread> blocked() {
+        return new Callable<Thread>() {
+            @Override
+            public Thread call() throws InterruptedException {
+                release.await();
+                return Thread.currentThread();
+            }
+        };
+    }
+
+    private static Callable<Thread> currentThread() {
+        return new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        };
+    }
+
+    @Test
+    public void testCallerRunsWhenFull() throws Exception {
+        executor = new BoundedExecutorService.Builder().threads(1).queueCapacity(1).build();
+        executor.submit(blocked());
+        executor.submit(blocked());
+
+        ListenableFuture<Thread> overflow = executor.submit(currentThread());
+
+        assertSame(Thread.currentThread(), overflow.get());
+        assertEquals(1, executor.getQueueDepth());
+        assertEquals(1, executor.getCallerRuns());
+    }
+
+    @Test
+    public void testFailWhenFull() {
+        executor = new BoundedExecutorService.Builder()
+            .threads(1)
+            .queueCapacity(1)
+            .rejection(BoundedExecutorService.Rejection.FAIL)
+            .build();
+        executor.submit(blocked());
+        executor.submit(blocked());
+
+        try {
+            executor.submit(currentThread());
+            fail("RejectedExecutionException was expected");
+        } catch (final RejectedExecutionException e) {
+            assertEquals(1, executor.getRejected());
+        }
+    }
+
+    @Test
+    public void testBlockWhenFull() throws Exception {
+        executor = new BoundedExecutorService.Builder()
+            .threads(1)
+            .queueCapacity(1)
+            .rejection(BoundedExecutorService.Rejection.BLOCK)
+            .build();
+        executor.submit(blocked());
+        executor.submit(blocked());
+
+        final AtomicReference<ListenableFuture<Thread>> overflow = new AtomicReference<>();
+        Thread submitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                overflow.set(executor.submit(currentThread()));
+            }
+        });
+        submitter.start();
+        submitter.join(100);
+        assertTrue(submitter.isAlive());
+
+        release.countDown();
+        submitter.join(5000);
+        assertTrue(overflow.get().get(5, TimeUnit.SECONDS).getName().startsWith("twilio-async-"));
+        assertEquals(0, executor.getRejected());
+    }
+
+    @Test
+    public void testBlockedSubmitRejectedAfterShutdown() throws Exception {
+        executor = new BoundedExecutorService.Builder()
+            .threads(1)
+            .queueCapacity(1)
+            .rejection(BoundedExecutorService.Rejection.BLOCK)
+            .build();
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+        executor.submit(new Callable<Thread>() {
+            @Override
+            public Thread call() throws InterruptedException {
+                releaseFirst.await();
+                return Thread.currentThread();
+            }
+        });
+        executor.submit(blocked());
+
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Thread submitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    executor.submit(currentThread());
+                } catch (final RuntimeException e) {
+                    failure.set(e);
+                }
+            }
+        });
+        submitter.start();
+        submitter.join(100);
+        assertTrue(submitter.isAlive());
+
+        // Shut down while the submitter waits, then make room in the queue for it
+        executor.shutdown();
+        releaseFirst.countDown();
+        submitter.join(5000);
+
+        assertTrue(failure.get() instanceof RejectedExecutionException);
+        assertEquals(1, executor.getRejected());
+    }
+
+    @Test
+    public void testBulkheadLimitsDomain() throws Exception {
+        executor = new BoundedExecutorService.Builder()
+            .threads(4)
+            .bulkhead(Domains.API, 1)
+            .rejection(BoundedExecutorService.Rejection.FAIL)
+            .build();
+        ListenableFuture<Thread> first = executor.submit("api", blocked());
+        assertEquals(1, executor.getBulkheadInUse(Domains.API));
+
+        try {
+            executor.submit("api", currentThread());
+            fail("RejectedExecutionException was expected");
+        } catch (final RejectedExecutionException e) {
+            assertEquals(1, executor.getRejected());
+        }
+
+        ListenableFuture<Thread> other = executor.submit("taskrouter", currentThread());
+        assertTrue(other.get(5, TimeUnit.SECONDS).getName().startsWith("twilio-async-"));
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.getBulkheadInUse(Domains.API));
+        assertEquals(2, executor.getWaitTime().getCount());
+    }
+
+    @Test
+    public void testVirtualThreadsWhenSupported() throws Exception {
+        executor = new BoundedExecutorService.Builder().virtualThreads().build();
+
+        Thread thread = executor.submit(currentThread()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(BoundedExecutorService.supportsVirtualThreads(), executor.isVirtual());
+        String prefix = executor.isVirtual() ? "twilio-virtual-" : "twilio-async-";
+        assertTrue(thread.getName().startsWith(prefix));
+    }
+
+    @Test
+    public void testVirtualThreadsLimitedByBulkheadOnly() throws Exception {
+        Assume.assumeTrue(BoundedExecutorService.supportsVirtualThreads());
+        executor = new BoundedExecutorService.Builder()
+            .virtualThreads()
+            .threads(1)
+            .queueCapacity(1)
+            .rejection(BoundedExecutorService.Rejection.BLOCK)
+            .bulkhead(Domains.API, 2)
+            .build();
+
+        List<ListenableFuture<Thread>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(executor.submit("api", blocked()));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getQueueDepth() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertEquals(2, executor.getBulkheadInUse(Domains.API));
+        assertEquals(3, executor.getQueueDepth());
+        assertEquals(0, executor.getCallerRuns());
+
+        release.countDown();
+        for (ListenableFuture<Thread> future : futures) {
+            assertTrue(future.get(5, TimeUnit.SECONDS).getName().startsWith("twilio-virtual-"));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.getBulkheadInUse(Domains.API));
+    }
+
+    @Test
+    public void testDomainOf() {
+        executor = new BoundedExecutorService.Builder().build();
+
+        assertEquals("api", BoundedExecutorService.domainOf(MessageCreator.class));
+        assertEquals(Domains.CHAT.toString(), BoundedExecutorService.domainOf(ServiceReader.class));
+        assertNull(BoundedExecutorService.domainOf(String.class));
+        assertEquals("api", BoundedExecutorService.domainOf(
+            new Request(HttpMethod.GET, "https://api.us1.twilio.com/2010-04-01/Accounts.json")
+        ));
+        assertEquals("localhost", BoundedExecutorService.domainOf(
+            new Request(HttpMethod.GET, "http://localhost:8080/")
+        ));
+    }
+}
@@ -0,0 +1,153 @@
+package com.twilio.http;
+
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.CircuitBreakerOpenException;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static CircuitBreakerConfig.Builder config() {
+        return new CircuitBreakerConfig.Builder()
+            .windowSize(10)
+            .minimumCalls(4)
+            .failureRateThreshold(0.5)
+            .halfOpenProbes(2);
+    }
+
+    @Test
+    public void testOpensOnFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker("api.twilio.com", config().build());
+
+        breaker.onResponse(new Response("", 200), FAST);
+        breaker.onResponse(new Response("", 200), FAST);
+        breaker.onResponse(new Response("", 503), FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onError(FAST);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1, breaker.getOpenedTransitions());
+        assertEquals(1, breaker.getRejectedCalls());
+    }
+
+    @Test
+    public void testClientErrorsAreNotFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("api.twilio.com", config().build());
+        for (int i = 0; i < 10; i++) {
+            breaker.onResponse(new Response("", 404), FAST);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testOpensOnSlowCallRate() {
+        CircuitBreaker breaker = new CircuitBreaker(
+            "api.twilio.com",
+            config().slowCallDurationMillis(100).slowCallRateThreshold(0.75).build()
+        );
+
+        for (int i = 0; i < 4; i++) {
+            breaker.onResponse(new Response("", 200), TimeUnit.SECONDS.toNanos(1));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenProbesClose() {
+        CircuitBreaker breaker = new CircuitBreaker("api.twilio.com", config().openDurationMillis(0).build());
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(FAST);
+        }
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onResponse(new Response("", 200), FAST);
+        breaker.onResponse(new Response("", 200), FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, breaker.getClosedTransitions());
+    }
+
+    @Test
+    public void testHalfOpenProbeFailureReopens() {
+        CircuitBreaker breaker = new CircuitBreaker("api.twilio.com", config().openDurationMillis(0).build());
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(FAST);
+        }
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onResponse(new Response("", 500), FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenedTransitions());
+        assertEquals(1, breaker.getHalfOpenedTransitions());
+    }
+
+    @Test
+    public void testRegistryKeysByHost() {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+
+        CircuitBreaker api = registry.forUrl("https://api.twilio.com/2010-04-01/Accounts.json?PageSize=5");
+        assertSame(api, registry.forUrl("https://api.twilio.com/2010-04-01/Calls.json"));
+        assertEquals("taskrouter.us1.twilio.com",
+            registry.forUrl("https://taskrouter.us1.twilio.com/v1/Workspaces").getHost());
+        assertEquals(2, registry.getCircuitBreakers().size());
+    }
+
+    @Test
+    public void testRestClientFailsFastWhileOpen() {
+        final int[] attempts = new int[1];
+        HttpClient httpClient = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                attempts[0]++;
+                throw new ApiConnectionException("Read timed out");
+            }
+        };
+
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry(config().build());
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .retryPolicy(new RetryPolicy.Builder().maxAttempts(1).build())
+            .circuitBreakers(registry)
+            .build();
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                client.request(new Request(HttpMethod.GET, "https://taskrouter.twilio.com/v1/Workspaces"));
+                fail("ApiConnectionException was expected");
+            } catch (final ApiConnectionException e) {
+                // expected
+            }
+        }
+
+        try {
+            client.request(new Request(HttpMethod.GET, "https://taskrouter.twilio.com/v1/Workspaces"));
+            fail("CircuitBreakerOpenException was expected");
+        } catch (final CircuitBreakerOpenException e) {
+            assertEquals("taskrouter.twilio.com", e.getHost());
+        }
+        assertEquals(4, attempts[0]);
+
+        try {
+            client.request(new Request(HttpMethod.GET, "https://api.twilio.com/2010-04-01/Accounts.json"));
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            assertEquals(5, attempts[0]);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.twilio.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that the clients negotiate compressed responses and hand back the decoded body.
+ */
+public class ContentCompressionTest {
+
+    private static final String PAGE;
+
+    static {
+        StringBuilder page = new StringBuilder("{\"messages\": [");
+        for (int i = 0; i < 200; i++) {
+            page.append(i == 0 ? "" : ",")
+                .append("{\"sid\": \"SM").append(String.format("%032d", i))
+                .append("\", \"status\": \"delivered\", \"body\": \"Hello there\"}");
+        }
+        PAGE = page.append("]}").toString();
+    }
+
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    private final AtomicInteger bytesSent = new AtomicInteger();
+    private HttpServer server;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                acceptEncoding.set(accepted);
+
+                byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+                String encoding = exchange.getRequestURI().getPath().substring(1);
+                if (accepted != null && accepted.contains(encoding)) {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    OutputStream compressor = "gzip".equals(encoding)
+                        ? new GZIPOutputStream(buffer)
+                        : new DeflaterOutputStream(buffer);
+                    compressor.write(body);
+                    compressor.close();
+                    body = buffer.toByteArray();
+                    exchange.getResponseHeaders().set("Content-Encoding", encoding);
+                }
+
+                bytesSent.set(body.length);
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testNetworkHttpClientGzip() throws IOException {
+        try (NetworkHttpClient client = new NetworkHttpClient()) {
+            Response response = client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/gzip"));
+
+            assertEquals(PAGE, response.getContent());
+            assertTrue(acceptEncoding.get().contains("gzip"));
+            assertTrue(bytesSent.get() < PAGE.length() / 4);
+        }
+    }
+
+    @Test
+    public void testNetworkHttpClientDeflate() throws IOException {
+        try (NetworkHttpClient client = new NetworkHttpClient()) {
+            Response response = client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/deflate"));
+
+            assertEquals(PAGE, response.getContent());
+        }
+    }
+
+    @Test
+    public void testNetworkHttpClientCompressionDisabled() throws IOException {
+        try (NetworkHttpClient client = new NetworkHttpClient.Builder().contentCompression(false).build()) {
+            Response response = client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/gzip"));
+
+            assertEquals(PAGE, response.getContent());
+            assertNull(acceptEncoding.get());
+            assertEquals(PAGE.length(), bytesSent.get());
+        }
+    }
+
+    @Test
+    public void testAsyncNetworkHttpClientGzip() throws IOException {
+        try (AsyncNetworkHttpClient client = new AsyncNetworkHttpClient()) {
+            Response response = client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/gzip"));
+
+            assertEquals(PAGE, response.getContent());
+            assertTrue(acceptEncoding.get().contains("gzip"));
+        }
+    }
+
+    @Test
+    public void testAsyncNetworkHttpClientDeflate() throws IOException {
+        try (AsyncNetworkHttpClient client = new AsyncNetworkHttpClient()) {
+            Response response = client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/deflate"));
+
+            assertEquals(PAGE, response.getContent());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.twilio.http;
+
+import com.twilio.exception.ApiConnectionException;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DefaultRequestMetricsTest {
+
+    private static final String CALL =
+        "https://api.twilio.com/2010-04-01/Accounts/ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa/Calls/"
+            + "CAaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa.json";
+
+    private static TwilioRestClient client(final HttpClient httpClient, final RequestMetrics metrics) {
+        return new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .retryPolicy(new RetryPolicy.Builder().baseDelayMillis(0).budget(null).build())
+            .metrics(metrics)
+            .build();
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), snapshot.getMaxNanos());
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(500), snapshot.getPercentileNanos(0.5));
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(990), snapshot.getPercentileNanos(0.99));
+        assertEquals(0, new LatencyHistogram().snapshot().getPercentileNanos(0.99));
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+            actual >= expected && actual <= expected * 1.25);
+    }
+
+    @Test
+    public void testRequestsRecordedPerEndpoint() {
+        final AtomicInteger calls = new AtomicInteger();
+        HttpClient httpClient = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                return new Response("{}", calls.incrementAndGet() == 1 ? 503 : 200);
+            }
+        };
+        DefaultRequestMetrics metrics = new DefaultRequestMetrics();
+
+        client(httpClient, metrics).request(new Request(HttpMethod.GET, CALL));
+
+        assertEquals(1, metrics.getEndpoints().size());
+        EndpointMetrics endpoint = metrics.getEndpoints().iterator().next();
+        assertEquals("api.twilio.com", endpoint.getDomain());
+        assertEquals("GET", endpoint.getMethod());
+        assertEquals("/2010-04-01/Accounts/{Sid}/Calls/{Sid}.json", endpoint.getPathTemplate());
+        assertEquals(1, endpoint.getRequests());
+        assertEquals(1, endpoint.getRetries());
+        assertEquals(0, endpoint.getInFlight());
+        assertEquals(1, endpoint.getLatency(2).getCount());
+        assertEquals(Long.valueOf(1), endpoint.getRequestsByStatusClass().get("2xx"));
+    }
+
+    @Test
+    public void testErrorsRecorded() {
+        HttpClient httpClient = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                throw new ApiConnectionException("Connection reset");
+            }
+        };
+        DefaultRequestMetrics metrics = new DefaultRequestMetrics();
+
+        try {
+            client(httpClient, metrics).request(new Request(HttpMethod.POST, CALL));
+            fail("Expected ApiConnectionException");
+        } catch (final ApiConnectionException e) {
+            // Expected
+        }
+
+        assertEquals(1, metrics.getErrors());
+        assertEquals(0, metrics.getRetries());
+        assertEquals(0, metrics.getInFlight());
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        DefaultRequestMetrics metrics = new DefaultRequestMetrics(server, "jmx-test");
+        try {
+            HttpClient httpClient = new HttpClient() {
+                @Override
+                public Response makeRequest(final Request request) {
+                    return new Response("{}", 200);
+                }
+            };
+            client(httpClient, metrics).request(new Request(HttpMethod.GET, CALL));
+
+            ObjectName totals = new ObjectName("com.twilio:type=RequestMetrics,name=\"jmx-test\"");
+            assertEquals(1L, server.getAttribute(totals, "Requests"));
+
+            ObjectName endpoints = new ObjectName("com.twilio:type=EndpointMetrics,name=\"jmx-test\",*");
+            assertEquals(1, server.queryNames(endpoints, null).size());
+        } finally {
+            metrics.unregister();
+        }
+
+        assertEquals(0, server.queryNames(new ObjectName("com.twilio:name=\"jmx-test\",*"), null).size());
+    }
+}
@@ -0,0 +1,234 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HedgingHttpClientTest {
+
+    private static final String URL = "https://api.twilio.com/2010-04-01/Accounts/AC123/Calls.json";
+
+    /**
+     * Client whose requests complete only when the test completes them.
+     */
+    private static class PendingHttpClient extends HttpClient {
+        private final List<SettableFuture<Response>> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Response makeRequest(final Request request) {
+            return new Response("", 201);
+        }
+
+        @Override
+        public ListenableFuture<Response> makeRequestAsync(final Request request) {
+            SettableFuture<Response> future = SettableFuture.create();
+            sent.add(future);
+            return future;
+        }
+
+        SettableFuture<Response> awaitSent(final int index) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() <= index) {
+                if (System.nanoTime() > deadline) {
+                    fail("Request " + index + " was never sent");
+                }
+                Thread.sleep(1);
+            }
+            return sent.get(index);
+        }
+    }
+
+    @Test
+    public void testFastResponseIsNotHedged() throws Exception {
+        PendingHttpClient pending = new PendingHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(pending, 50, TimeUnit.MILLISECONDS);
+
+        ListenableFuture<Response> future = client.makeRequestAsync(new Request(HttpMethod.GET, URL));
+        Response response = new Response("primary", 200);
+        pending.awaitSent(0).set(response);
+
+        assertSame(response, future.get());
+        Thread.sleep(100);
+        assertEquals(1, pending.sent.size());
+        assertEquals(0, client.getHedgesIssued());
+    }
+
+    @Test
+    public void testHedgeWinsAndPrimaryIsCancelled() throws Exception {
+        PendingHttpClient pending = new PendingHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(pending, 10, TimeUnit.MILLISECONDS);
+
+        ListenableFuture<Response> future = client.makeRequestAsync(new Request(HttpMethod.GET, URL));
+        Response response = new Response("hedge", 200);
+        pending.awaitSent(1).set(response);
+
+        assertSame(response, future.get());
+        assertTrue(pending.sent.get(0).isCancelled());
+        assertEquals(1, client.getHedgesIssued());
+        assertEquals(1, client.getHedgesWon());
+    }
+
+    @Test
+    public void testPrimaryWinsAfterHedge() throws Exception {
+        PendingHttpClient pending = new PendingHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(pending, 10, TimeUnit.MILLISECONDS);
+
+        ListenableFuture<Response> future = client.makeRequestAsync(new Request(HttpMethod.GET, URL));
+        SettableFuture<Response> hedge = pending.awaitSent(1);
+        Response response = new Response("primary", 200);
+        pending.sent.get(0).set(response);
+
+        assertSame(response, future.get());
+        assertTrue(hedge.isCancelled());
+        assertEquals(1, client.getHedgesIssued());
+        assertEquals(0, client.getHedgesWon());
+    }
+
+    @Test
+    public void testFailureWaitsForHedge() throws Exception {
+        PendingHttpClient pending = new PendingHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(pending, 10, TimeUnit.MILLISECONDS);
+
+        ListenableFuture<Response> future = client.makeRequestAsync(new Request(HttpMethod.GET, URL));
+        SettableFuture<Response> hedge = pending.awaitSent(1);
+        pending.sent.get(0).setException(new ApiConnectionException("reset"));
+        Response response = new Response("hedge", 200);
+        hedge.set(response);
+
+        assertSame(response, future.get());
+    }
+
+    @Test
+    public void testAllAttemptsFail() throws Exception {
+        PendingHttpClient pending = new PendingHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(pending, 10, TimeUnit.MILLISECONDS);
+
+        ListenableFuture<Response> future = client.makeRequestAsync(new Request(HttpMethod.GET, URL));
+        pending.awaitSent(1).setException(new ApiConnectionException("reset"));
+        pending.sent.get(0).setException(new ApiConnectionException("reset"));
+
+        try {
+            future.get();
+            fail("Expected the request to fail");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof ApiConnectionException);
+        }
+    }
+
+    @Test
+    public void testBlockingGetIsHedgedOnOwnThreads() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        HttpClient blocking = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                if (calls.incrementAndGet() == 1) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new Response("primary", 200);
+                }
+                return new Response("hedge", 200);
+            }
+
+            @Override
+            public ListenableFuture<Response> makeRequestAsync(final Request request) {
+                throw new AssertionError("Synchronous requests must not use the asynchronous path");
+            }
+        };
+        HedgingHttpClient client = new HedgingHttpClient(blocking, 10, TimeUnit.MILLISECONDS);
+
+        try {
+            Response response = client.makeRequest(new Request(HttpMethod.GET, URL));
+
+            assertEquals("hedge", response.getContent());
+            assertEquals(1, client.getHedgesIssued());
+            assertEquals(1, client.getHedgesWon());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testInterruptedCallerStopsHedge() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        HttpClient blocking = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+                } catch (final InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return new Response("", 200);
+            }
+        };
+        final HedgingHttpClient client = new HedgingHttpClient(blocking, 200, TimeUnit.MILLISECONDS);
+
+        Thread caller = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    client.makeRequest(new Request(HttpMethod.GET, URL));
+                } catch (final ApiException e) {
+                    // Expected once interrupted
+                }
+            }
+        });
+        caller.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(5000);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(400);
+        assertEquals(1, calls.get());
+        assertEquals(0, client.getHedgesIssued());
+    }
+
+    @Test
+    public void testPostIsNotHedged() throws Exception {
+        PendingHttpClient pending = new PendingHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(pending, 0, TimeUnit.MILLISECONDS);
+
+        ListenableFuture<Response> future = client.makeRequestAsync(new Request(HttpMethod.POST, URL));
+        Thread.sleep(50);
+
+        assertEquals(1, pending.sent.size());
+        assertEquals(0, client.getHedgesIssued());
+        future.cancel(true);
+    }
+
+    @Test
+    public void testRestClientWrapsHttpClient() {
+        PendingHttpClient pending = new PendingHttpClient();
+        TwilioRestClient restClient = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(pending)
+            .hedgeAfter(200, TimeUnit.MILLISECONDS)
+            .build();
+
+        HedgingHttpClient client = (HedgingHttpClient) restClient.getHttpClient();
+        assertSame(pending, client.getDelegate());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), client.getDelayNanos());
+    }
+}
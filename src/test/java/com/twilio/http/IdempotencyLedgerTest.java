@@ -0,0 +1,285 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.DuplicateRequestException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IdempotencyLedgerTest {
+
+    private static final String URL = "https://api.twilio.com/2010-04-01/Accounts/AC123/Messages.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Client that answers with a fixed sequence of statuses, failing the connection for status 0.
+     */
+    private static class ScriptedHttpClient extends HttpClient {
+        private final int[] statuses;
+        private final List<Request> requests = new ArrayList<>();
+
+        ScriptedHttpClient(final int... statuses) {
+            this.statuses = statuses;
+        }
+
+        @Override
+        public Response makeRequest(final Request request) {
+            requests.add(request);
+            int status = statuses[Math.min(requests.size(), statuses.length) - 1];
+            if (status == 0) {
+                throw new ApiConnectionException("Connection reset");
+            }
+            return new Response("{\"sid\": \"SM" + requests.size() + "\"}", status);
+        }
+    }
+
+    private static Request create(final String body) {
+        Request request = new Request(HttpMethod.POST, URL);
+        request.addPostParam("Body", body);
+        return request;
+    }
+
+    private static Request create(final String body, final String key) {
+        Request request = create(body);
+        request.setHeader(IdempotencyLedger.HEADER, key);
+        return request;
+    }
+
+    private static TwilioRestClient client(final HttpClient httpClient, final IdempotencyLedger ledger) {
+        return client(httpClient, ledger, new RetryPolicy.Builder().baseDelayMillis(1).budget(null).build());
+    }
+
+    private static TwilioRestClient client(final HttpClient httpClient, final IdempotencyLedger ledger,
+                                           final RetryPolicy policy) {
+        return new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .retryPolicy(policy)
+            .idempotency(ledger)
+            .build();
+    }
+
+    @Test
+    public void testRepeatedCreateAnsweredFromLedger() throws IOException {
+        ScriptedHttpClient httpClient = new ScriptedHttpClient(201);
+        IdempotencyLedger ledger = new IdempotencyLedger.Builder().build();
+        TwilioRestClient client = client(httpClient, ledger);
+
+        Response first = client.request(create("Hello", "order-1"));
+        Response second = client.request(create("Hello", "order-1"));
+        Response other = client.request(create("Hello", "order-2"));
+
+        assertEquals(first.getContent(), second.getContent());
+        assertNotEquals(first.getContent(), other.getContent());
+        assertEquals(2, httpClient.requests.size());
+        assertEquals(1, ledger.getDuplicates());
+    }
+
+    @Test
+    public void testCreatesWithoutKeyAlwaysSent() throws IOException {
+        ScriptedHttpClient httpClient = new ScriptedHttpClient(201);
+        IdempotencyLedger ledger = new IdempotencyLedger.Builder().build();
+        TwilioRestClient client = client(httpClient, ledger);
+
+        client.request(create("Hello"));
+        client.request(create("Hello"));
+
+        assertEquals(2, httpClient.requests.size());
+        assertNull(httpClient.requests.get(0).getHeaders().get(IdempotencyLedger.HEADER));
+        assertTrue(ledger.getKeys().isEmpty());
+    }
+
+    @Test
+    public void testKeyedCreateRetriedWhenKeysHonoured() throws IOException {
+        ScriptedHttpClient httpClient = new ScriptedHttpClient(503, 0, 201);
+        RetryPolicy policy = new RetryPolicy.Builder().baseDelayMillis(1).budget(null).retryKeyedCreates(true).build();
+        TwilioRestClient client = client(httpClient, new IdempotencyLedger.Builder().build(), policy);
+
+        Response response = client.request(create("Hello", "order-1"));
+
+        assertEquals(201, response.getStatusCode());
+        assertEquals(3, httpClient.requests.size());
+    }
+
+    @Test
+    public void testAmbiguousCreateRefusedUntilResolved() throws IOException {
+        ScriptedHttpClient httpClient = new ScriptedHttpClient(503, 0, 201);
+        IdempotencyLedger ledger = new IdempotencyLedger.Builder().build();
+        TwilioRestClient client = client(httpClient, ledger);
+
+        assertEquals(503, client.request(create("Hello", "order-1")).getStatusCode());
+        assertEquals(1, httpClient.requests.size());
+        try {
+            client.request(create("Hello", "order-1"));
+            fail("DuplicateRequestException was expected");
+        } catch (final DuplicateRequestException e) {
+            assertEquals("order-1", e.getIdempotencyKey());
+        }
+        assertEquals(Collections.singletonList("order-1"), ledger.getUnresolvedKeys());
+
+        assertTrue(ledger.resolve("order-1"));
+        try {
+            client.request(create("Hello", "order-1"));
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            assertEquals(Collections.singletonList("order-1"), ledger.getUnresolvedKeys());
+        }
+
+        assertTrue(ledger.resolve("order-1"));
+        assertEquals(201, client.request(create("Hello", "order-1")).getStatusCode());
+        assertEquals(3, httpClient.requests.size());
+    }
+
+    @Test
+    public void testCreateWithoutLedgerNotRetriedAfterServerError() {
+        ScriptedHttpClient httpClient = new ScriptedHttpClient(503, 201);
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .retryPolicy(new RetryPolicy.Builder().baseDelayMillis(1).budget(null).build())
+            .build();
+
+        assertEquals(503, client.request(create("Hello")).getStatusCode());
+        assertEquals(1, httpClient.requests.size());
+    }
+
+    @Test
+    public void testFailedCreateReleasesKey() throws IOException {
+        ScriptedHttpClient httpClient = new ScriptedHttpClient(400, 201);
+        TwilioRestClient client = client(httpClient, new IdempotencyLedger.Builder().build());
+
+        assertEquals(400, client.request(create("Hello", "order-1")).getStatusCode());
+        assertEquals(201, client.request(create("Hello", "order-1")).getStatusCode());
+        assertEquals(2, httpClient.requests.size());
+    }
+
+    @Test
+    public void testCreateInFlightRejected() throws IOException {
+        final SettableFuture<Response> future = SettableFuture.create();
+        HttpClient httpClient = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ListenableFuture<Response> makeRequestAsync(final Request request) {
+                return future;
+            }
+        };
+        IdempotencyLedger ledger = new IdempotencyLedger.Builder().build();
+        TwilioRestClient client = client(httpClient, ledger);
+
+        Request request = create("Hello");
+        request.setHeader(IdempotencyLedger.HEADER, "order-42");
+        ListenableFuture<Response> first = client.requestAsync(request);
+
+        Request duplicate = create("Hello");
+        duplicate.setHeader(IdempotencyLedger.HEADER, "order-42");
+        try {
+            client.request(duplicate);
+            fail("DuplicateRequestException was expected");
+        } catch (final DuplicateRequestException e) {
+            assertEquals("order-42", e.getIdempotencyKey());
+        }
+
+        future.set(new Response("{}", 201));
+        assertNotNull(first);
+        assertNotNull(ledger.acquire("order-42"));
+    }
+
+    @Test
+    public void testCompletedCreatesPersisted() throws IOException {
+        File file = new File(folder.getRoot(), "ledger");
+        IdempotencyLedger ledger = new IdempotencyLedger.Builder().file(file).build();
+        assertNull(ledger.acquire("kept"));
+        ledger.complete("kept", new Response("{\"sid\": \"SM1\"}", 201));
+        assertNull(ledger.acquire("in-flight"));
+        assertNull(ledger.acquire("unresolved"));
+        ledger.markUnresolved("unresolved");
+        assertNull(ledger.acquire("resolved"));
+        ledger.markUnresolved("resolved");
+        ledger.resolve("resolved");
+        ledger.close();
+
+        IdempotencyLedger reloaded = new IdempotencyLedger.Builder().file(file).build();
+        Response response = reloaded.acquire("kept");
+        assertEquals(201, response.getStatusCode());
+        assertEquals("{\"sid\": \"SM1\"}", response.getContent());
+        assertEquals(Arrays.asList("in-flight", "unresolved"), reloaded.getUnresolvedKeys());
+        assertNull(reloaded.acquire("resolved"));
+        reloaded.close();
+    }
+
+    @Test
+    public void testCreateInFlightAtCrashUnresolvedAfterRestart() throws IOException {
+        File file = new File(folder.getRoot(), "ledger");
+        IdempotencyLedger ledger = new IdempotencyLedger.Builder().file(file).build();
+        assertNull(ledger.acquire("order-1"));
+        // The process stops before the create completes
+
+        IdempotencyLedger reloaded = new IdempotencyLedger.Builder().file(file).build();
+        try {
+            reloaded.acquire("order-1");
+            fail("DuplicateRequestException was expected");
+        } catch (final DuplicateRequestException e) {
+            assertEquals("order-1", e.getIdempotencyKey());
+        }
+        assertEquals(Collections.singletonList("order-1"), reloaded.getUnresolvedKeys());
+        ledger.close();
+        reloaded.close();
+    }
+
+    @Test
+    public void testPendingKeysNeverEvicted() throws IOException {
+        IdempotencyLedger ledger = new IdempotencyLedger.Builder().maxEntries(2).build();
+        assertNull(ledger.acquire("unresolved"));
+        ledger.markUnresolved("unresolved");
+        assertNull(ledger.acquire("in-flight"));
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(ledger.acquire("order-" + i));
+            ledger.complete("order-" + i, new Response("{}", 201));
+        }
+
+        assertEquals(Arrays.asList("order-3", "order-4", "unresolved", "in-flight"), ledger.getKeys());
+        for (String key : new String[] {"unresolved", "in-flight"}) {
+            try {
+                ledger.acquire(key);
+                fail("DuplicateRequestException was expected");
+            } catch (final DuplicateRequestException e) {
+                assertEquals(key, e.getIdempotencyKey());
+            }
+        }
+    }
+
+    @Test
+    public void testExpiredKeysForgotten() throws IOException {
+        IdempotencyLedger ledger = new IdempotencyLedger.Builder().ttl(0, TimeUnit.MILLISECONDS).build();
+
+        assertNull(ledger.acquire("key"));
+        ledger.complete("key", new Response("{}", 201));
+        assertNull(ledger.acquire("key"));
+        ledger.complete("key", new Response("{}", 201));
+
+        ledger.evictExpired();
+        assertEquals(0, ledger.getKeys().size());
+    }
+}
@@ -0,0 +1,143 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InterceptorTest {
+
+    private static final String URL = "https://api.twilio.com/2010-04-01/Accounts/AC123/Messages.json";
+
+    /**
+     * Client that records the requests it is given and what thread they were made on.
+     */
+    private static class RecordingHttpClient extends HttpClient {
+        private final List<Request> requests = new ArrayList<>();
+        private final List<Thread> threads = new ArrayList<>();
+        private final SettableFuture<Response> future = SettableFuture.create();
+
+        @Override
+        public Response makeRequest(final Request request) {
+            requests.add(request);
+            threads.add(Thread.currentThread());
+            return new Response("{}", 200);
+        }
+
+        @Override
+        public ListenableFuture<Response> makeRequestAsync(final Request request) {
+            requests.add(request);
+            threads.add(Thread.currentThread());
+            return future;
+        }
+    }
+
+    /**
+     * Interceptor that adds its name to a header and to a shared list of calls.
+     */
+    private static class NamedInterceptor extends RequestInterceptor {
+        private final String name;
+        private final List<String> calls;
+
+        NamedInterceptor(final String name, final List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        protected void process(final Request request) {
+            calls.add(name);
+            request.addHeader("X-Stage", name);
+        }
+    }
+
+    @Test
+    public void testInterceptorsRunInOrder() {
+        List<String> calls = new ArrayList<>();
+        RecordingHttpClient httpClient = new RecordingHttpClient();
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .interceptor(new NamedInterceptor("first", calls))
+            .interceptor(new NamedInterceptor("second", calls))
+            .build();
+
+        Response response = client.request(new Request(HttpMethod.GET, URL));
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(Arrays.asList("first", "second"), calls);
+        assertEquals(Arrays.asList("first", "second"), httpClient.requests.get(0).getHeaders().get("X-Stage"));
+        assertEquals("AC123", httpClient.requests.get(0).getUsername());
+    }
+
+    @Test
+    public void testInterceptorCanShortCircuit() {
+        RecordingHttpClient httpClient = new RecordingHttpClient();
+        final Response cached = new Response("{\"cached\": true}", 200);
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .interceptor(new Interceptor() {
+                @Override
+                public Response intercept(final Chain chain) {
+                    return cached;
+                }
+
+                @Override
+                public ListenableFuture<Response> interceptAsync(final Chain chain) {
+                    return Futures.immediateFuture(cached);
+                }
+            })
+            .build();
+
+        assertSame(cached, client.request(new Request(HttpMethod.GET, URL)));
+        assertTrue(httpClient.requests.isEmpty());
+    }
+
+    @Test
+    public void testInterceptorCanReplaceRequest() {
+        RecordingHttpClient httpClient = new RecordingHttpClient();
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .interceptor(new Interceptor() {
+                @Override
+                public Response intercept(final Chain chain) {
+                    return chain.proceed(new Request(HttpMethod.GET, URL + "?PageSize=5"));
+                }
+
+                @Override
+                public ListenableFuture<Response> interceptAsync(final Chain chain) {
+                    return chain.proceedAsync(new Request(HttpMethod.GET, URL + "?PageSize=5"));
+                }
+            })
+            .build();
+
+        client.request(new Request(HttpMethod.GET, URL));
+
+        assertEquals(URL + "?PageSize=5", httpClient.requests.get(0).getUrl());
+    }
+
+    @Test
+    public void testAsyncRunsOnCallingThread() throws Exception {
+        List<String> calls = new ArrayList<>();
+        RecordingHttpClient httpClient = new RecordingHttpClient();
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .interceptor(new NamedInterceptor("only", calls))
+            .build();
+
+        ListenableFuture<Response> future = client.requestAsync(new Request(HttpMethod.GET, URL));
+        Response response = new Response("{}", 200);
+        httpClient.future.set(response);
+
+        assertSame(response, future.get());
+        assertEquals(Arrays.asList("only"), calls);
+        assertSame(Thread.currentThread(), httpClient.threads.get(0));
+    }
+}
@@ -0,0 +1,163 @@
+package com.twilio.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Exercises {@link NetworkHttpClient} against a local server to verify that connections are returned
+ * to the pool and reused on every response path.
+ */
+public class NetworkHttpClientPoolTest {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 100;
+    private static final int MAX_CONNECTIONS = 4;
+
+    private final Set<Integer> connections = Collections.synchronizedSet(new HashSet<Integer>());
+    private HttpServer server;
+    private NetworkHttpClient client;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(THREADS));
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                connections.add(exchange.getRemoteAddress().getPort());
+
+                String path = exchange.getRequestURI().getPath();
+                int status = path.startsWith("/missing") ? 404 : 200;
+                byte[] body = ("{\"path\": \"" + path + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, path.startsWith("/chunked") ? 0 : body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        client = new NetworkHttpClient.Builder()
+            .maxConnectionsPerRoute(MAX_CONNECTIONS)
+            .maxConnectionsTotal(MAX_CONNECTIONS)
+            .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testConnectionsReusedUnderSustainedLoad() throws Exception {
+        final String[] paths = new String[]{"/ok", "/missing", "/chunked"};
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    int completed = 0;
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        String path = paths[i % paths.length];
+                        Response response = client.makeRequest(new Request(HttpMethod.GET, baseUrl + path));
+                        assertEquals("{\"path\": \"" + path + "\"}", response.getContent());
+                        completed++;
+                    }
+                    return completed;
+                }
+            }));
+        }
+
+        int completed = 0;
+        for (Future<Integer> future : futures) {
+            completed += future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * REQUESTS_PER_THREAD, completed);
+        assertTrue("opened " + connections.size() + " connections", connections.size() <= MAX_CONNECTIONS);
+        assertEquals(0, client.getPoolStats().getLeased());
+        assertEquals(0, client.getPoolStats().getPending());
+    }
+
+    @Test
+    public void testUnreadResponseDoesNotHoldConnection() {
+        for (int i = 0; i < MAX_CONNECTIONS * 10; i++) {
+            // Responses are never read or closed, which used to leak the pooled connection
+            client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/ok"));
+        }
+
+        assertEquals(0, client.getPoolStats().getLeased());
+        assertEquals(1, connections.size());
+    }
+
+    @Test
+    public void testPoolWaitReported() throws IOException {
+        DefaultRequestMetrics metrics = new DefaultRequestMetrics();
+        try (NetworkHttpClient metered = new NetworkHttpClient.Builder().metrics(metrics).build()) {
+            for (int i = 0; i < 3; i++) {
+                metered.makeRequest(new Request(HttpMethod.GET, baseUrl + "/ok"));
+            }
+        }
+
+        assertEquals(3, metrics.getPoolWait().getCount());
+        assertEquals(3, metrics.getPoolWaitByHost().get("127.0.0.1").getCount());
+    }
+
+    @Test
+    public void testWarmUpOpensReusableConnections() throws Exception {
+        List<String> urls = Collections.singletonList(baseUrl);
+
+        assertEquals(3, client.warmUp(urls, 3).get(5, TimeUnit.SECONDS).intValue());
+        assertEquals(3, client.getPoolStats().getAvailable());
+        assertEquals(0, client.warmUp(urls, 3).get(5, TimeUnit.SECONDS).intValue());
+
+        client.makeRequest(new Request(HttpMethod.GET, baseUrl + "/ok"));
+        assertEquals(3, client.getPoolStats().getAvailable());
+    }
+
+    @Test
+    public void testWarmUpCappedAtMaxPerRoute() throws Exception {
+        assertEquals(MAX_CONNECTIONS, client.warmUp(Collections.singletonList(baseUrl), 10)
+            .get(5, TimeUnit.SECONDS).intValue());
+        assertEquals(MAX_CONNECTIONS, client.getPoolStats().getAvailable());
+    }
+
+    @Test
+    public void testKeepWarmOpensConnections() throws Exception {
+        client.keepWarm(Collections.singletonList(baseUrl), 2, 20, TimeUnit.MILLISECONDS);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.getPoolStats().getAvailable() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, client.getPoolStats().getAvailable());
+    }
+}
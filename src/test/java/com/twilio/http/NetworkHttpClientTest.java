@@ -5,6 +5,8 @@ import mockit.Expectations;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
 import mockit.Tested;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.pool.PoolStats;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
@@ -14,8 +16,10 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 public class NetworkHttpClientTest {
@@ -301,4 +305,38 @@ public class NetworkHttpClientTest {
         assertEquals(resp.getStatusCode(), 404);
         assertEquals(resp.getContent(), "womp");
     }
+
+    @Test
+    public void testDefaultPoolStats() throws IOException {
+        NetworkHttpClient client = new NetworkHttpClient();
+        PoolStats stats = client.getPoolStats();
+
+        assertEquals(20, stats.getMax());
+        assertEquals(0, stats.getLeased());
+        assertEquals(0, stats.getPending());
+        assertEquals(0, stats.getAvailable());
+        client.close();
+    }
+
+    @Test
+    public void testBuilderPoolStats() throws IOException {
+        NetworkHttpClient client = new NetworkHttpClient.Builder()
+            .maxConnectionsPerRoute(50)
+            .maxConnectionsTotal(200)
+            .keepAlive(30, TimeUnit.SECONDS)
+            .evictIdleConnections(60, TimeUnit.SECONDS)
+            .evictExpiredConnections()
+            .validateAfterInactivity(1000)
+            .build();
+
+        assertEquals(200, client.getPoolStats().getMax());
+        client.close();
+    }
+
+    @Test
+    public void testCustomBuilderHasNoPoolStats() throws IOException {
+        NetworkHttpClient client = new NetworkHttpClient(HttpClientBuilder.create());
+        assertNull(client.getPoolStats());
+        client.close();
+    }
 }
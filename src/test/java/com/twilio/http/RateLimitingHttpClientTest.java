@@ -0,0 +1,242 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import com.twilio.exception.RateLimitExceededException;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimitingHttpClientTest {
+
+    private static final String MESSAGES =
+        "https://api.twilio.com/2010-04-01/Accounts/ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa/Messages.json";
+
+    private final HttpClient ok = new HttpClient() {
+        @Override
+        public Response makeRequest(final Request request) {
+            return new Response("", 201);
+        }
+    };
+
+    private static Request message(final String from) {
+        Request request = new Request(HttpMethod.POST, MESSAGES);
+        request.addPostParam("From", from);
+        request.addPostParam("To", "+15558675310");
+        return request;
+    }
+
+    @Test
+    public void testKeys() {
+        Request request = message("+15017122661");
+
+        assertEquals("ACaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa", RateLimit.ACCOUNT.of(request));
+        assertEquals("api.twilio.com", RateLimit.DOMAIN.of(request));
+        assertEquals("POST /2010-04-01/Accounts/{Sid}/Messages.json", RateLimit.ENDPOINT.of(request));
+        assertEquals("From=+15017122661", RateLimit.postParam("From").of(request));
+        assertNull(RateLimit.postParam("MediaUrl").of(request));
+    }
+
+    @Test
+    public void testPathTemplate() {
+        assertEquals(
+            "/v1/Workspaces/{Sid}/Tasks/{Sid}",
+            RateLimit.pathTemplate("https://taskrouter.twilio.com/v1/Workspaces/WSaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa"
+                + "/Tasks/WTaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa?PageSize=50")
+        );
+    }
+
+    @Test
+    public void testFailFastPerSender() {
+        HttpClient client = new RateLimitingHttpClient.Builder(ok)
+            .limit(new RateLimit(RateLimit.postParam("From"), 1, 1))
+            .failFast()
+            .build();
+
+        assertEquals(201, client.makeRequest(message("+15017122661")).getStatusCode());
+        assertEquals(201, client.makeRequest(message("+15017122662")).getStatusCode());
+
+        try {
+            client.makeRequest(message("+15017122661"));
+            fail("RateLimitExceededException was expected");
+        } catch (final RateLimitExceededException e) {
+            assertEquals("From=+15017122661", e.getKey());
+        }
+    }
+
+    @Test
+    public void testFailedAcquireReleasesEarlierLimits() {
+        RateLimit account = new RateLimit(RateLimit.ACCOUNT, 1, 2);
+        HttpClient client = new RateLimitingHttpClient.Builder(ok)
+            .limit(account)
+            .limit(new RateLimit(RateLimit.postParam("From"), 1, 1))
+            .failFast()
+            .build();
+
+        client.makeRequest(message("+15017122661"));
+        try {
+            client.makeRequest(message("+15017122661"));
+            fail("RateLimitExceededException was expected");
+        } catch (final RateLimitExceededException e) {
+            // expected
+        }
+
+        assertTrue(account.bucketFor(message("+15017122662")).tryAcquire());
+    }
+
+    @Test
+    public void testQueueWaits() {
+        HttpClient client = new RateLimitingHttpClient.Builder(ok)
+            .limit(new RateLimit(RateLimit.DOMAIN, 20, 1))
+            .queue(1, TimeUnit.SECONDS)
+            .build();
+
+        long start = System.nanoTime();
+        client.makeRequest(message("+15017122661"));
+        client.makeRequest(message("+15017122661"));
+        client.makeRequest(message("+15017122661"));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(80));
+    }
+
+    @Test
+    public void testAsyncFailFast() throws InterruptedException {
+        HttpClient client = new RateLimitingHttpClient.Builder(ok)
+            .limit(new RateLimit(RateLimit.ENDPOINT, 1, 1))
+            .failFast()
+            .build();
+
+        client.makeRequest(message("+15017122661"));
+        try {
+            client.makeRequestAsync(message("+15017122661")).get();
+            fail("RateLimitExceededException was expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof RateLimitExceededException);
+        }
+    }
+
+    @Test
+    public void testAsyncDelayed() throws Exception {
+        HttpClient client = new RateLimitingHttpClient.Builder(ok)
+            .limit(new RateLimit(RateLimit.ENDPOINT, 20, 1))
+            .build();
+
+        client.makeRequest(message("+15017122661"));
+        assertEquals(201, client.makeRequestAsync(message("+15017122661")).get().getStatusCode());
+    }
+
+    @Test
+    public void testFailedRequestKeepsPermit() {
+        HttpClient failing = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                throw new ApiConnectionException("Connection refused");
+            }
+        };
+        RateLimit limit = new RateLimit(RateLimit.DOMAIN, 1, 1);
+        HttpClient client = new RateLimitingHttpClient.Builder(failing).limit(limit).failFast().build();
+
+        try {
+            client.makeRequest(message("+15017122661"));
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            // expected
+        }
+
+        // The request may have reached Twilio before the connection failed
+        assertFalse(limit.bucketFor(message("+15017122661")).tryAcquire());
+    }
+
+    @Test
+    public void testAsyncFailedRequestKeepsPermit() throws InterruptedException {
+        HttpClient failing = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                throw new ApiConnectionException("Connection refused");
+            }
+        };
+        RateLimit limit = new RateLimit(RateLimit.DOMAIN, 1, 1);
+        HttpClient client = new RateLimitingHttpClient.Builder(failing).limit(limit).failFast().build();
+
+        try {
+            client.makeRequestAsync(message("+15017122661")).get();
+            fail("ApiConnectionException was expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof ApiConnectionException);
+        }
+
+        // The request may have reached Twilio before the connection failed
+        assertFalse(limit.bucketFor(message("+15017122661")).tryAcquire());
+    }
+
+    @Test
+    public void testAsyncRequestRefusedBeforeSendingReleasesPermit() throws InterruptedException {
+        HttpClient refusing = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ListenableFuture<Response> makeRequestAsync(final Request request) {
+                throw new IllegalStateException("Client is closed");
+            }
+        };
+        RateLimit limit = new RateLimit(RateLimit.DOMAIN, 1, 1);
+        HttpClient client = new RateLimitingHttpClient.Builder(refusing).limit(limit).failFast().build();
+
+        try {
+            client.makeRequestAsync(message("+15017122661")).get();
+            fail("IllegalStateException was expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        assertTrue(limit.bucketFor(message("+15017122661")).tryAcquire());
+    }
+
+    @Test
+    public void testInterruptedWaitReleasesPermit() {
+        RateLimit limit = new RateLimit(RateLimit.DOMAIN, 0.5, 1);
+        HttpClient client = new RateLimitingHttpClient.Builder(ok).limit(limit).queue(10, TimeUnit.SECONDS).build();
+        client.makeRequest(message("+15017122661"));
+
+        Thread.currentThread().interrupt();
+        try {
+            client.makeRequest(message("+15017122661"));
+            fail("ApiException was expected");
+        } catch (final ApiException e) {
+            assertTrue(Thread.interrupted());
+        }
+
+        // Only the first request's permit is held: the next one is two seconds away, not four
+        assertTrue(limit.bucketFor(message("+15017122661")).reserve(TimeUnit.SECONDS.toNanos(3)) >= 0);
+    }
+
+    @Test
+    public void testSweepDropsRefilledBuckets() throws InterruptedException {
+        RateLimit limit = new RateLimit(RateLimit.postParam("From"), 100, 1);
+        for (int i = 0; i < 10; i++) {
+            limit.bucketFor(message("+1501712266" + i)).tryAcquire();
+        }
+        RateLimit slow = new RateLimit(RateLimit.postParam("From"), 0.001, 1);
+        slow.bucketFor(message("+15017122661")).tryAcquire();
+        assertEquals(10, limit.bucketCount());
+
+        Thread.sleep(50);
+        limit.sweep();
+        slow.sweep();
+
+        assertEquals(0, limit.bucketCount());
+        assertEquals(1, slow.bucketCount());
+        assertFalse(slow.bucketFor(message("+15017122661")).tryAcquire());
+    }
+}
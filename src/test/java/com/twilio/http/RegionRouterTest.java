@@ -0,0 +1,206 @@
+package com.twilio.http;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.twilio.exception.ApiConnectionException;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RegionRouterTest {
+
+    private static final String PATH = "/2010-04-01/Accounts/AC123/Messages.json";
+
+    /**
+     * Client that answers with a status per host, or fails to connect to hosts without one.
+     */
+    private static class RegionalHttpClient extends HttpClient {
+        private final Map<String, Integer> statuses = new HashMap<>();
+        private final List<String> hosts = new ArrayList<>();
+
+        @Override
+        public Response makeRequest(final Request request) {
+            String host = URI.create(request.getUrl()).getHost();
+            hosts.add(host);
+            Integer status = statuses.get(host);
+            if (status == null) {
+                throw new ApiConnectionException("Unable to connect to " + host);
+            }
+            return new Response("{}", status);
+        }
+
+        @Override
+        public ListenableFuture<Response> makeRequestAsync(final Request request) {
+            try {
+                return Futures.immediateFuture(makeRequest(request));
+            } catch (final ApiConnectionException e) {
+                return Futures.immediateFailedFuture(e);
+            }
+        }
+    }
+
+    private final RegionalHttpClient httpClient = new RegionalHttpClient();
+
+    private TwilioRestClient client(final RegionRouter router) {
+        return new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .retryPolicy(new RetryPolicy.Builder().maxAttempts(1).build())
+            .router(router)
+            .build();
+    }
+
+    private static RegionRouter router() {
+        return new RegionRouter.Builder()
+            .edge("dublin", "ie1")
+            .region("us1")
+            .ejectFor(1, TimeUnit.MINUTES)
+            .build();
+    }
+
+    @Test
+    public void testRoutesToFirstEndpoint() {
+        httpClient.statuses.put("api.dublin.ie1.twilio.com", 200);
+        Request request = new Request(HttpMethod.GET, "api", PATH);
+        request.addQueryParam("PageSize", "50");
+
+        assertEquals(200, client(router()).request(request).getStatusCode());
+        assertEquals(Arrays.asList("api.dublin.ie1.twilio.com"), httpClient.hosts);
+    }
+
+    @Test
+    public void testIgnoresOtherHosts() {
+        httpClient.statuses.put("example.com", 200);
+
+        client(router()).request(new Request(HttpMethod.GET, "https://example.com" + PATH));
+
+        assertEquals(Arrays.asList("example.com"), httpClient.hosts);
+    }
+
+    @Test
+    public void testIdempotentRequestFailsOver() {
+        httpClient.statuses.put("api.dublin.ie1.twilio.com", 503);
+        httpClient.statuses.put("api.us1.twilio.com", 200);
+        RegionRouter router = router();
+
+        Response response = client(router).request(new Request(HttpMethod.GET, "api", PATH, "ie1"));
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(Arrays.asList("api.dublin.ie1.twilio.com", "api.us1.twilio.com"), httpClient.hosts);
+        assertEquals(1, router.getFailovers());
+        assertEquals(1, router.getEndpoints().get(0).getFailures());
+    }
+
+    @Test
+    public void testPostDoesNotFailOver() {
+        httpClient.statuses.put("api.us1.twilio.com", 200);
+        RegionRouter router = router();
+
+        try {
+            client(router).request(new Request(HttpMethod.POST, "api", PATH));
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            assertEquals(Arrays.asList("api.dublin.ie1.twilio.com"), httpClient.hosts);
+            assertEquals(0, router.getFailovers());
+        }
+    }
+
+    @Test
+    public void testUnhealthyEndpointEjected() {
+        httpClient.statuses.put("api.us1.twilio.com", 200);
+        RegionRouter router = router();
+        TwilioRestClient client = client(router);
+
+        for (int i = 0; i < 5; i++) {
+            client.request(new Request(HttpMethod.GET, "api", PATH));
+        }
+
+        RegionRouter.Endpoint dublin = router.getEndpoints().get(0);
+        assertFalse(dublin.isHealthy());
+        assertEquals(1, dublin.getEjections());
+        assertEquals(3, dublin.getRequests());
+        assertEquals(5, router.getEndpoints().get(1).getRequests());
+        assertEquals(3, router.getFailovers());
+    }
+
+    @Test
+    public void testRetriesEachEndpointBeforeFailingOver() {
+        httpClient.statuses.put("api.dublin.ie1.twilio.com", 503);
+        httpClient.statuses.put("api.us1.twilio.com", 200);
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .retryPolicy(new RetryPolicy.Builder().maxAttempts(2).baseDelayMillis(1).build())
+            .router(router())
+            .build();
+
+        assertEquals(200, client.request(new Request(HttpMethod.GET, "api", PATH)).getStatusCode());
+        assertEquals(
+            Arrays.asList("api.dublin.ie1.twilio.com", "api.dublin.ie1.twilio.com", "api.us1.twilio.com"),
+            httpClient.hosts
+        );
+    }
+
+    @Test
+    public void testAllEndpointsDown() {
+        RegionRouter router = router();
+
+        try {
+            client(router).request(new Request(HttpMethod.GET, "api", PATH));
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            assertEquals(Arrays.asList("api.dublin.ie1.twilio.com", "api.us1.twilio.com"), httpClient.hosts);
+        }
+    }
+
+    @Test
+    public void testAsyncFailsOver() throws Exception {
+        httpClient.statuses.put("api.us1.twilio.com", 200);
+        RegionRouter router = router();
+
+        Response response = client(router).requestAsync(new Request(HttpMethod.DELETE, "api", PATH)).get();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(Arrays.asList("api.dublin.ie1.twilio.com", "api.us1.twilio.com"), httpClient.hosts);
+        assertEquals(1, router.getFailovers());
+        assertTrue(router.getEndpoints().get(1).getLatencyNanos() > 0);
+    }
+
+    @Test
+    public void testIdleEndpointIsProbed() throws InterruptedException {
+        httpClient.statuses.put("api.dublin.ie1.twilio.com", 200);
+        httpClient.statuses.put("api.us1.twilio.com", 200);
+        RegionRouter router = new RegionRouter.Builder()
+            .edge("dublin", "ie1")
+            .region("us1")
+            .probeEvery(50, TimeUnit.MILLISECONDS)
+            .latencyMargin(1000)
+            .build();
+        TwilioRestClient client = client(router);
+
+        client.request(new Request(HttpMethod.GET, "api", PATH));
+        Thread.sleep(60);
+        client.request(new Request(HttpMethod.GET, "api", PATH));
+        client.request(new Request(HttpMethod.POST, "api", PATH));
+        client.request(new Request(HttpMethod.GET, "api", PATH));
+
+        assertEquals(
+            Arrays.asList(
+                "api.dublin.ie1.twilio.com", "api.us1.twilio.com", "api.dublin.ie1.twilio.com",
+                "api.dublin.ie1.twilio.com"
+            ),
+            httpClient.hosts
+        );
+        assertEquals(1, router.getProbes());
+        assertTrue(router.getEndpoints().get(1).getLatencyNanos() > 0);
+    }
+}
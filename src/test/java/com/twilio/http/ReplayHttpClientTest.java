@@ -0,0 +1,171 @@
+package com.twilio.http;
+
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.fake.FakeTwilioServer;
+import com.twilio.rest.api.v2010.account.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReplayHttpClientTest {
+
+    private static final String URL = "https://api.twilio.com/2010-04-01/Accounts/AC123/Messages.json";
+
+    private File file;
+
+    /**
+     * Client that answers every request with the next status in a sequence, after a fixed delay.
+     */
+    private static class SlowHttpClient extends HttpClient {
+        private final long delayMillis;
+        private int calls;
+
+        SlowHttpClient(final long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public Response makeRequest(final Request request) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (final InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            calls++;
+            return new Response("{\"call\": " + calls + "}", 200 + calls);
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("twilio-recording", ".log");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private static Request post(final String body) {
+        Request request = new Request(HttpMethod.POST, URL);
+        request.addPostParam("Body", body);
+        return request;
+    }
+
+    @Test
+    public void testReplaysReadAcrossPages() throws IOException {
+        List<String> recorded = new ArrayList<>();
+        String accountSid;
+        try (final FakeTwilioServer server = new FakeTwilioServer.Builder().records(120).build();
+             final NetworkHttpClient network = new NetworkHttpClient()) {
+            accountSid = server.getAccountSid();
+            HttpClient redirecting = new HttpClient() {
+                @Override
+                public Response makeRequest(final Request request) {
+                    return network.makeRequest(server.redirect(request));
+                }
+            };
+
+            try (RecordingHttpClient recorder = new RecordingHttpClient(redirecting, file)) {
+                TwilioRestClient client = new TwilioRestClient.Builder(accountSid, "AUTH TOKEN")
+                    .httpClient(recorder)
+                    .build();
+                for (Message message : Message.reader(accountSid).pageSize(50).read(client)) {
+                    recorded.add(message.getSid());
+                }
+            }
+        }
+
+        ReplayHttpClient replay = new ReplayHttpClient(file);
+        TwilioRestClient client = new TwilioRestClient.Builder(accountSid, "AUTH TOKEN")
+            .httpClient(replay)
+            .build();
+        List<String> replayed = new ArrayList<>();
+        for (Message message : Message.reader(accountSid).pageSize(50).read(client)) {
+            replayed.add(message.getSid());
+        }
+
+        assertEquals(120, recorded.size());
+        assertEquals(recorded, replayed);
+        assertEquals(3, replay.getExchanges());
+    }
+
+    @Test
+    public void testMatchesOnParametersAndCyclesResponses() throws IOException {
+        try (RecordingHttpClient recorder = new RecordingHttpClient(new SlowHttpClient(0), file)) {
+            recorder.makeRequest(post("first"));
+            recorder.makeRequest(post("second"));
+            recorder.makeRequest(post("first"));
+        }
+
+        ReplayHttpClient replay = new ReplayHttpClient(file);
+
+        assertEquals(201, replay.makeRequest(post("first")).getStatusCode());
+        assertEquals(203, replay.makeRequest(post("first")).getStatusCode());
+        assertEquals(201, replay.makeRequest(post("first")).getStatusCode());
+        assertEquals("{\"call\": 2}", replay.makeRequest(post("second")).getContent());
+
+        try {
+            replay.makeRequest(post("third"));
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            assertTrue(e.getMessage().contains(URL));
+        }
+    }
+
+    @Test
+    public void testScaledTiming() throws Exception {
+        try (RecordingHttpClient recorder = new RecordingHttpClient(new SlowHttpClient(100), file)) {
+            recorder.makeRequest(post("slow"));
+        }
+
+        long start = System.nanoTime();
+        new ReplayHttpClient(file).makeRequest(post("slow"));
+        long immediate = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        new ReplayHttpClient(file, 0.5).makeRequestAsync(post("slow")).get();
+        long scaled = System.nanoTime() - start;
+
+        assertTrue(immediate < TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(scaled >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testTruncatedLogEndsAtLastCompleteRecord() throws IOException {
+        try (RecordingHttpClient recorder = new RecordingHttpClient(new SlowHttpClient(0), file)) {
+            recorder.makeRequest(post("first"));
+            recorder.makeRequest(post("second"));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        ReplayHttpClient replay = new ReplayHttpClient(file);
+
+        assertEquals(1, replay.getExchanges());
+        assertEquals("{\"call\": 1}", replay.makeRequest(post("first")).getContent());
+        try {
+            replay.makeRequest(post("second"));
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        new ReplayHttpClient(file);
+    }
+}
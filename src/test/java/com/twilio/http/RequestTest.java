@@ -7,8 +7,15 @@ import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 import org.junit.Test;
 
+import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static com.twilio.Assert.assertQueryStringsEqual;
 import static com.twilio.Assert.assertUrlsEqual;
@@ -174,5 +181,72 @@ public class RequestTest {
         assertFalse(request.equals(null));
     }
 
-}
+    @Test
+    public void testEncodingMatchesUrlEncoder() throws UnsupportedEncodingException {
+        String[] values = new String[]{
+            "plain", "with space", "a+b=c&d", "~!*'()._-", "100%", "caf\u00e9", "\u20ac5", "\ud83d\ude00",
+            "lone \ud83d surrogate", "trailing \ude00", "", "/path?query#fragment"
+        };
+
+        for (String value : values) {
+            Request r = new Request(HttpMethod.POST, "http://example.com/foobar");
+            r.addPostParam("Body", value);
+            String expected = "Body=" + URLEncoder.encode(value, "UTF-8");
+
+            assertEquals(expected, r.encodeFormBody());
+            assertEquals(expected, new String(r.encodeFormBodyBytes(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void testEncodeSkipsNullValues() {
+        Request r = new Request(HttpMethod.POST, "http://example.com/foobar");
+        r.addPostParam("Empty", null);
+        assertEquals("", r.encodeFormBody());
+
+        r.addPostParam("Empty", "value");
+        assertEquals("Empty=value", r.encodeFormBody());
+    }
+
+    @Test
+    public void testFailedEncodeLeavesNothingBehind() {
+        Map<String, List<String>> invalid = new LinkedHashMap<>();
+        invalid.put("Body", Collections.singletonList("partial"));
+        invalid.put(null, Collections.singletonList("value"));
+        Map<String, List<String>> valid = Collections.singletonMap("To", Collections.singletonList("+15558675310"));
+
+        try {
+            FormEncoder.encodeToString(invalid);
+            fail("NullPointerException was expected");
+        } catch (final NullPointerException e) {
+            // expected
+        }
+        assertEquals("To=%2B15558675310", FormEncoder.encodeToString(valid));
 
+        try {
+            FormEncoder.encode(invalid);
+            fail("NullPointerException was expected");
+        } catch (final NullPointerException e) {
+            // expected
+        }
+        assertEquals("To=%2B15558675310", new String(FormEncoder.encode(valid), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testConstructURI() {
+        Request r = new Request(HttpMethod.GET, Domains.API.toString(), "/2010-04-01/foobar");
+        r.addQueryParam("baz", "quux quuz");
+        assertEquals("https://api.twilio.com/2010-04-01/foobar?baz=quux+quuz", r.constructURI().toString());
+    }
+
+    @Test
+    public void testGetAuthString() {
+        Request request = new Request(HttpMethod.GET, "/uri");
+        request.setAuth("username", "password");
+        assertEquals("Basic dXNlcm5hbWU6cGFzc3dvcmQ=", request.getAuthString());
+
+        request.setAuth("other", "password");
+        assertEquals(Request.basicAuth("other", "password"), request.getAuthString());
+    }
+
+}
@@ -1,14 +1,24 @@
 package com.twilio.http;
 
+import com.google.common.base.Charsets;
+import com.google.common.io.CharStreams;
 import com.twilio.exception.ApiConnectionException;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ResponseTest {
@@ -18,7 +28,7 @@ public class ResponseTest {
         Response response = new Response(stream, TwilioRestClient.HTTP_STATUS_CODE_OK);
 
         new NonStrictExpectations() {{
-            stream.available();
+            stream.read((byte[]) any, anyInt, anyInt);
             result = new IOException();
         }};
 
@@ -32,4 +42,67 @@ public class ResponseTest {
         assertEquals(stream, response.getStream());
     }
 
+    @Test
+    public void testGetContentDrainsAndClosesStream() {
+        final boolean[] closed = new boolean[1];
+        InputStream stream = new ByteArrayInputStream("frobozz".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+
+        Response response = new Response(stream, TwilioRestClient.HTTP_STATUS_CODE_OK);
+
+        assertEquals("frobozz", response.getContent());
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    public void testBufferedBody() throws IOException {
+        byte[] body = "frobozz".getBytes(StandardCharsets.UTF_8);
+        Response response = new Response(body, TwilioRestClient.HTTP_STATUS_CODE_OK);
+
+        assertEquals("frobozz", response.getContent());
+        assertEquals("frobozz", CharStreams.toString(new InputStreamReader(response.getStream(), Charsets.UTF_8)));
+        assertEquals("frobozz", response.getContent());
+    }
+
+    @Test
+    public void testReadFullyWithWrongSizeHint() throws IOException {
+        byte[] data = new byte[20000];
+        Arrays.fill(data, (byte) 'x');
+
+        assertEquals(20000, Response.readFully(new ByteArrayInputStream(data), 100).length);
+        assertEquals(20000, Response.readFully(new ByteArrayInputStream(data), 30000).length);
+        assertEquals(20000, Response.readFully(new ByteArrayInputStream(data), -1).length);
+    }
+
+    @Test
+    public void testReadFullyWithBogusSizeHint() throws IOException {
+        byte[] data = new byte[100000];
+        Arrays.fill(data, (byte) 'x');
+
+        assertEquals(100000, Response.readFully(new ByteArrayInputStream(data), Integer.MAX_VALUE).length);
+        assertEquals(100000, Response.readFully(new ByteArrayInputStream(data), 3000000000L).length);
+        assertEquals(3, Response.readFully(new ByteArrayInputStream(new byte[3]), Long.MAX_VALUE).length);
+    }
+
+    @Test
+    public void testBufferKeepsRepeatedHeaders() throws IOException {
+        BasicHttpResponse http = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        http.addHeader("Set-Cookie", "a=1");
+        http.addHeader("Link", "<https://api.twilio.com/next>; rel=\"next\"");
+        http.addHeader("set-cookie", "b=2");
+        http.setEntity(new StringEntity("{}", StandardCharsets.UTF_8));
+
+        Response response = Response.buffer(http);
+
+        assertEquals(Arrays.asList("a=1", "b=2"), response.getHeaders("SET-COOKIE"));
+        assertEquals("a=1", response.getHeader("Set-Cookie"));
+        assertEquals(1, response.getHeaders("Link").size());
+        assertTrue(response.getHeaders("Retry-After").isEmpty());
+        assertEquals("{}", response.getContent());
+    }
 }
@@ -0,0 +1,48 @@
+package com.twilio.http;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBudgetTest {
+
+    @Test
+    public void testReserve() {
+        RetryBudget budget = new RetryBudget(0.0, 2, 2);
+
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+    }
+
+    @Test
+    public void testRatio() {
+        RetryBudget budget = new RetryBudget(0.1, 0, 100);
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest();
+        }
+
+        int retries = 0;
+        while (budget.tryAcquireRetry()) {
+            retries++;
+        }
+        assertEquals(10, retries);
+    }
+
+    @Test
+    public void testCapacity() {
+        RetryBudget budget = new RetryBudget(1.0, 0, 5);
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest();
+        }
+
+        assertEquals(5, budget.getAvailableRetries());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRatio() {
+        new RetryBudget(1.5, 0, 5);
+    }
+}
@@ -0,0 +1,227 @@
+package com.twilio.http;
+
+import com.google.common.collect.ImmutableMap;
+import com.twilio.exception.ApiConnectionException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryPolicyTest {
+
+    private static final Request GET = new Request(HttpMethod.GET, "https://api.twilio.com/uri");
+    private static final Request POST = new Request(HttpMethod.POST, "https://api.twilio.com/uri");
+
+    @Test
+    public void testServerErrorBackoffIsJittered() {
+        RetryPolicy policy = new RetryPolicy.Builder().baseDelayMillis(100).budget(null).build();
+
+        for (int i = 0; i < 100; i++) {
+            long first = policy.nextDelay(GET, new Response("", 503), null, 1);
+            long second = policy.nextDelay(GET, new Response("", 503), null, 2);
+            assertTrue(first >= 0 && first <= 100);
+            assertTrue(second >= 0 && second <= 200);
+        }
+    }
+
+    @Test
+    public void testStopsAfterMaxAttempts() {
+        RetryPolicy policy = new RetryPolicy.Builder().maxAttempts(2).budget(null).build();
+
+        assertTrue(policy.nextDelay(GET, new Response("", 500), null, 1) >= 0);
+        assertEquals(-1, policy.nextDelay(GET, new Response("", 500), null, 2));
+    }
+
+    @Test
+    public void testClientErrorNotRetried() {
+        RetryPolicy policy = new RetryPolicy.Builder().build();
+        assertEquals(-1, policy.nextDelay(GET, new Response("", 404), null, 1));
+    }
+
+    @Test
+    public void testTooManyRequestsHonorsRetryAfter() {
+        RetryPolicy policy = new RetryPolicy.Builder().build();
+        Response response = new Response(
+            new byte[0], 429, ImmutableMap.of("retry-after", Collections.singletonList("2"))
+        );
+
+        assertEquals(2000, policy.nextDelay(GET, response, null, 1));
+    }
+
+    @Test
+    public void testRetryAfterBeyondMaxDelayNotRetried() {
+        RetryPolicy policy = new RetryPolicy.Builder().maxDelayMillis(1000).build();
+        Response response = new Response(
+            new byte[0], 429, ImmutableMap.of("Retry-After", Collections.singletonList("120"))
+        );
+
+        assertEquals(-1, policy.nextDelay(GET, response, null, 1));
+    }
+
+    @Test
+    public void testConnectionFailureRetriedOnlyWhenIdempotent() {
+        RetryPolicy policy = new RetryPolicy.Builder().build();
+        ApiConnectionException failure = new ApiConnectionException("Connection reset");
+
+        assertTrue(policy.nextDelay(GET, null, failure, 1) >= 0);
+        assertEquals(-1, policy.nextDelay(POST, null, failure, 1));
+    }
+
+    @Test
+    public void testServerErrorRetriedForKeyedCreatesOnlyWhenKeysHonoured() {
+        RetryPolicy policy = new RetryPolicy.Builder().budget(null).build();
+        RetryPolicy honoured = new RetryPolicy.Builder().budget(null).retryKeyedCreates(true).build();
+        Request keyed = new Request(HttpMethod.POST, "https://api.twilio.com/uri");
+        keyed.setHeader(IdempotencyLedger.HEADER, "key");
+        ApiConnectionException failure = new ApiConnectionException("Connection reset");
+
+        assertEquals(-1, policy.nextDelay(POST, new Response("", 500), null, 1));
+        assertTrue(policy.nextDelay(POST, new Response("", 429), null, 1) >= 0);
+        assertEquals(-1, policy.nextDelay(keyed, new Response("", 500), null, 1));
+        assertEquals(-1, policy.nextDelay(keyed, null, failure, 1));
+        assertEquals(-1, honoured.nextDelay(POST, new Response("", 500), null, 1));
+        assertTrue(honoured.nextDelay(keyed, new Response("", 500), null, 1) >= 0);
+        assertTrue(honoured.nextDelay(keyed, null, failure, 1) >= 0);
+    }
+
+    @Test
+    public void testBudgetLimitsRetries() {
+        RetryPolicy policy = new RetryPolicy.Builder().budget(new RetryBudget(0.0, 1, 1)).build();
+
+        assertTrue(policy.nextDelay(GET, new Response("", 500), null, 1) >= 0);
+        assertEquals(-1, policy.nextDelay(GET, new Response("", 500), null, 1));
+    }
+
+    @Test
+    public void testReliableRequestRetriesUntilSuccess() {
+        final AtomicInteger attempts = new AtomicInteger();
+        HttpClient client = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                return new Response("", attempts.incrementAndGet() < 3 ? 503 : 200);
+            }
+        };
+
+        RetryPolicy policy = new RetryPolicy.Builder().baseDelayMillis(1).build();
+        Response response = client.reliableRequest(GET, policy);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testReliableRequestRethrowsConnectionFailure() {
+        final AtomicInteger attempts = new AtomicInteger();
+        HttpClient client = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                attempts.incrementAndGet();
+                throw new ApiConnectionException("Connection refused");
+            }
+        };
+
+        try {
+            client.reliableRequest(GET, new RetryPolicy.Builder().baseDelayMillis(1).build());
+            fail("ApiConnectionException was expected");
+        } catch (final ApiConnectionException e) {
+            assertEquals(3, attempts.get());
+        }
+    }
+
+    @Test
+    public void testRequestAsyncRetriesWithClientPolicy() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        HttpClient httpClient = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                return new Response("", attempts.incrementAndGet() < 3 ? 503 : 200);
+            }
+        };
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .httpClient(httpClient)
+            .retryPolicy(new RetryPolicy.Builder().baseDelayMillis(1).build())
+            .build();
+
+        Response response = client.requestAsync(new Request(HttpMethod.GET, "https://api.twilio.com/uri"))
+            .get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testReliableRequestAsyncFailsWithLastConnectionFailure() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        HttpClient client = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                attempts.incrementAndGet();
+                throw new ApiConnectionException("Connection refused");
+            }
+        };
+
+        try {
+            client.reliableRequestAsync(GET, new RetryPolicy.Builder().baseDelayMillis(1).build(), null)
+                .get(5, TimeUnit.SECONDS);
+            fail("ApiConnectionException was expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof ApiConnectionException);
+            assertEquals(3, attempts.get());
+        }
+    }
+
+    @Test
+    public void testReliableRequestAsyncDoesNotRetryUnsafeRequest() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        HttpClient client = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                attempts.incrementAndGet();
+                return new Response("", 503);
+            }
+        };
+
+        RetryPolicy policy = new RetryPolicy.Builder().baseDelayMillis(1).build();
+        Response response = client.reliableRequestAsync(POST, policy, null).get(5, TimeUnit.SECONDS);
+
+        assertEquals(503, response.getStatusCode());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void testInterruptedBackoffReturnsReadableResponse() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        HttpClient client = new HttpClient() {
+            @Override
+            public Response makeRequest(final Request request) {
+                InputStream body = new ByteArrayInputStream("{\"code\": 20503}".getBytes(StandardCharsets.UTF_8)) {
+                    @Override
+                    public void close() {
+                        closed.set(true);
+                    }
+                };
+                return new Response(body, 503);
+            }
+        };
+        RetryPolicy policy = new RetryPolicy.Builder().baseDelayMillis(1000).budget(null).build();
+
+        Thread.currentThread().interrupt();
+        Response response = client.reliableRequest(GET, policy, null);
+
+        assertTrue(Thread.interrupted());
+        assertFalse(closed.get());
+        assertEquals(503, response.getStatusCode());
+        assertEquals("{\"code\": 20503}", response.getContent());
+    }
+}
@@ -0,0 +1,51 @@
+package com.twilio.http;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+
+    @Test
+    public void testBurst() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testReserveReturnsWait() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+
+        assertEquals(0, bucket.reserve(0));
+        long wait = bucket.reserve(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(-1, bucket.reserve(TimeUnit.MILLISECONDS.toNanos(10)));
+    }
+
+    @Test
+    public void testRelease() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        bucket.release();
+        assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testRefill() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 1);
+
+        assertTrue(bucket.tryAcquire());
+        Thread.sleep(20);
+        assertTrue(bucket.tryAcquire());
+    }
+}
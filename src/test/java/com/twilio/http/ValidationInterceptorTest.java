@@ -0,0 +1,144 @@
+package com.twilio.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Checks that signing a Request gives the same request hash as signing the Apache request on the wire.
+ */
+public class ValidationInterceptorTest {
+
+    private final List<String> tokens = new CopyOnWriteArrayList<>();
+    private KeyPair keyPair;
+    private HttpServer server;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        keyPair = keyGen.generateKeyPair();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                tokens.add(exchange.getRequestHeaders().getFirst("Twilio-Client-Validation"));
+                byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/2010-04-01/Accounts/AC123/Messages.json";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private ValidationInterceptor interceptor() {
+        return new ValidationInterceptor("AC123", "CR123", "SK123", keyPair.getPrivate());
+    }
+
+    private Claims claims(final String token) {
+        assertNotNull(token);
+        return Jwts.parser().setSigningKey(keyPair.getPublic()).parseClaimsJws(token).getBody();
+    }
+
+    private String signOnWire(final Request request) throws IOException {
+        RequestBuilder builder = RequestBuilder.create(request.getMethod().toString())
+            .setUri(request.constructURL().toString())
+            .addHeader(HttpHeaders.AUTHORIZATION, request.getAuthString());
+        if (request.getMethod() == HttpMethod.POST) {
+            builder.setEntity(new ByteArrayEntity(request.encodeFormBodyBytes()));
+        }
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().addInterceptorLast(interceptor()).build();
+             CloseableHttpResponse response = client.execute(builder.build())) {
+            assertEquals(200, response.getStatusLine().getStatusCode());
+        }
+        return tokens.remove(tokens.size() - 1);
+    }
+
+    private String signInPipeline(final Request request) {
+        TwilioRestClient client = new TwilioRestClient.Builder("AC123", "AUTH TOKEN")
+            .interceptor(interceptor())
+            .build();
+        assertEquals(200, client.request(request).getStatusCode());
+        return tokens.remove(tokens.size() - 1);
+    }
+
+    private static Request get(final String url) {
+        Request request = new Request(HttpMethod.GET, url);
+        request.setAuth("AC123", "AUTH TOKEN");
+        request.addQueryParam("PageSize", "50");
+        request.addQueryParam("To", "+15558675310");
+        return request;
+    }
+
+    private static Request post(final String url) {
+        Request request = new Request(HttpMethod.POST, url);
+        request.setAuth("AC123", "AUTH TOKEN");
+        request.addPostParam("To", "+15558675310");
+        request.addPostParam("Body", "Hello (world)! 100% ~tilde~ *star* \u00e9moji");
+        return request;
+    }
+
+    @Test
+    public void testGetSignedLikeWire() throws IOException {
+        Claims wire = claims(signOnWire(get(baseUrl)));
+        Claims pipeline = claims(signInPipeline(get(baseUrl)));
+
+        assertEquals(wire.get("hrh"), pipeline.get("hrh"));
+        assertEquals(wire.get("rqh"), pipeline.get("rqh"));
+    }
+
+    @Test
+    public void testPostSignedLikeWire() throws IOException {
+        Claims wire = claims(signOnWire(post(baseUrl)));
+        Claims pipeline = claims(signInPipeline(post(baseUrl)));
+
+        assertEquals(wire.get("rqh"), pipeline.get("rqh"));
+    }
+
+    @Test
+    public void testValidationClient() throws IOException {
+        Claims wire = claims(signOnWire(post(baseUrl)));
+
+        try (ValidationClient client = new ValidationClient("AC123", "CR123", "SK123", keyPair.getPrivate())) {
+            assertEquals(200, client.makeRequest(post(baseUrl)).getStatusCode());
+        }
+        Claims viaClient = claims(tokens.remove(tokens.size() - 1));
+
+        assertEquals(wire.get("rqh"), viaClient.get("rqh"));
+        assertEquals("AC123", viaClient.getSubject());
+    }
+}